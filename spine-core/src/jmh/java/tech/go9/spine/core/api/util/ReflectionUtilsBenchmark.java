@@ -0,0 +1,103 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.core.api.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the property accessors of {@link ReflectionUtils} with direct calls and with
+ * the Method.invoke path they replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReflectionUtilsBenchmark {
+
+	private Sample sample;
+
+	private Field nameField;
+
+	private Field codeField;
+
+	private Method getter;
+
+	@Setup
+	public void setup() throws Exception {
+		this.sample = new Sample();
+		this.sample.setName("spine");
+		this.nameField = ReflectionUtils.findField(Sample.class, "name");
+		this.codeField = ReflectionUtils.findField(Sample.class, "code");
+		this.getter = Sample.class.getMethod("getName");
+	}
+
+	@Benchmark
+	public Object directGet() {
+		return this.sample.getName();
+	}
+
+	@Benchmark
+	public Object methodInvokeGet() throws Exception {
+		return this.getter.invoke(this.sample);
+	}
+
+	@Benchmark
+	public Object getFieldValue() throws Exception {
+		return ReflectionUtils.getFieldValue(this.sample, this.nameField);
+	}
+
+	@Benchmark
+	public void setFieldValue() throws Exception {
+		ReflectionUtils.setFieldValue(this.sample, this.nameField, "spine");
+	}
+
+	@Benchmark
+	public Object forcedGetFieldValue() throws Exception {
+		return ReflectionUtils.getFieldValue(this.sample, this.codeField, true);
+	}
+
+	public static class Sample {
+
+		private String name;
+
+		private String code = "code";
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.core.api.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.springframework.util.Assert;
+
+/**
+ * Point in time to read audited data at, either an audit revision or an instant that
+ * resolves to the latest revision committed at or before it.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+public final class AsOf implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Number revision;
+
+	private final Instant instant;
+
+	private AsOf(Number revision, Instant instant) {
+		this.revision = revision;
+		this.instant = instant;
+	}
+
+	public static AsOf ofRevision(Number revision) {
+		Assert.notNull(revision, "Revision must not be null!");
+		return new AsOf(revision, null);
+	}
+
+	public static AsOf ofInstant(Instant instant) {
+		Assert.notNull(instant, "Instant must not be null!");
+		return new AsOf(null, instant);
+	}
+
+	public Optional<Number> getRevision() {
+		return Optional.ofNullable(revision);
+	}
+
+	public Optional<Instant> getInstant() {
+		return Optional.ofNullable(instant);
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (this == object) {
+			return true;
+		}
+		if (object == null || getClass() != object.getClass()) {
+			return false;
+		}
+		AsOf other = (AsOf) object;
+		return Objects.equals(revision, other.revision) && Objects.equals(instant, other.instant);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(revision, instant);
+	}
+
+	@Override
+	public String toString() {
+		return "AsOf [revision=" + revision + ", instant=" + instant + "]";
+	}
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.core.api.domain;
+
+/**
+ * Strategies used to compute the total number of elements of a paged query.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+public enum CountStrategy {
+
+	/**
+	 * Runs a count query for each page.
+	 */
+	EXACT,
+
+	/**
+	 * Reuses the total of a previous count for the same query until it expires or the
+	 * entity is changed through its repository.
+	 */
+	CACHED,
+
+	/**
+	 * Uses the database table statistics when the query is not filtered, falling back to
+	 * {@link #EXACT} otherwise.
+	 */
+	ESTIMATED,
+
+	/**
+	 * Skips the count query, returning a slice that only knows if there is a next page.
+	 */
+	NONE
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.core.api.domain;
+
+import java.util.List;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+/**
+ * Result of a {@link KeysetPageable} request, carrying the cursors used to navigate to
+ * the surrounding pages.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+public class KeysetPage<T> extends SliceImpl<T> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final boolean previous;
+
+	private final String nextCursor;
+
+	private final String previousCursor;
+
+	public KeysetPage(List<T> content, KeysetPageable keysetPageable, boolean hasNext, boolean hasPrevious,
+			String nextCursor, String previousCursor) {
+		super(content, PageRequest.of(0, keysetPageable.getPageSize(), keysetPageable.getSort()), hasNext);
+		this.previous = hasPrevious;
+		this.nextCursor = nextCursor;
+		this.previousCursor = previousCursor;
+	}
+
+	@Override
+	public boolean hasPrevious() {
+		return previous;
+	}
+
+	@Override
+	public boolean isFirst() {
+		return !previous;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public String getPreviousCursor() {
+		return previousCursor;
+	}
+
+}
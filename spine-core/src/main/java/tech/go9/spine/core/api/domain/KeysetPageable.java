@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.core.api.domain;
+
+import java.io.Serializable;
+import java.util.Optional;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.util.Assert;
+
+/**
+ * Seek based pagination request. Pages are delimited by opaque cursors built from the
+ * sort keys (plus the entity id as tie-breaker) of the first and last rows of the
+ * previous page, so any page costs the same as the first one.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+public final class KeysetPageable implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int pageSize;
+
+	private final Sort sort;
+
+	private final String after;
+
+	private final String before;
+
+	private KeysetPageable(int pageSize, Sort sort, String after, String before) {
+		Assert.isTrue(pageSize > 0, "Page size must be greater than zero!");
+		Assert.notNull(sort, "Sort must not be null!");
+		Assert.isTrue(after == null || before == null, "Only one of after and before cursors can be informed!");
+		this.pageSize = pageSize;
+		this.sort = sort;
+		this.after = after;
+		this.before = before;
+	}
+
+	public static KeysetPageable of(int pageSize) {
+		return new KeysetPageable(pageSize, Sort.unsorted(), null, null);
+	}
+
+	public static KeysetPageable of(int pageSize, Sort sort) {
+		return new KeysetPageable(pageSize, sort, null, null);
+	}
+
+	public static KeysetPageable of(int pageSize, Sort sort, Optional<String> after, Optional<String> before) {
+		Assert.notNull(after, "After must not be null!");
+		Assert.notNull(before, "Before must not be null!");
+		return new KeysetPageable(pageSize, sort, after.orElse(null), before.orElse(null));
+	}
+
+	public KeysetPageable after(String cursor) {
+		Assert.notNull(cursor, "Cursor must not be null!");
+		return new KeysetPageable(this.pageSize, this.sort, cursor, null);
+	}
+
+	public KeysetPageable before(String cursor) {
+		Assert.notNull(cursor, "Cursor must not be null!");
+		return new KeysetPageable(this.pageSize, this.sort, null, cursor);
+	}
+
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	public Sort getSort() {
+		return sort;
+	}
+
+	public Optional<String> getAfter() {
+		return Optional.ofNullable(after);
+	}
+
+	public Optional<String> getBefore() {
+		return Optional.ofNullable(before);
+	}
+
+	public boolean isBackward() {
+		return before != null;
+	}
+
+	@Override
+	public String toString() {
+		return "KeysetPageable [pageSize=" + pageSize + ", sort=" + sort + ", after=" + after + ", before=" + before
+				+ "]";
+	}
+
+}
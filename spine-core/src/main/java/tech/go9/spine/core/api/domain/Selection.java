@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.core.api.domain;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.springframework.util.Assert;
+
+/**
+ * Attributes to project instead of loading whole entities. Nested attributes of to-one
+ * associations are dot separated, e.g. {@code city.name}, and results are returned as
+ * maps nested the same way.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+public final class Selection implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final List<String> attributes;
+
+	private Selection(List<String> attributes) {
+		Assert.notEmpty(attributes, "Attributes must not be empty!");
+		this.attributes = Collections.unmodifiableList(new ArrayList<>(new LinkedHashSet<>(attributes)));
+	}
+
+	public static Selection of(String... attributes) {
+		Assert.notNull(attributes, "Attributes must not be null!");
+		return new Selection(Arrays.asList(attributes));
+	}
+
+	public static Selection of(List<String> attributes) {
+		Assert.notNull(attributes, "Attributes must not be null!");
+		return new Selection(attributes);
+	}
+
+	public List<String> getAttributes() {
+		return attributes;
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (this == object) {
+			return true;
+		}
+		if (object == null || getClass() != object.getClass()) {
+			return false;
+		}
+		return attributes.equals(((Selection) object).attributes);
+	}
+
+	@Override
+	public int hashCode() {
+		return attributes.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return "Selection [attributes=" + attributes + "]";
+	}
+
+}
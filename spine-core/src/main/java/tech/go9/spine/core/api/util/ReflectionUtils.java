@@ -16,15 +16,25 @@
 package tech.go9.spine.core.api.util;
 
 import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.MalformedParameterizedTypeException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.UndeclaredThrowableException;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.data.util.Pair;
@@ -36,7 +46,9 @@ public final class ReflectionUtils {
 
 	private static final Map<Class<?>, Map<String, Field>> fieldsMap = new ConcurrentHashMap<>();
 
-	private static final Map<String, Optional<Pair<Method, Method>>> getterAndSetterMap = new ConcurrentHashMap<>();
+	private static final ClassValue<Map<Field, Optional<Pair<Method, Method>>>> getterAndSetterMap = createFieldMaps();
+
+	private static final ClassValue<Map<Field, Accessor>> accessorMap = createFieldMaps();
 
 	private ReflectionUtils() {
 
@@ -101,18 +113,17 @@ public final class ReflectionUtils {
 
 	public static Object getFieldValue(Object object, Field field, boolean force)
 			throws IllegalAccessException, IllegalArgumentException, InvocationTargetException, NoSuchMethodException {
-		Optional<Pair<Method, Method>> getterAndSetterPair = findGetterAndSetter(object, field);
-		if (getterAndSetterPair.isPresent()) {
-			Method method = getterAndSetterPair.get().getFirst();
-			if (method != null) {
-				return method.invoke(object);
+		Accessor accessor = getAccessor(object, field);
+		if (accessor.getter != null) {
+			try {
+				return accessor.getter.apply(object);
+			}
+			catch (Throwable throwable) {
+				throw new InvocationTargetException(throwable);
 			}
 		}
 		if (force) {
-			if (!field.isAccessible()) {
-				field.setAccessible(true);
-			}
-			return field.get(object);
+			return accessor.getFieldValue(object);
 		}
 		throw new NoSuchMethodException(String.format("Getter method for field %s in class %s not found",
 				field.getName(), object.getClass().getName()));
@@ -125,19 +136,18 @@ public final class ReflectionUtils {
 
 	public static void setFieldValue(Object object, Field field, Object value, boolean force)
 			throws IllegalAccessException, InvocationTargetException, NoSuchMethodException {
-		Optional<Pair<Method, Method>> getterAndSetterPair = findGetterAndSetter(object, field);
-		if (getterAndSetterPair.isPresent()) {
-			Method method = getterAndSetterPair.get().getSecond();
-			if (method != null) {
-				method.invoke(object, value);
-				return;
+		Accessor accessor = getAccessor(object, field);
+		if (accessor.setter != null) {
+			try {
+				accessor.setter.accept(object, value);
+			}
+			catch (Throwable throwable) {
+				throw new InvocationTargetException(throwable);
 			}
+			return;
 		}
 		if (force) {
-			if (!field.isAccessible()) {
-				field.setAccessible(true);
-			}
-			field.set(object, value);
+			accessor.setFieldValue(object, value);
 			return;
 		}
 		throw new NoSuchMethodException(String.format("Setter method for field %s in class %s not found",
@@ -145,8 +155,29 @@ public final class ReflectionUtils {
 	}
 
 	public static Optional<Pair<Method, Method>> findGetterAndSetter(Object object, Field field) {
-		String getterSetterKey = object.getClass().getCanonicalName() + "." + field.getName();
-		return getterAndSetterMap.computeIfAbsent(getterSetterKey, k -> findGetterAndSetter(object.getClass(), field));
+		return getterAndSetterMap.get(object.getClass()).computeIfAbsent(field,
+				key -> findGetterAndSetter(object.getClass(), key));
+	}
+
+	private static <V> ClassValue<Map<Field, V>> createFieldMaps() {
+		return new ClassValue<>() {
+
+			@Override
+			protected Map<Field, V> computeValue(Class<?> clazz) {
+				return new ConcurrentHashMap<>();
+			}
+
+		};
+	}
+
+	private static Accessor getAccessor(Object object, Field field) {
+		Map<Field, Accessor> accessors = accessorMap.get(object.getClass());
+		Accessor accessor = accessors.get(field);
+		if (accessor == null) {
+			accessor = accessors.computeIfAbsent(field,
+					key -> new Accessor(key, findGetterAndSetter(object, key).orElse(null)));
+		}
+		return accessor;
 	}
 
 	private static Optional<Pair<Method, Method>> findGetterAndSetter(Class<?> clazz, Field field) {
@@ -192,4 +223,155 @@ public final class ReflectionUtils {
 		return (Class<N>) object.getClass();
 	}
 
+	/*
+	 * Getters and setters are compiled to lambdas, falling back to method handles when the
+	 * entity class can't host them. Whatever they throw is wrapped in an
+	 * InvocationTargetException by the callers, as Method.invoke did. Forced accesses use
+	 * field handles, created only when needed
+	 */
+	private static final class Accessor {
+
+		private final Field field;
+
+		private final Function<Object, Object> getter;
+
+		private final BiConsumer<Object, Object> setter;
+
+		private volatile MethodHandle fieldGetter;
+
+		private volatile MethodHandle fieldSetter;
+
+		private Accessor(Field field, Pair<Method, Method> getterAndSetter) {
+			this.field = field;
+			this.getter = getterAndSetter == null ? null : createGetter(getterAndSetter.getFirst());
+			this.setter = getterAndSetter == null ? null : createSetter(getterAndSetter.getSecond());
+		}
+
+		private Object getFieldValue(Object object) throws IllegalAccessException {
+			MethodHandle handle = this.fieldGetter;
+			if (handle == null) {
+				makeAccessible(this.field);
+				handle = MethodHandles.lookup().unreflectGetter(this.field);
+				if (Modifier.isStatic(this.field.getModifiers())) {
+					handle = MethodHandles.dropArguments(handle, 0, Object.class);
+				}
+				handle = handle.asType(MethodType.methodType(Object.class, Object.class));
+				this.fieldGetter = handle;
+			}
+			try {
+				return handle.invokeExact(object);
+			}
+			catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		private void setFieldValue(Object object, Object value) throws IllegalAccessException {
+			MethodHandle handle = this.fieldSetter;
+			if (handle == null) {
+				makeAccessible(this.field);
+				handle = MethodHandles.lookup().unreflectSetter(this.field);
+				if (Modifier.isStatic(this.field.getModifiers())) {
+					handle = MethodHandles.dropArguments(handle, 0, Object.class);
+				}
+				handle = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+				this.fieldSetter = handle;
+			}
+			try {
+				handle.invokeExact(object, value);
+			}
+			catch (Throwable throwable) {
+				throw propagate(throwable);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private static Function<Object, Object> createGetter(Method method) {
+			try {
+				MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(),
+						MethodHandles.lookup());
+				MethodHandle handle = lookup.unreflect(method);
+				CallSite callSite = LambdaMetafactory.metafactory(lookup, "apply",
+						MethodType.methodType(Function.class), MethodType.methodType(Object.class, Object.class),
+						handle, handle.type().wrap());
+				return (Function<Object, Object>) callSite.getTarget().invokeExact();
+			}
+			catch (Throwable throwable) {
+				MethodHandle handle = unreflect(method).asType(MethodType.methodType(Object.class, Object.class));
+				return object -> {
+					try {
+						return handle.invokeExact(object);
+					}
+					catch (Throwable invokeThrowable) {
+						throw Accessor.<RuntimeException>sneakyThrow(invokeThrowable);
+					}
+				};
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private static BiConsumer<Object, Object> createSetter(Method method) {
+			try {
+				MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(),
+						MethodHandles.lookup());
+				MethodHandle handle = lookup.unreflect(method);
+				MethodType instantiatedMethodType = MethodType.methodType(void.class, method.getDeclaringClass(),
+						MethodType.methodType(method.getParameterTypes()[0]).wrap().returnType());
+				CallSite callSite = LambdaMetafactory.metafactory(lookup, "accept",
+						MethodType.methodType(BiConsumer.class),
+						MethodType.methodType(void.class, Object.class, Object.class), handle, instantiatedMethodType);
+				return (BiConsumer<Object, Object>) callSite.getTarget().invokeExact();
+			}
+			catch (Throwable throwable) {
+				MethodHandle handle = unreflect(method)
+						.asType(MethodType.methodType(void.class, Object.class, Object.class));
+				return (object, value) -> {
+					try {
+						handle.invokeExact(object, value);
+					}
+					catch (Throwable invokeThrowable) {
+						throw Accessor.<RuntimeException>sneakyThrow(invokeThrowable);
+					}
+				};
+			}
+		}
+
+		private static MethodHandle unreflect(Method method) {
+			try {
+				makeAccessible(method);
+				return MethodHandles.lookup().unreflect(method);
+			}
+			catch (IllegalAccessException exception) {
+				throw new UnexpectedException("Unable to access method %s.%s", exception,
+						method.getDeclaringClass().getName(), method.getName());
+			}
+		}
+
+		private static void makeAccessible(AccessibleObject accessibleObject) {
+			if (!accessibleObject.isAccessible()) {
+				accessibleObject.setAccessible(true);
+			}
+		}
+
+		/*
+		 * Lets the fallback handles throw what the accessor threw, as the compiled lambdas do,
+		 * so both are wrapped alike
+		 */
+		@SuppressWarnings("unchecked")
+		private static <E extends Throwable> RuntimeException sneakyThrow(Throwable throwable) throws E {
+			throw (E) throwable;
+		}
+
+		private static RuntimeException propagate(Throwable throwable) {
+			if (throwable instanceof RuntimeException) {
+				return (RuntimeException) throwable;
+			}
+			if (throwable instanceof Error) {
+				throw (Error) throwable;
+			}
+			return new UndeclaredThrowableException(throwable);
+		}
+
+	}
+
 }
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.core.api.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ReflectionUtilsTest {
+
+	@Test
+	void test01() throws Exception {
+		Sample sample = new Sample();
+		Field nameField = ReflectionUtils.findField(Sample.class, "name");
+		Field ageField = ReflectionUtils.findField(Sample.class, "age");
+		ReflectionUtils.setFieldValue(sample, nameField, "spine");
+		ReflectionUtils.setFieldValue(sample, ageField, 3);
+		Assertions.assertEquals("spine", sample.getName());
+		Assertions.assertEquals(3, sample.getAge());
+		Assertions.assertEquals("spine", ReflectionUtils.getFieldValue(sample, nameField));
+		Assertions.assertEquals(3, ReflectionUtils.getFieldValue(sample, ageField));
+	}
+
+	@Test
+	void test02() throws Exception {
+		Sample sample = new Sample();
+		Field codeField = ReflectionUtils.findField(Sample.class, "code");
+		Assertions.assertThrows(NoSuchMethodException.class, () -> ReflectionUtils.getFieldValue(sample, codeField));
+		Assertions.assertThrows(NoSuchMethodException.class,
+				() -> ReflectionUtils.setFieldValue(sample, codeField, "other"));
+		ReflectionUtils.setFieldValue(sample, codeField, "other", true);
+		Assertions.assertEquals("other", ReflectionUtils.getFieldValue(sample, codeField, true));
+	}
+
+	@Test
+	void test03() throws Exception {
+		Sample sample = new Sample() {
+
+		};
+		Field nameField = ReflectionUtils.findField(Sample.class, "name");
+		ReflectionUtils.setFieldValue(sample, nameField, "subclass");
+		Assertions.assertEquals("subclass", ReflectionUtils.getFieldValue(sample, nameField));
+	}
+
+	// Exceptions of accessors are wrapped as Method.invoke wrapped them
+	@Test
+	void test04() throws Exception {
+		Sample sample = new Sample();
+		Field stateField = ReflectionUtils.findField(Sample.class, "state");
+		InvocationTargetException getException = Assertions.assertThrows(InvocationTargetException.class,
+				() -> ReflectionUtils.getFieldValue(sample, stateField));
+		Assertions.assertInstanceOf(IllegalStateException.class, getException.getCause());
+		InvocationTargetException setException = Assertions.assertThrows(InvocationTargetException.class,
+				() -> ReflectionUtils.setFieldValue(sample, stateField, "other"));
+		Assertions.assertInstanceOf(IllegalStateException.class, setException.getCause());
+	}
+
+	static class Sample {
+
+		private String name;
+
+		private int age;
+
+		private String code = "code";
+
+		private String state;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getAge() {
+			return age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+
+		public String getCode() {
+			return code;
+		}
+
+		public String getState() {
+			throw new IllegalStateException("Unreadable state");
+		}
+
+		public void setState(String state) {
+			throw new IllegalStateException("Unwritable state");
+		}
+
+	}
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.api.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import org.hibernate.envers.RevisionType;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Snapshot of an audited entity at a revision, with the revision metadata.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public final class EntityRevision<T> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final T entity;
+
+	private final Number revision;
+
+	private final Instant timestamp;
+
+	private final RevisionType type;
+
+}
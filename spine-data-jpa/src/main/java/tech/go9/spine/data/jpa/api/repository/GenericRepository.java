@@ -19,17 +19,30 @@ import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import org.hibernate.envers.RevisionType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.support.JpaRepositoryImplementation;
 import org.springframework.data.repository.NoRepositoryBean;
 
+import com.querydsl.core.types.Path;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.jpa.JPQLQuery;
 
+import tech.go9.spine.core.api.domain.AsOf;
+import tech.go9.spine.core.api.domain.CountStrategy;
+import tech.go9.spine.core.api.domain.KeysetPage;
+import tech.go9.spine.core.api.domain.KeysetPageable;
+import tech.go9.spine.core.api.domain.Selection;
+import tech.go9.spine.core.api.exception.MultipleException;
+import tech.go9.spine.data.jpa.api.domain.EntityRevision;
+
 @NoRepositoryBean
 public interface GenericRepository<T extends Serializable, I extends Serializable>
 		extends JpaRepositoryImplementation<T, I> {
@@ -38,10 +51,52 @@ public interface GenericRepository<T extends Serializable, I extends Serializabl
 
 	Stream<T> saveAll(Stream<T> entities, boolean loadEntities);
 
+	/**
+	 * Saves the entities in chunks of {@code spine.data-jpa.bulk.chunk-size}, deep loading
+	 * the existing rows of each chunk together and batching its statements. The persistence
+	 * context is flushed and cleared after each chunk, whose saved entities, now detached,
+	 * are passed to the consumer.
+	 */
+	void saveAll(Stream<T> entities, Consumer<List<T>> chunkConsumer);
+
+	/**
+	 * Inserts entities known to be new through a stateless session, batching the statements
+	 * by {@code spine.data-jpa.bulk.chunk-size}. Cascades, the persistence context and entity
+	 * callbacks are skipped, the tenancy field and auditing columns are still set. Envers
+	 * revisions would be skipped too, so audited entities are rejected.
+	 */
+	long insertAll(Stream<T> entities);
+
+	/**
+	 * Saves independent aggregates in chunks spread across up to {@code parallelism} worker
+	 * transactions, each on its own connection and with the caller's security context. A
+	 * chunk failing on an optimistic lock or deadlock is retried, chunks failing for good
+	 * are reported together in a {@link MultipleException} while the others stay committed.
+	 */
+	List<T> saveAllParallel(Stream<T> entities, int parallelism, int chunkSize);
+
+	/**
+	 * Inserts or updates entities with one native upsert per chunk, a row conflicting on the
+	 * given attributes being updated. Only PostgreSQL, which needs a unique constraint on
+	 * them, and H2 are supported. Entities conflicting with rows the tenancy save predicate
+	 * excludes are skipped. The written entities are given the ids of their rows and
+	 * stamped as created or modified, depending on whether a row with their keys existed
+	 * when the chunk was looked up. Keys must not be null, unless they are a generated id
+	 * left null for a new entity, and must be unique within a chunk. Returns the number of
+	 * entities written.
+	 */
+	long upsertAll(Stream<T> entities, List<? extends Path<?>> conflictKeys);
+
 	T saveOne(T entity);
 
 	T saveOne(T entity, boolean loadEnty);
 
+	/**
+	 * Saves the entity on the asynchronous repository executor, in a transaction of its own
+	 * and with the security context of the caller.
+	 */
+	CompletableFuture<T> saveOneAsync(T entity);
+
 	// Stream<T> findAll();
 
 	Stream<T> findAll(Predicate predicate);
@@ -54,6 +109,20 @@ public interface GenericRepository<T extends Serializable, I extends Serializabl
 
 	Stream<T> findAll(JPQLQuery<T> query);
 
+	Stream<Map<String, Object>> findAll(Selection selection, Optional<Predicate> predicate);
+
+	Page<Map<String, Object>> findAll(Pageable pageable, Selection selection, Optional<Predicate> predicate);
+
+	Stream<T> scrollAll(Predicate predicate);
+
+	Stream<T> scrollAll(String expand);
+
+	/**
+	 * Streams read-only entities over a database cursor, clearing the persistence context
+	 * periodically. Must be consumed inside a transaction and closed by the caller.
+	 */
+	Stream<T> scrollAll(Optional<Predicate> predicate, Optional<String> expand);
+
 	Page<T> findAll(Pageable pageable);
 
 	Page<T> findAll(Pageable pageable, Predicate predicate);
@@ -64,8 +133,30 @@ public interface GenericRepository<T extends Serializable, I extends Serializabl
 
 	Page<T> findAll(Pageable pageable, Optional<Predicate> predicate, Optional<String> expand);
 
+	/**
+	 * Finds the page on the asynchronous repository executor, in a read-only transaction of
+	 * its own and with the security context of the caller. Entities returned are detached.
+	 */
+	CompletableFuture<Page<T>> findAllAsync(Pageable pageable, Optional<Predicate> predicate,
+			Optional<String> expand);
+
 	Page<T> findAll(Pageable pageable, JPQLQuery<T> query);
 
+	Slice<T> findAll(Pageable pageable, CountStrategy countStrategy);
+
+	Slice<T> findAll(Pageable pageable, Optional<Predicate> predicate, Optional<String> expand,
+			Optional<CountStrategy> countStrategy);
+
+	KeysetPage<T> findAll(KeysetPageable keysetPageable);
+
+	KeysetPage<T> findAll(KeysetPageable keysetPageable, Predicate predicate);
+
+	KeysetPage<T> findAll(KeysetPageable keysetPageable, String expand);
+
+	KeysetPage<T> findAll(KeysetPageable keysetPageable, Predicate predicate, String expand);
+
+	KeysetPage<T> findAll(KeysetPageable keysetPageable, Optional<Predicate> predicate, Optional<String> expand);
+
 	Optional<T> findById(I id);
 
 	Optional<T> findById(I id, Predicate predicate);
@@ -76,6 +167,14 @@ public interface GenericRepository<T extends Serializable, I extends Serializabl
 
 	Optional<T> findById(I id, Optional<Predicate> predicate, Optional<String> expand);
 
+	CompletableFuture<Optional<T>> findByIdAsync(I id);
+
+	/**
+	 * Finds the entity on the asynchronous repository executor, in a read-only transaction of
+	 * its own and with the security context of the caller. The entity returned is detached.
+	 */
+	CompletableFuture<Optional<T>> findByIdAsync(I id, Optional<String> expand);
+
 	// Optional<T> findOne();
 
 	Optional<T> findOne(Predicate predicate);
@@ -94,10 +193,43 @@ public interface GenericRepository<T extends Serializable, I extends Serializabl
 
 	void deleteById(I id);
 
+	long deleteAll(Predicate predicate);
+
+	/**
+	 * Deletes the matching entities in a single statement, or loading and removing them in
+	 * chunks when {@code chunked}, so cascades and auditing apply.
+	 */
+	long deleteAll(Predicate predicate, boolean chunked);
+
+	long updateAll(Predicate predicate, Map<? extends Path<?>, ?> assignments);
+
+	/**
+	 * Assigns the values to the root attributes of the matching entities in a single
+	 * statement, or loading and changing them in chunks when {@code chunked}. A single
+	 * statement bumps numeric versions and sets the last modification itself, and clears
+	 * the persistence context as deletes do.
+	 */
+	long updateAll(Predicate predicate, Map<? extends Path<?>, ?> assignments, boolean chunked);
+
 	public void flush();
 
 	Map<Number, T> findAllRevisions(I id);
 
+	/**
+	 * Pages the revisions of an entity, optionally restricted to a revision range and to
+	 * revisions changing any of the given properties (audited with modified flags). Sorted
+	 * by revision, ascending unless a descending {@code revision} order is requested.
+	 */
+	Page<EntityRevision<T>> findAllRevisions(I id, Pageable pageable, Optional<Number> fromRevision,
+			Optional<Number> toRevision, Set<String> changedProperties);
+
 	Map<RevisionType, List<Object>> findEntitiesGroupByRevisionType(Number revision);
 
+	/**
+	 * Pages the entities as they were at a revision, or at the latest revision committed at
+	 * or before an instant, filtering the audit tables in SQL. The predicate may only compare
+	 * root attributes, or ids of to-one relations, with constants.
+	 */
+	Page<T> findAllAsOf(AsOf asOf, Optional<Predicate> predicate, Pageable pageable);
+
 }
@@ -15,6 +15,8 @@
  */
 package tech.go9.spine.data.jpa.api.tenancy;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
 
 import com.querydsl.core.types.Predicate;
@@ -33,4 +35,20 @@ public interface TenancyFilter<T> {
 		return Optional.empty();
 	}
 
+	/**
+	 * Name of a Hibernate filter defined on the entity, and on the collections of it, that
+	 * replaces the retrieve predicate when {@code spine.data-jpa.tenancy.hibernate-filter}
+	 * is enabled.
+	 */
+	default Optional<String> getFilterName() {
+		return Optional.empty();
+	}
+
+	/**
+	 * Values bound to the parameters of the Hibernate filter for the current tenant.
+	 */
+	default Map<String, Object> getFilterParameters() {
+		return Collections.emptyMap();
+	}
+
 }
@@ -16,6 +16,7 @@
 package tech.go9.spine.data.jpa.api.usecase;
 
 import java.io.Serializable;
+import java.util.List;
 import java.util.Optional;
 
 import tech.go9.spine.data.jpa.internal.model.OperationType;
@@ -26,4 +27,6 @@ public interface LoadEntity<T, I extends Serializable> {
 
 	Optional<T> execute(final T object, final OperationType type);
 
+	List<Optional<T>> execute(final List<T> objects, final OperationType type);
+
 }
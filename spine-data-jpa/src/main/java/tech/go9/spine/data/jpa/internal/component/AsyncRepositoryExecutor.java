@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs repository operations on a pool of its own, each in a new transaction and so with
+ * its own entity manager. The security context of the caller is propagated, as auditing
+ * and tenancy depend on it. Entities returned are detached.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+@Slf4j
+public class AsyncRepositoryExecutor implements DisposableBean {
+
+	private final ThreadPoolExecutor threadPoolExecutor;
+
+	private final ExecutorService executorService;
+
+	private final TransactionTemplate readOnlyTransactionTemplate;
+
+	private final TransactionTemplate transactionTemplate;
+
+	public AsyncRepositoryExecutor(PlatformTransactionManager transactionManager, int poolSize,
+			String threadNamePrefix) {
+		Assert.notNull(transactionManager, "TransactionManager must not be null!");
+		Assert.isTrue(poolSize > 0, "PoolSize must be greater than zero!");
+		this.threadPoolExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(), new CustomizableThreadFactory(threadNamePrefix));
+		this.executorService = new DelegatingSecurityContextExecutorService(this.threadPoolExecutor);
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+		this.readOnlyTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.readOnlyTransactionTemplate.setReadOnly(true);
+	}
+
+	public <R> CompletableFuture<R> submit(Supplier<R> operation, boolean readOnly) {
+		Assert.notNull(operation, "Operation must not be null!");
+		TransactionTemplate template = readOnly ? this.readOnlyTransactionTemplate : this.transactionTemplate;
+		return CompletableFuture.supplyAsync(() -> template.execute(status -> operation.get()), this.executorService);
+	}
+
+	/*
+	 * Every attempt runs in a new transaction, so a retried operation starts from a clean
+	 * entity manager instead of the state left by the rolled back one
+	 */
+	public <R> CompletableFuture<R> submit(Supplier<R> operation, int maxAttempts, Predicate<Throwable> retryable) {
+		Assert.notNull(operation, "Operation must not be null!");
+		Assert.isTrue(maxAttempts > 0, "MaxAttempts must be greater than zero!");
+		Assert.notNull(retryable, "Retryable must not be null!");
+		return CompletableFuture.supplyAsync(() -> {
+			for (int attempt = 1;; attempt++) {
+				try {
+					return this.transactionTemplate.execute(status -> operation.get());
+				}
+				catch (RuntimeException exception) {
+					if (attempt >= maxAttempts || !retryable.test(exception)) {
+						throw exception;
+					}
+					log.debug("Retrying operation after attempt {} of {} failed", attempt, maxAttempts, exception);
+				}
+			}
+		}, this.executorService);
+	}
+
+	/*
+	 * Meant for work the caller can do itself, so nothing is submitted while every thread is
+	 * busy or tasks are waiting. The check is approximate, as the pool is not locked
+	 */
+	public <R> Optional<CompletableFuture<R>> trySubmit(Supplier<R> operation, boolean readOnly) {
+		if (!this.threadPoolExecutor.getQueue().isEmpty()
+				|| this.threadPoolExecutor.getActiveCount() >= this.threadPoolExecutor.getMaximumPoolSize()) {
+			return Optional.empty();
+		}
+		return Optional.of(this.submit(operation, readOnly));
+	}
+
+	@Override
+	public void destroy() {
+		this.executorService.shutdown();
+	}
+
+}
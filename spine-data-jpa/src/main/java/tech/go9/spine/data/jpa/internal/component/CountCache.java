@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the totals computed for {@link tech.go9.spine.core.api.domain.CountStrategy#CACHED}
+ * queries, keyed by entity and query, until they expire or the entity is changed.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+@Slf4j
+public class CountCache {
+
+	private final Cache<Key, Long> cache;
+
+	public CountCache(Duration timeToLive, long maximumSize) {
+		Assert.notNull(timeToLive, "TimeToLive must not be null!");
+		this.cache = CacheBuilder.newBuilder().expireAfterWrite(timeToLive).maximumSize(maximumSize).build();
+	}
+
+	public long get(Class<?> entityClazz, String query, LongSupplier counter) {
+		Assert.notNull(entityClazz, "EntityClazz must not be null!");
+		Assert.notNull(query, "Query must not be null!");
+		Key key = new Key(entityClazz, query);
+		Long count = this.cache.getIfPresent(key);
+		if (count == null) {
+			count = counter.getAsLong();
+			this.cache.put(key, count);
+		}
+		return count;
+	}
+
+	/*
+	 * Evicted again after the transaction completes, otherwise a concurrent reader could
+	 * cache the total of the still uncommitted state. Each entity is registered once per
+	 * transaction, so saving many entities doesn't scan the cache for each one
+	 */
+	@SuppressWarnings("unchecked")
+	public void invalidate(Class<?> entityClazz) {
+		Assert.notNull(entityClazz, "EntityClazz must not be null!");
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			this.evict(entityClazz);
+			return;
+		}
+		Set<Class<?>> entityClazzes = (Set<Class<?>>) TransactionSynchronizationManager.getResource(this);
+		if (entityClazzes == null) {
+			Set<Class<?>> newEntityClazzes = new HashSet<>();
+			TransactionSynchronizationManager.bindResource(this, newEntityClazzes);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(CountCache.this);
+					newEntityClazzes.forEach(CountCache.this::evict);
+				}
+
+			});
+			entityClazzes = newEntityClazzes;
+		}
+		if (entityClazzes.add(entityClazz)) {
+			this.evict(entityClazz);
+		}
+	}
+
+	private void evict(Class<?> entityClazz) {
+		log.trace("Evicting cached counts of {}", entityClazz.getName());
+		this.cache.asMap().keySet().removeIf(key -> key.entityClazz.equals(entityClazz));
+	}
+
+	@EqualsAndHashCode
+	@RequiredArgsConstructor
+	private static final class Key {
+
+		private final Class<?> entityClazz;
+
+		private final String query;
+
+	}
+
+}
@@ -15,12 +15,15 @@
  */
 package tech.go9.spine.data.jpa.internal.component;
 
+import java.util.ArrayList;
 import java.util.Map;
+import java.util.Optional;
 
 import org.hibernate.LockMode;
 import org.hibernate.Session;
 import org.hibernate.query.Query;
 
+import com.querydsl.core.QueryMetadata;
 import com.querydsl.core.QueryModifiers;
 import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.FactoryExpression;
@@ -30,6 +33,12 @@ import com.querydsl.jpa.JPQLSerializer;
 import com.querydsl.jpa.hibernate.HibernateQuery;
 import com.querydsl.jpa.hibernate.HibernateUtil;
 
+import tech.go9.spine.core.api.util.ApplicationContextUtils;
+import tech.go9.spine.data.jpa.internal.model.ParameterizedQuery;
+import tech.go9.spine.data.jpa.internal.model.QueryShape;
+import tech.go9.spine.data.jpa.internal.util.EntityTenancyFilterUtils;
+import tech.go9.spine.data.jpa.internal.util.QueryShapeUtils;
+
 public class CustomHibernateQuery<T> extends HibernateQuery<T> {
 
 	private static final long serialVersionUID = 1L;
@@ -44,10 +53,22 @@ public class CustomHibernateQuery<T> extends HibernateQuery<T> {
 	@Override
 	public Query<T> createQuery() {
 
-		JPQLSerializer serializer = serialize(false);
-		String queryString = serializer.toString();
-		Query<T> query = this.session.createQuery(queryString, this.getType());
-		HibernateUtil.setConstants(query, serializer.getConstants(), getMetadata().getParams());
+		EntityTenancyFilterUtils.enableHibernateFilters(this.session);
+
+		Query<T> query = null;
+		Optional<QueryShapeCache> queryShapeCache = ApplicationContextUtils.getBean(QueryShapeCache.class);
+		if (queryShapeCache.isPresent()) {
+			ParameterizedQuery parameterizedQuery = QueryShapeUtils.parameterize(getMetadata());
+			QueryShape queryShape = queryShapeCache.get()
+					.get(parameterizedQuery.getMetadata(), false, this::serializeShape);
+			query = this.session.createQuery(queryShape.getJpql(), this.getType());
+			HibernateUtil.setConstants(query, queryShape.getConstants(), parameterizedQuery.getParams());
+		}
+		else {
+			JPQLSerializer serializer = serialize(false);
+			query = this.session.createQuery(serializer.toString(), this.getType());
+			HibernateUtil.setConstants(query, serializer.getConstants(), getMetadata().getParams());
+		}
 
 		if (fetchSize > 0) {
 			query.setFetchSize(fetchSize);
@@ -101,4 +122,10 @@ public class CustomHibernateQuery<T> extends HibernateQuery<T> {
 		return query;
 	}
 
+	private QueryShape serializeShape(QueryMetadata metadata) {
+		JPQLSerializer serializer = createSerializer();
+		serializer.serialize(metadata, false, null);
+		return new QueryShape(serializer.toString(), new ArrayList<>(serializer.getConstants()));
+	}
+
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.lang.Nullable;
+
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.QueryModifiers;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUtil;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import tech.go9.spine.core.api.util.ApplicationContextUtils;
+import tech.go9.spine.data.jpa.internal.model.ParameterizedQuery;
+import tech.go9.spine.data.jpa.internal.model.QueryShape;
+import tech.go9.spine.data.jpa.internal.util.QueryShapeUtils;
+
+/**
+ * JPA query whose JPQL comes from the {@link QueryShapeCache}, so queries differing only
+ * by constant values share the same string and the Hibernate query plan cached for it.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+public class CustomJPAQuery<T> extends JPAQuery<T> {
+
+	private static final long serialVersionUID = 1L;
+
+	public CustomJPAQuery(EntityManager entityManager, QueryMetadata metadata) {
+		super(entityManager, metadata);
+	}
+
+	@Override
+	protected Query createQuery(@Nullable QueryModifiers modifiers, boolean forCount) {
+
+		Optional<QueryShapeCache> queryShapeCache = ApplicationContextUtils.getBean(QueryShapeCache.class);
+		if (queryShapeCache.isEmpty()) {
+			return super.createQuery(modifiers, forCount);
+		}
+
+		ParameterizedQuery parameterizedQuery = QueryShapeUtils.parameterize(getMetadata());
+		QueryShape queryShape = queryShapeCache.get()
+				.get(parameterizedQuery.getMetadata(), forCount, metadata -> this.serializeShape(metadata, forCount));
+		Query query = this.entityManager.createQuery(queryShape.getJpql());
+		JPAUtil.setConstants(query, queryShape.getConstants(), parameterizedQuery.getParams());
+
+		if (modifiers != null && modifiers.isRestricting()) {
+			Integer limit = modifiers.getLimitAsInteger();
+			Integer offset = modifiers.getOffsetAsInteger();
+			if (limit != null) {
+				query.setMaxResults(limit);
+			}
+			if (offset != null) {
+				query.setFirstResult(offset);
+			}
+		}
+
+		if (this.lockMode != null) {
+			query.setLockMode(this.lockMode);
+		}
+
+		if (this.flushMode != null) {
+			query.setFlushMode(this.flushMode);
+		}
+
+		for (Map.Entry<String, Object> entry : this.hints.entries()) {
+			query.setHint(entry.getKey(), entry.getValue());
+		}
+
+		Expression<?> projection = getMetadata().getProjection();
+		this.projection = null;
+		if (!forCount && projection instanceof FactoryExpression
+				&& !this.queryHandler.transform(query, (FactoryExpression<?>) projection)) {
+			this.projection = (FactoryExpression<?>) projection;
+		}
+
+		return query;
+	}
+
+	private QueryShape serializeShape(QueryMetadata metadata, boolean forCount) {
+		JPQLSerializer serializer = createSerializer();
+		serializer.serialize(metadata, forCount, null);
+		return new QueryShape(serializer.toString(), new ArrayList<>(serializer.getConstants()));
+	}
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tech.go9.spine.core.api.exception.UnexpectedException;
+
+/**
+ * Read-through cache of entities found by id, for the entities it is enabled for. Keys
+ * include the tenancy of the entity and of the expanded types, and the expand expression,
+ * so tenants and graphs never share an entry. Entities are kept serialized, and each read
+ * gets its own detached copy.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+@Slf4j
+public class EntityCache {
+
+	private final Set<String> entityNames;
+
+	private final Cache<Key, byte[]> cache;
+
+	public EntityCache(Collection<String> entityNames, Duration timeToLive, long maximumSize) {
+		Assert.notNull(entityNames, "EntityNames must not be null!");
+		Assert.notNull(timeToLive, "TimeToLive must not be null!");
+		this.entityNames = Set.copyOf(entityNames);
+		this.cache = CacheBuilder.newBuilder()
+				.expireAfterWrite(timeToLive)
+				.maximumSize(maximumSize)
+				.recordStats()
+				.build();
+	}
+
+	/*
+	 * Entities found inside a transaction of the caller are expected to be managed, so they
+	 * always come from the persistence context. Only reads running in their own read-only
+	 * transaction, whose entities are detached anyway, are cached
+	 */
+	public boolean isEnabled(Class<?> entityClazz) {
+		if (!this.entityNames.contains(entityClazz.getSimpleName())) {
+			return false;
+		}
+		if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+			return true;
+		}
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			return false;
+		}
+		try {
+			return TransactionAspectSupport.currentTransactionStatus().isNewTransaction();
+		}
+		catch (NoTransactionException exception) {
+			return false;
+		}
+	}
+
+	public <T> Optional<T> get(Class<T> entityClazz, Object id, String tenancy, String expand,
+			Supplier<Optional<T>> loader) {
+		Assert.notNull(entityClazz, "EntityClazz must not be null!");
+		Assert.notNull(id, "Id must not be null!");
+		Key key = new Key(entityClazz, id, tenancy, expand);
+		byte[] snapshot = this.cache.getIfPresent(key);
+		if (snapshot == null) {
+			Optional<T> loadedEntity = loader.get();
+			loadedEntity.ifPresent(value -> this.cache.put(key, serialize(value)));
+			return loadedEntity;
+		}
+		return Optional.of(deserialize(entityClazz, snapshot));
+	}
+
+	public <T> Optional<T> getIfPresent(Class<T> entityClazz, Object id, String tenancy, String expand) {
+		return Optional.ofNullable(this.cache.getIfPresent(new Key(entityClazz, id, tenancy, expand)))
+				.map(snapshot -> deserialize(entityClazz, snapshot));
+	}
+
+	public void put(Class<?> entityClazz, Object id, String tenancy, String expand, Object entity) {
+		this.cache.put(new Key(entityClazz, id, tenancy, expand), serialize(entity));
+	}
+
+	/*
+	 * As the counts, evicted again after the transaction completes so a concurrent reader
+	 * can't cache the still uncommitted state. A null id evicts every entity of the class
+	 */
+	@SuppressWarnings("unchecked")
+	public void invalidate(Class<?> entityClazz, Object id) {
+		Assert.notNull(entityClazz, "EntityClazz must not be null!");
+		if (!this.entityNames.contains(entityClazz.getSimpleName())) {
+			return;
+		}
+		Eviction eviction = new Eviction(entityClazz, id);
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			this.evict(eviction);
+			return;
+		}
+		Set<Eviction> evictions = (Set<Eviction>) TransactionSynchronizationManager.getResource(this);
+		if (evictions == null) {
+			Set<Eviction> newEvictions = new HashSet<>();
+			TransactionSynchronizationManager.bindResource(this, newEvictions);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(EntityCache.this);
+					newEvictions.forEach(EntityCache.this::evict);
+				}
+
+			});
+			evictions = newEvictions;
+		}
+		if (evictions.add(eviction)) {
+			this.evict(eviction);
+		}
+	}
+
+	public CacheStats getStats() {
+		return this.cache.stats();
+	}
+
+	public long size() {
+		return this.cache.size();
+	}
+
+	/*
+	 * Uninitialized lazy associations are serialized as such, so a copy keeps telling the
+	 * save which associations were never read
+	 */
+	private static byte[] serialize(Object entity) {
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream)) {
+			objectOutputStream.writeObject(entity);
+		}
+		catch (IOException exception) {
+			throw new UnexpectedException("Error caching entity %s", exception, entity.getClass().getName());
+		}
+		return byteArrayOutputStream.toByteArray();
+	}
+
+	private static <T> T deserialize(Class<T> entityClazz, byte[] snapshot) {
+		try (ObjectInputStream objectInputStream = new ConfigurableObjectInputStream(
+				new ByteArrayInputStream(snapshot), entityClazz.getClassLoader())) {
+			return entityClazz.cast(objectInputStream.readObject());
+		}
+		catch (IOException | ClassNotFoundException exception) {
+			throw new UnexpectedException("Error reading cached entity %s", exception, entityClazz.getName());
+		}
+	}
+
+	private void evict(Eviction eviction) {
+		log.trace("Evicting cached entities {}[{}]", eviction.entityClazz.getName(),
+				eviction.id == null ? "*" : eviction.id);
+		this.cache.asMap()
+				.keySet()
+				.removeIf(key -> key.entityClazz.equals(eviction.entityClazz)
+						&& (eviction.id == null || key.id.equals(eviction.id)));
+	}
+
+	@EqualsAndHashCode
+	@RequiredArgsConstructor
+	private static final class Key {
+
+		private final Class<?> entityClazz;
+
+		private final Object id;
+
+		private final String tenancy;
+
+		private final String expand;
+
+	}
+
+	@EqualsAndHashCode
+	@RequiredArgsConstructor
+	private static final class Eviction {
+
+		private final Class<?> entityClazz;
+
+		private final Object id;
+
+	}
+
+}
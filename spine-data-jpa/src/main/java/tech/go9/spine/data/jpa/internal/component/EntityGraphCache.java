@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.util.Assert;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import jakarta.persistence.EntityGraph;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the entity graphs parsed from expand expressions, keyed by entity and normalized
+ * expression, so repeated expands skip parsing and fetch join planning.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+@Slf4j
+public class EntityGraphCache {
+
+	private final Cache<Key, EntityGraph<?>> cache;
+
+	public EntityGraphCache(long maximumSize) {
+		this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> EntityGraph<T> get(Class<T> entityClazz, String expression, Function<String, EntityGraph<T>> parser) {
+		Assert.notNull(entityClazz, "EntityClazz must not be null!");
+		Assert.notNull(expression, "Expression must not be null!");
+		String normalizedExpression = normalize(expression);
+		try {
+			return (EntityGraph<T>) this.cache.get(new Key(entityClazz, normalizedExpression), () -> {
+				log.trace("Caching EntityGraph expression: {} for class: {}", normalizedExpression,
+						entityClazz.getName());
+				return parser.apply(normalizedExpression);
+			});
+		}
+		catch (ExecutionException | UncheckedExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	public CacheStats getStats() {
+		return this.cache.stats();
+	}
+
+	public long size() {
+		return this.cache.size();
+	}
+
+	/*
+	 * The order of the expand paths doesn't change the fetched graph, so "a,b" and " b, a"
+	 * share the same entry
+	 */
+	static String normalize(String expression) {
+		return Arrays.stream(expression.split(","))
+				.map(String::trim)
+				.filter(expandPath -> !expandPath.isEmpty())
+				.distinct()
+				.sorted()
+				.collect(Collectors.joining(","));
+	}
+
+	@EqualsAndHashCode
+	@RequiredArgsConstructor
+	private static final class Key {
+
+		private final Class<?> entityClazz;
+
+		private final String expression;
+
+	}
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+import org.springframework.util.Assert;
+
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.impl.AbstractJPAQuery;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streams query results over a forward only, read-only JDBC cursor, clearing the
+ * persistence context every {@code clearInterval} rows so memory stays flat regardless of
+ * the number of rows.
+ * <p>
+ * Pending changes are flushed when the stream is opened, since clearing would discard
+ * them. Rows emitted before a clear are detached. The stream holds the cursor until it
+ * is closed, so it must be consumed inside the transaction and closed by the caller,
+ * usually with try-with-resources; the connection itself is released with the
+ * transaction.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class EntityScroller {
+
+	private final EntityManager entityManager;
+
+	public <R> Stream<R> scroll(JPQLQuery<R> jpqlQuery, int fetchSize, int clearInterval) {
+		Assert.notNull(jpqlQuery, "JPQLQuery must not be null!");
+		Assert.isTrue(clearInterval > 0, "ClearInterval must be greater than zero!");
+		Session session = this.entityManager.unwrap(Session.class);
+		ScrollableResults<R> results = this.open(session, jpqlQuery, fetchSize);
+		Spliterator<R> spliterator = new Spliterators.AbstractSpliterator<R>(Long.MAX_VALUE,
+				Spliterator.ORDERED | Spliterator.NONNULL) {
+
+			private long rows;
+
+			@Override
+			public boolean tryAdvance(Consumer<? super R> action) {
+				if (this.rows > 0 && this.rows % clearInterval == 0) {
+					session.clear();
+				}
+				if (!results.next()) {
+					return false;
+				}
+				this.rows++;
+				action.accept(results.get());
+				return true;
+			}
+
+		};
+		return StreamSupport.stream(spliterator, false).onClose(results::close);
+	}
+
+	/*
+	 * Rows are grouped in chunks and the persistence context is cleared before each chunk
+	 * after the first, leaving the chunk loading to the caller (e.g. ids hydrated with
+	 * collection fetches, which can't be scrolled row by row)
+	 */
+	public <R> Stream<List<R>> scrollChunks(JPQLQuery<R> jpqlQuery, int fetchSize, int chunkSize) {
+		Assert.notNull(jpqlQuery, "JPQLQuery must not be null!");
+		Assert.isTrue(chunkSize > 0, "ChunkSize must be greater than zero!");
+		Session session = this.entityManager.unwrap(Session.class);
+		ScrollableResults<R> results = this.open(session, jpqlQuery, fetchSize);
+		Spliterator<List<R>> spliterator = new Spliterators.AbstractSpliterator<List<R>>(Long.MAX_VALUE,
+				Spliterator.ORDERED | Spliterator.NONNULL) {
+
+			private long chunks;
+
+			@Override
+			public boolean tryAdvance(Consumer<? super List<R>> action) {
+				List<R> chunk = new ArrayList<>(chunkSize);
+				while (chunk.size() < chunkSize && results.next()) {
+					chunk.add(results.get());
+				}
+				if (chunk.isEmpty()) {
+					return false;
+				}
+				if (this.chunks++ > 0) {
+					session.clear();
+				}
+				action.accept(chunk);
+				return true;
+			}
+
+		};
+		return StreamSupport.stream(spliterator, false).onClose(results::close);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <R> ScrollableResults<R> open(Session session, JPQLQuery<R> jpqlQuery, int fetchSize) {
+		if (session.isJoinedToTransaction()) {
+			session.flush();
+		}
+		Query<R> query = ((AbstractJPAQuery<R, ?>) jpqlQuery).createQuery().unwrap(Query.class);
+		if (fetchSize > 0) {
+			query.setFetchSize(fetchSize);
+		}
+		query.setReadOnly(true);
+		query.setCacheMode(CacheMode.IGNORE);
+		log.trace("Scrolling query: {} with fetch size: {}", jpqlQuery, fetchSize);
+		return query.scroll(ScrollMode.FORWARD_ONLY);
+	}
+
+}
@@ -0,0 +1,360 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.hibernate.Hibernate;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import jakarta.persistence.CascadeType;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tech.go9.spine.core.api.exception.UnexpectedException;
+import tech.go9.spine.core.api.util.ReflectionUtils;
+import tech.go9.spine.data.jpa.internal.model.EntityDescriptor;
+import tech.go9.spine.data.jpa.internal.model.RelationDescriptor;
+import tech.go9.spine.data.jpa.internal.util.EntityUtils;
+
+/**
+ * Structural hashes of the persistent state of entities as last read, for the entities
+ * it is enabled for. The hash of an entity covers its attributes, the ids it references
+ * and the hashes of the children it cascades saves to, so a detached entity sent back
+ * with the recorded hash heads a subtree the save needs neither to load nor to merge.
+ * Only the initialized part of a graph is hashed, as it is the part that is serialized.
+ * Enhanced entities reporting dirty attributes are changed whatever their hash.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+@Slf4j
+public class EntitySnapshotCache {
+
+	private static final Collection<CascadeType> MERGE_CASCADES = Arrays.asList(CascadeType.ALL, CascadeType.PERSIST);
+
+	private static final String ENHANCEMENT_FIELD_PREFIX = "$$_hibernate_";
+
+	private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+	private static final byte NULL = 0;
+
+	private static final byte UNINITIALIZED = 1;
+
+	private static final byte VALUE = 2;
+
+	private final Set<String> entityNames;
+
+	private final Cache<Key, HashCode> cache;
+
+	public EntitySnapshotCache(Collection<String> entityNames, Duration timeToLive, long maximumSize) {
+		Assert.notNull(entityNames, "EntityNames must not be null!");
+		Assert.notNull(timeToLive, "TimeToLive must not be null!");
+		this.entityNames = Set.copyOf(entityNames);
+		this.cache = CacheBuilder.newBuilder()
+				.expireAfterWrite(timeToLive)
+				.maximumSize(maximumSize)
+				.recordStats()
+				.build();
+	}
+
+	public boolean isEnabled() {
+		return !this.entityNames.isEmpty();
+	}
+
+	public boolean isEnabled(Class<?> entityClazz) {
+		return this.entityNames.contains(entityClazz.getSimpleName());
+	}
+
+	/*
+	 * Only committed state is recorded, so nothing read inside a read-write transaction is
+	 */
+	public void record(Collection<?> entities) {
+		Assert.notNull(entities, "Entities must not be null!");
+		if (TransactionSynchronizationManager.isActualTransactionActive()
+				&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			return;
+		}
+		Map<Object, Node> nodes = new IdentityHashMap<>();
+		Set<Object> visitingEntities = Collections.newSetFromMap(new IdentityHashMap<>());
+		entities.forEach(entity -> this.visit(entity, nodes, visitingEntities, false));
+		nodes.forEach((entity, node) -> {
+			if (node.id != null && this.isEnabled(node.entityClazz)) {
+				this.cache.put(new Key(node.entityClazz, node.id), node.hash);
+			}
+		});
+	}
+
+	/**
+	 * Lists, by identity, the entities of the detached graphs whose subtree is unchanged
+	 * since it was last read.
+	 */
+	public Set<Object> findUnchanged(Collection<?> entities) {
+		Assert.notNull(entities, "Entities must not be null!");
+		Set<Object> unchangedEntities = Collections.newSetFromMap(new IdentityHashMap<>());
+		Map<Object, Node> nodes = new IdentityHashMap<>();
+		Set<Object> visitingEntities = Collections.newSetFromMap(new IdentityHashMap<>());
+		entities.forEach(entity -> this.visit(entity, nodes, visitingEntities, true));
+		nodes.forEach((entity, node) -> {
+			if (node.unchanged) {
+				unchangedEntities.add(entity);
+			}
+		});
+		return unchangedEntities;
+	}
+
+	/*
+	 * As the entity cache, evicted again after the transaction completes so a concurrent
+	 * reader can't record the still uncommitted state. A null id evicts the whole class
+	 */
+	@SuppressWarnings("unchecked")
+	public void invalidate(Class<?> entityClazz, Object id) {
+		Assert.notNull(entityClazz, "EntityClazz must not be null!");
+		if (!this.isEnabled(entityClazz)) {
+			return;
+		}
+		Key eviction = new Key(entityClazz, id);
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			this.evict(eviction);
+			return;
+		}
+		Set<Key> evictions = (Set<Key>) TransactionSynchronizationManager.getResource(this);
+		if (evictions == null) {
+			Set<Key> newEvictions = new HashSet<>();
+			TransactionSynchronizationManager.bindResource(this, newEvictions);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(EntitySnapshotCache.this);
+					newEvictions.forEach(EntitySnapshotCache.this::evict);
+				}
+
+			});
+			evictions = newEvictions;
+		}
+		if (evictions.add(eviction)) {
+			this.evict(eviction);
+		}
+	}
+
+	public CacheStats getStats() {
+		return this.cache.stats();
+	}
+
+	public long size() {
+		return this.cache.size();
+	}
+
+	private void evict(Key eviction) {
+		log.trace("Evicting snapshots {}[{}]", eviction.entityClazz.getName(), eviction.id == null ? "*" : eviction.id);
+		if (eviction.id != null) {
+			this.cache.invalidate(eviction);
+		}
+		else {
+			this.cache.asMap().keySet().removeIf(key -> key.entityClazz.equals(eviction.entityClazz));
+		}
+	}
+
+	/*
+	 * Children are hashed before their parent. An entity reached again through a cycle of
+	 * cascades is hashed by its id only. A missing relation is hashed as the deep load treats
+	 * it, so null and not initialized only differ for a cascaded to-one, removed when null.
+	 * Only lists are ordered, sets are hashed whatever the order the client rebuilt them in.
+	 * Subclasses, like proxies, are keyed and hashed as the entity they map to
+	 */
+	private Node visit(Object entity, Map<Object, Node> nodes, Set<Object> visitingEntities, boolean compare) {
+		Node node = nodes.get(entity);
+		if (node != null) {
+			return node;
+		}
+		EntityDescriptor entityDescriptor = EntityUtils.getDescriptor(ReflectionUtils.getClass(entity));
+		Class<?> entityClazz = entityDescriptor.getEntityClazz();
+		Object id = this.getIdValue(entity);
+		Hasher hasher = HASH_FUNCTION.newHasher();
+		this.putString(hasher, entityClazz.getName());
+		this.putValue(hasher, id);
+		if (!visitingEntities.add(entity)) {
+			return new Node(entityClazz, id, hasher.hash(), false);
+		}
+		for (Field field : entityDescriptor.getNonRelationalFields()) {
+			if (!Modifier.isTransient(field.getModifiers()) && !field.getName().startsWith(ENHANCEMENT_FIELD_PREFIX)) {
+				this.putString(hasher, field.getName());
+				this.putValue(hasher, this.getFieldValue(entity, field));
+			}
+		}
+		boolean clean = !(entity instanceof SelfDirtinessTracker)
+				|| !((SelfDirtinessTracker) entity).$$_hibernate_hasDirtyAttributes();
+		for (RelationDescriptor relation : entityDescriptor.getRelations()) {
+			boolean cascaded = relation.hasAnyCascade(MERGE_CASCADES);
+			Object value = this.getFieldValue(entity, relation.getField());
+			this.putString(hasher, relation.getField().getName());
+			if (value == null || !Hibernate.isInitialized(value)) {
+				hasher.putByte(value != null && cascaded && !relation.isCollection() ? UNINITIALIZED : NULL);
+			}
+			else if (relation.isCollection()) {
+				Collection<?> collection = (Collection<?>) value;
+				clean = clean && !(collection instanceof PersistentCollection
+						&& ((PersistentCollection<?>) collection).isDirty());
+				List<HashCode> childHashes = new ArrayList<>(collection.size());
+				for (Object child : collection) {
+					Hasher childHasher = HASH_FUNCTION.newHasher();
+					clean = this.putChild(childHasher, child, cascaded, nodes, visitingEntities, compare) && clean;
+					childHashes.add(childHasher.hash());
+				}
+				hasher.putByte(VALUE).putInt(childHashes.size());
+				if (!childHashes.isEmpty()) {
+					hasher.putBytes((collection instanceof List ? Hashing.combineOrdered(childHashes)
+							: Hashing.combineUnordered(childHashes)).asBytes());
+				}
+			}
+			else {
+				hasher.putByte(VALUE);
+				clean = this.putChild(hasher, value, cascaded, nodes, visitingEntities, compare) && clean;
+			}
+		}
+		visitingEntities.remove(entity);
+		HashCode hash = hasher.hash();
+		boolean unchanged = compare && clean && id != null && this.isEnabled(entityClazz)
+				&& hash.equals(this.cache.getIfPresent(new Key(entityClazz, id)));
+		node = new Node(entityClazz, id, hash, unchanged);
+		nodes.put(entity, node);
+		return node;
+	}
+
+	/*
+	 * Returns whether the child leaves its parent unchanged, which references always do
+	 */
+	private boolean putChild(Hasher hasher, Object child, boolean cascaded, Map<Object, Node> nodes,
+			Set<Object> visitingEntities, boolean compare) {
+		if (child == null) {
+			hasher.putByte(NULL);
+			return true;
+		}
+		if (!cascaded) {
+			this.putValue(hasher, this.getIdValue(child));
+			return true;
+		}
+		Node node = this.visit(Hibernate.unproxy(child), nodes, visitingEntities, compare);
+		hasher.putBytes(node.hash.asBytes());
+		return node.unchanged;
+	}
+
+	private void putValue(Hasher hasher, Object value) {
+		if (value == null) {
+			hasher.putByte(NULL);
+		}
+		else if (!Hibernate.isInitialized(value)) {
+			hasher.putByte(UNINITIALIZED);
+		}
+		else if (value instanceof Date) {
+			hasher.putByte(VALUE).putLong(((Date) value).getTime());
+		}
+		else if (value instanceof byte[]) {
+			byte[] bytes = (byte[]) value;
+			hasher.putByte(VALUE).putInt(bytes.length).putBytes(bytes);
+		}
+		else if (value instanceof Collection) {
+			Collection<?> collection = (Collection<?>) value;
+			hasher.putByte(VALUE).putInt(collection.size());
+			collection.forEach(element -> this.putValue(hasher, element));
+		}
+		else if (value instanceof Enum) {
+			hasher.putByte(VALUE);
+			this.putString(hasher, ((Enum<?>) value).name());
+		}
+		else {
+			hasher.putByte(VALUE);
+			this.putString(hasher, value.toString());
+		}
+	}
+
+	private void putString(Hasher hasher, String value) {
+		hasher.putInt(value.length()).putString(value, StandardCharsets.UTF_8);
+	}
+
+	private Object getIdValue(Object entity) {
+		if (entity instanceof HibernateProxy) {
+			return ((HibernateProxy) entity).getHibernateLazyInitializer().getIdentifier();
+		}
+		try {
+			return EntityUtils.getIdValue(entity);
+		}
+		catch (Exception exception) {
+			throw new UnexpectedException("Unable to get %s entity id", exception, entity.getClass().getName());
+		}
+	}
+
+	private Object getFieldValue(Object entity, Field field) {
+		try {
+			return ReflectionUtils.getFieldValue(entity, field, true);
+		}
+		catch (Exception exception) {
+			throw new UnexpectedException("Unable to get %s.%s", exception, entity.getClass().getName(),
+					field.getName());
+		}
+	}
+
+	@RequiredArgsConstructor
+	private static final class Node {
+
+		private final Class<?> entityClazz;
+
+		private final Object id;
+
+		private final HashCode hash;
+
+		private final boolean unchanged;
+
+	}
+
+	@EqualsAndHashCode
+	@RequiredArgsConstructor
+	private static final class Key {
+
+		private final Class<?> entityClazz;
+
+		private final Object id;
+
+	}
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.lang.reflect.Field;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.envers.Audited;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
+import org.springframework.data.annotation.CreatedBy;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.util.Assert;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tech.go9.spine.core.api.exception.UnexpectedException;
+import tech.go9.spine.core.api.util.ReflectionUtils;
+
+/**
+ * Writes entities with a native upsert keyed by some of their attributes, one statement
+ * per entity sent in a single JDBC batch. Columns come from the entity persister, so
+ * basic, embedded and to-one attributes are written while collections are not. On a
+ * conflict the row keeps its id, its keys and its creation auditing. Versioned entities
+ * and audited ones, whose revisions a native statement would bypass, are rejected.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+@Slf4j
+public class EntityUpserter<T> {
+
+	private static final String POSTGRESQL_UPSERT = "insert into %s (%s) values (%s) on conflict (%s) do %s";
+
+	private static final String H2_UPSERT = "merge into %s t using (select 1) s on (%s) %s"
+			+ "when not matched then insert (%s) values (%s)";
+
+	private final EntityManager entityManager;
+
+	private final Class<T> entityClazz;
+
+	private final Map<List<String>, Upsert> upserts = new ConcurrentHashMap<>();
+
+	public EntityUpserter(EntityManager entityManager, Class<T> entityClazz) {
+		this.entityManager = entityManager;
+		this.entityClazz = entityClazz;
+	}
+
+	/*
+	 * Entities are given the ids of the rows their keys matched, or ids drawn from their
+	 * generator. A row inserted concurrently with the same keys only wastes the drawn value
+	 */
+	public long execute(List<T> entities, List<Object> existingIds, List<String> conflictAttributeNames) {
+		Assert.notNull(entities, "Entities must not be null!");
+		Assert.isTrue(entities.size() == existingIds.size(), "ExistingIds must match the entities!");
+		Assert.notEmpty(conflictAttributeNames, "ConflictAttributeNames must not be empty!");
+		if (entities.isEmpty()) {
+			return 0;
+		}
+		Upsert upsert = this.upserts.computeIfAbsent(List.copyOf(conflictAttributeNames), this::createUpsert);
+		SharedSessionContractImplementor session = this.entityManager.unwrap(SharedSessionContractImplementor.class);
+		for (int index = 0; index < entities.size(); index++) {
+			T entity = entities.get(index);
+			Object id = existingIds.get(index);
+			if (id == null && upsert.persister.getIdentifier(entity, session) == null) {
+				id = upsert.persister.getIdentifierGenerator().generate(session, entity);
+			}
+			if (id != null) {
+				upsert.persister.setIdentifier(entity, id, session);
+			}
+		}
+		log.debug("UPSERT {} rows of {}: {}", entities.size(), this.entityClazz.getName(), upsert.sql);
+		session.doWork(connection -> {
+			try (PreparedStatement statement = connection.prepareStatement(upsert.sql)) {
+				for (T entity : entities) {
+					Object id = upsert.persister.getIdentifier(entity, session);
+					Object[] values = upsert.persister.getValues(entity);
+					int index = 1;
+					for (Attribute attribute : upsert.parameters) {
+						attribute.type.nullSafeSet(statement, attribute.getValue(id, values), index, session);
+						index += attribute.columnNames.length;
+					}
+					statement.addBatch();
+				}
+				statement.executeBatch();
+			}
+		});
+		return entities.size();
+	}
+
+	private Upsert createUpsert(List<String> conflictAttributeNames) {
+		SessionFactoryImplementor sessionFactory = this.entityManager.getEntityManagerFactory()
+				.unwrap(SessionFactoryImplementor.class);
+		EntityPersister entityPersister = sessionFactory.getRuntimeMetamodels()
+				.getMappingMetamodel()
+				.getEntityDescriptor(this.entityClazz);
+		Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+		if (!(entityPersister instanceof AbstractEntityPersister)
+				|| !(dialect instanceof PostgreSQLDialect || dialect instanceof H2Dialect)) {
+			throw new UnexpectedException("Upserts are not supported for %s on %s", this.entityClazz.getName(),
+					dialect);
+		}
+		AbstractEntityPersister persister = (AbstractEntityPersister) entityPersister;
+		if (persister.isVersioned()) {
+			throw new UnexpectedException("Upserts are not supported for versioned %s", this.entityClazz.getName());
+		}
+		if (this.entityClazz.isAnnotationPresent(Audited.class)) {
+			throw new UnexpectedException("Upserts are not supported for audited %s", this.entityClazz.getName());
+		}
+		List<Attribute> attributes = this.listAttributes(persister);
+		List<Attribute> keys = new ArrayList<>();
+		for (String conflictAttributeName : conflictAttributeNames) {
+			keys.add(attributes.stream()
+					.filter(attribute -> attribute.name.equals(conflictAttributeName))
+					.findFirst()
+					.orElseThrow(() -> new UnexpectedException("Conflict key %s is not a column attribute of %s",
+							conflictAttributeName, this.entityClazz.getName())));
+		}
+		List<Attribute> updates = attributes.stream()
+				.filter(attribute -> attribute.updatable && !keys.contains(attribute))
+				.collect(Collectors.toList());
+		String columns = this.join(attributes, column -> column, ", ");
+		String placeholders = this.join(attributes, column -> "?", ", ");
+		if (dialect instanceof PostgreSQLDialect) {
+			String action = updates.isEmpty() ? "nothing"
+					: "update set " + this.join(updates, column -> column + " = excluded." + column, ", ");
+			return new Upsert(persister, String.format(POSTGRESQL_UPSERT, persister.getTableName(), columns,
+					placeholders, this.join(keys, column -> column, ", "), action), attributes);
+		}
+		String matched = updates.isEmpty() ? ""
+				: "when matched then update set " + this.join(updates, column -> column + " = ?", ", ") + " ";
+		List<Attribute> parameters = new ArrayList<>(keys);
+		parameters.addAll(updates);
+		parameters.addAll(attributes);
+		return new Upsert(persister, String.format(H2_UPSERT, persister.getTableName(),
+				this.join(keys, column -> "t." + column + " = ?", " and "), matched, columns, placeholders),
+				parameters);
+	}
+
+	/*
+	 * The id first, then every property mapped to columns of the entity table
+	 */
+	private List<Attribute> listAttributes(AbstractEntityPersister persister) {
+		List<Attribute> attributes = new ArrayList<>();
+		attributes.add(new Attribute(persister.getIdentifierPropertyName(), -1, persister.getIdentifierType(),
+				persister.getIdentifierColumnNames(), false));
+		String[] propertyNames = persister.getPropertyNames();
+		for (int index = 0; index < propertyNames.length; index++) {
+			String[] columnNames = persister.getPropertyColumnNames(index);
+			if (columnNames.length == 0 || !persister.getPropertyInsertability()[index]
+					|| Arrays.stream(columnNames).anyMatch(columnName -> columnName == null)) {
+				continue;
+			}
+			Field field = ReflectionUtils.findField(this.entityClazz, propertyNames[index]);
+			boolean creation = field != null
+					&& (field.isAnnotationPresent(CreatedBy.class) || field.isAnnotationPresent(CreatedDate.class));
+			attributes.add(new Attribute(propertyNames[index], index, persister.getPropertyTypes()[index],
+					columnNames, persister.getPropertyUpdateability()[index] && !creation));
+		}
+		return attributes;
+	}
+
+	private String join(List<Attribute> attributes, Function<String, String> columnMapper,
+			String delimiter) {
+		return attributes.stream()
+				.flatMap(attribute -> Stream.of(attribute.columnNames))
+				.map(columnMapper)
+				.collect(Collectors.joining(delimiter));
+	}
+
+	@RequiredArgsConstructor
+	private static final class Upsert {
+
+		private final AbstractEntityPersister persister;
+
+		private final String sql;
+
+		/**
+		 * Attributes bound, in the order of the placeholders of the statement.
+		 */
+		private final List<Attribute> parameters;
+
+	}
+
+	@RequiredArgsConstructor
+	private static final class Attribute {
+
+		private final String name;
+
+		private final int propertyIndex;
+
+		private final Type type;
+
+		private final String[] columnNames;
+
+		private final boolean updatable;
+
+		private Object getValue(Object id, Object[] values) {
+			return this.propertyIndex < 0 ? id : values[this.propertyIndex];
+		}
+
+	}
+
+}
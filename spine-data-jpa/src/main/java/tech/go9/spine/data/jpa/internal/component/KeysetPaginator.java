@@ -0,0 +1,245 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.util.ClassUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.OrderSpecifier.NullHandling;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.ComparablePath;
+import com.querydsl.core.types.dsl.PathBuilder;
+
+import tech.go9.spine.core.api.domain.KeysetPage;
+import tech.go9.spine.core.api.domain.KeysetPageable;
+import tech.go9.spine.core.api.exception.UnexpectedException;
+import tech.go9.spine.core.api.util.ReflectionUtils;
+import tech.go9.spine.data.jpa.internal.configuration.SpineDataJpaConstants;
+
+/**
+ * Translates {@link KeysetPageable} requests into seek predicates and orderings. The
+ * entity id is always appended to the sort keys as tie-breaker and cursors are the
+ * Base64 (URL safe) encoded JSON array of the keys values of a row. Nulls sort after
+ * every value, so they come last ascending and first descending.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+public class KeysetPaginator<T> {
+
+	private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+
+	private final Class<T> entityClazz;
+
+	private final PathBuilder<T> pathBuilder;
+
+	private final String idAttributeName;
+
+	public KeysetPaginator(JpaEntityInformation<T, ?> entityInformation, PathBuilder<T> pathBuilder) {
+		this.entityClazz = entityInformation.getJavaType();
+		this.pathBuilder = pathBuilder;
+		this.idAttributeName = entityInformation.getIdAttribute().getName();
+	}
+
+	public Optional<Predicate> createPredicate(KeysetPageable keysetPageable) {
+		return keysetPageable.getAfter().or(keysetPageable::getBefore).map(cursor -> this
+				.createPredicate(keysetPageable.getSort(), cursor, keysetPageable.isBackward()));
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public OrderSpecifier<?>[] createOrderSpecifiers(KeysetPageable keysetPageable) {
+		return this.getOrders(keysetPageable.getSort()).stream().map(order -> {
+			com.querydsl.core.types.Order direction = this.getDirection(order, keysetPageable.isBackward());
+			return new OrderSpecifier(direction, this.getPath(order.getProperty()),
+					direction == com.querydsl.core.types.Order.ASC ? NullHandling.NullsLast : NullHandling.NullsFirst);
+		}).toArray(OrderSpecifier[]::new);
+	}
+
+	/*
+	 * Rows must be fetched with page size + 1 limit, the extra row is used to detect if
+	 * there are more rows in the requested direction
+	 */
+	public KeysetPage<T> createPage(List<T> rows, KeysetPageable keysetPageable) {
+
+		int pageSize = keysetPageable.getPageSize();
+		boolean backward = keysetPageable.isBackward();
+		boolean hasMore = rows.size() > pageSize;
+
+		List<T> content = new ArrayList<>(hasMore ? rows.subList(0, pageSize) : rows);
+		if (backward) {
+			Collections.reverse(content);
+		}
+
+		boolean hasNext = backward || hasMore;
+		boolean hasPrevious = backward ? hasMore : keysetPageable.getAfter().isPresent();
+		String nextCursor = null;
+		String previousCursor = null;
+		if (!content.isEmpty()) {
+			nextCursor = hasNext ? this.createCursor(content.get(content.size() - 1), keysetPageable.getSort()) : null;
+			previousCursor = hasPrevious ? this.createCursor(content.get(0), keysetPageable.getSort()) : null;
+		}
+
+		return new KeysetPage<>(content, keysetPageable, hasNext, hasPrevious, nextCursor, previousCursor);
+	}
+
+	public String createCursor(T entity, Sort sort) {
+		List<Object> values = this.getOrders(sort).stream().map(order -> this.getValue(entity, order.getProperty()))
+				.collect(Collectors.toList());
+		try {
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(OBJECT_MAPPER.writeValueAsBytes(values));
+		}
+		catch (JsonProcessingException exception) {
+			throw new UnexpectedException("Unable to create cursor for %s", exception, this.entityClazz.getName());
+		}
+	}
+
+	/*
+	 * (k1 > v1) or (k1 = v1 and k2 > v2) or ... or (k1 = v1 and ... and id > idv), where
+	 * a null key only equals null and is greater than any value
+	 */
+	@SuppressWarnings("rawtypes")
+	private Predicate createPredicate(Sort sort, String cursor, boolean backward) {
+		List<Order> orders = this.getOrders(sort);
+		List<Object> values = this.decodeCursor(cursor, orders);
+		BooleanBuilder predicate = new BooleanBuilder();
+		BooleanBuilder equalities = new BooleanBuilder();
+		for (int i = 0; i < orders.size(); i++) {
+			Order order = orders.get(i);
+			ComparablePath path = this.getPath(order.getProperty());
+			Comparable value = (Comparable) values.get(i);
+			boolean ascending = this.getDirection(order, backward) == com.querydsl.core.types.Order.ASC;
+			Optional<Predicate> greater = this.createGreaterPredicate(path, value, ascending,
+					!order.getProperty().equals(this.idAttributeName));
+			if (greater.isPresent()) {
+				predicate.or(new BooleanBuilder(equalities).and(greater.get()));
+			}
+			equalities.and(value == null ? path.isNull() : path.eq(value));
+		}
+		return predicate.getValue();
+	}
+
+	/*
+	 * Rows after the key value in the direction of the read. Nothing comes after a null
+	 * ascending, and every value comes after it descending
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private Optional<Predicate> createGreaterPredicate(ComparablePath path, Comparable value, boolean ascending,
+			boolean nullable) {
+		if (value == null) {
+			return ascending ? Optional.empty() : Optional.of(path.isNotNull());
+		}
+		if (!ascending) {
+			return Optional.of(path.lt(value));
+		}
+		return Optional.of(nullable ? path.gt(value).or(path.isNull()) : path.gt(value));
+	}
+
+	private List<Object> decodeCursor(String cursor, List<Order> orders) {
+		try {
+			JsonNode jsonNode = OBJECT_MAPPER.readTree(Base64.getUrlDecoder().decode(cursor));
+			if (jsonNode == null || !jsonNode.isArray() || jsonNode.size() != orders.size()) {
+				throw this.createInvalidCursorException(cursor, null);
+			}
+			List<Object> values = new ArrayList<>();
+			for (int i = 0; i < orders.size(); i++) {
+				values.add(OBJECT_MAPPER.treeToValue(jsonNode.get(i), this.getType(orders.get(i).getProperty())));
+			}
+			return values;
+		}
+		catch (IllegalArgumentException | IOException exception) {
+			throw this.createInvalidCursorException(cursor, exception);
+		}
+	}
+
+	private List<Order> getOrders(Sort sort) {
+		List<Order> orders = new ArrayList<>();
+		sort.forEach(orders::add);
+		if (orders.stream().noneMatch(order -> order.getProperty().equals(this.idAttributeName))) {
+			orders.add(Order.asc(this.idAttributeName));
+		}
+		return orders;
+	}
+
+	private com.querydsl.core.types.Order getDirection(Order order, boolean backward) {
+		return order.isAscending() != backward ? com.querydsl.core.types.Order.ASC
+				: com.querydsl.core.types.Order.DESC;
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private ComparablePath getPath(String property) {
+		PathBuilder<?> parentPathBuilder = this.pathBuilder;
+		String[] segments = property.split("\\.");
+		for (int i = 0; i < segments.length - 1; i++) {
+			parentPathBuilder = parentPathBuilder.get(segments[i]);
+		}
+		return parentPathBuilder.getComparable(segments[segments.length - 1], (Class) this.getType(property));
+	}
+
+	private Class<?> getType(String property) {
+		Class<?> clazz = this.entityClazz;
+		for (String segment : property.split("\\.")) {
+			Field field = ReflectionUtils.findField(clazz, segment);
+			if (field == null) {
+				throw new UnexpectedException(SpineDataJpaConstants.BAD_REQUEST_STATUS,
+						SpineDataJpaConstants.MESSAGES_BUNDLE, "INVALID_SORT_PROPERTY", Optional.empty(), property,
+						this.entityClazz.getName());
+			}
+			clazz = field.getType();
+		}
+		return ClassUtils.resolvePrimitiveIfNecessary(clazz);
+	}
+
+	private Object getValue(Object entity, String property) {
+		Object value = entity;
+		for (String segment : property.split("\\.")) {
+			if (value == null) {
+				return null;
+			}
+			Field field = ReflectionUtils.findField(value.getClass(), segment);
+			try {
+				value = ReflectionUtils.getFieldValue(value, field, true);
+			}
+			catch (Exception exception) {
+				throw new UnexpectedException("Unable to get %s.%s", exception, this.entityClazz.getName(), property);
+			}
+		}
+		return value;
+	}
+
+	private UnexpectedException createInvalidCursorException(String cursor, Throwable cause) {
+		return new UnexpectedException(SpineDataJpaConstants.BAD_REQUEST_STATUS, SpineDataJpaConstants.MESSAGES_BUNDLE,
+				"INVALID_CURSOR", Optional.empty(), cause, cursor);
+	}
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+import org.springframework.util.Assert;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.QueryMetadata;
+
+import lombok.extern.slf4j.Slf4j;
+import tech.go9.spine.data.jpa.internal.model.QueryShape;
+
+/**
+ * Keeps the JPQL serialized for parameterized query metadata, keyed by its structure, so
+ * queries differing only by constant values reuse the same string and the Hibernate query
+ * plan cached for it.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+@Slf4j
+public class QueryShapeCache {
+
+	private final Cache<List<Object>, QueryShape> cache;
+
+	public QueryShapeCache(long maximumSize) {
+		this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+	}
+
+	public QueryShape get(QueryMetadata metadata, boolean forCount, Function<QueryMetadata, QueryShape> serializer) {
+		Assert.notNull(metadata, "Metadata must not be null!");
+		try {
+			return this.cache.get(createKey(metadata, forCount), () -> {
+				QueryShape queryShape = serializer.apply(metadata);
+				log.trace("Caching query shape: {}", queryShape.getJpql());
+				return queryShape;
+			});
+		}
+		catch (ExecutionException | UncheckedExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	public CacheStats getStats() {
+		return this.cache.stats();
+	}
+
+	public long size() {
+		return this.cache.size();
+	}
+
+	/*
+	 * Join flags are keyed explicitly, since a fetch join serializes differently from a
+	 * plain join over the same target, and so is the count form of the query
+	 */
+	private static List<Object> createKey(QueryMetadata metadata, boolean forCount) {
+		List<Object> joins = new ArrayList<>(metadata.getJoins().size());
+		for (JoinExpression joinExpression : metadata.getJoins()) {
+			joins.add(Arrays.asList(joinExpression.getType(), joinExpression.getTarget(), joinExpression.getCondition(),
+					joinExpression.getFlags()));
+		}
+		return Arrays.asList(joins, metadata.getWhere(), metadata.getGroupBy(), metadata.getHaving(),
+				metadata.getOrderBy(), metadata.getProjection(), metadata.isDistinct(), metadata.getFlags(), forCount);
+	}
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.Assert;
+
+import lombok.extern.slf4j.Slf4j;
+import tech.go9.spine.data.jpa.internal.configuration.SpineDataJpaProperties.Replica;
+
+/**
+ * Wraps the primary data source bean so read-only transactions are routed to the replica,
+ * when one is configured.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+@Slf4j
+public class ReplicaDataSourcePostProcessor implements BeanPostProcessor {
+
+	private final Replica replica;
+
+	public ReplicaDataSourcePostProcessor(Replica replica) {
+		Assert.notNull(replica, "Replica must not be null!");
+		this.replica = replica;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (!this.replica.isEnabled() || !(bean instanceof DataSource)
+				|| !this.replica.getPrimaryBeanName().equals(beanName)) {
+			return bean;
+		}
+		Assert.hasText(this.replica.getUrl(), "Replica url must not be empty!");
+		log.info("Routing read-only transactions of {} to replica {}", beanName, this.replica.getUrl());
+		DataSource replicaDataSource = DataSourceBuilder.create()
+				.url(this.replica.getUrl())
+				.username(this.replica.getUsername())
+				.password(this.replica.getPassword())
+				.driverClassName(this.replica.getDriverClassName())
+				.build();
+		return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource((DataSource) bean, replicaDataSource,
+				this.replica.getMaxLag(), Optional.ofNullable(this.replica.getLagQuery()),
+				this.replica.getLagCheckInterval(), this.replica.getPinDuration()));
+	}
+
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Routes connections of read-only transactions to a replica, unless the replica lags more
+ * than tolerated or the thread committed a write recently, so it reads its own writes.
+ * Must be wrapped in a lazy connection proxy, as transactions are marked read-only only
+ * after they begin.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	public enum Route {
+		PRIMARY, REPLICA
+	}
+
+	private static final Duration UNBOUNDED_LAG = Duration.ofSeconds(Long.MAX_VALUE);
+
+	private final ThreadLocal<Instant> pinnedUntil = new ThreadLocal<>();
+
+	private final JdbcTemplate replicaJdbcTemplate;
+
+	private final Duration maxLag;
+
+	private final Optional<String> lagQuery;
+
+	private final Duration lagCheckInterval;
+
+	private final Duration pinDuration;
+
+	private final AtomicBoolean checkingLag = new AtomicBoolean();
+
+	private volatile Instant lagCheckedAt = Instant.MIN;
+
+	private volatile Duration lag = Duration.ZERO;
+
+	private final AtomicLong primaryRoutes = new AtomicLong();
+
+	private final AtomicLong replicaRoutes = new AtomicLong();
+
+	private final AtomicLong pinnedRoutes = new AtomicLong();
+
+	private final AtomicLong laggingRoutes = new AtomicLong();
+
+	public ReplicaRoutingDataSource(DataSource primaryDataSource, DataSource replicaDataSource, Duration maxLag,
+			Optional<String> lagQuery, Duration lagCheckInterval, Duration pinDuration) {
+		Assert.notNull(primaryDataSource, "PrimaryDataSource must not be null!");
+		Assert.notNull(replicaDataSource, "ReplicaDataSource must not be null!");
+		Assert.notNull(maxLag, "MaxLag must not be null!");
+		Assert.notNull(lagQuery, "LagQuery must not be null!");
+		Assert.notNull(lagCheckInterval, "LagCheckInterval must not be null!");
+		Assert.notNull(pinDuration, "PinDuration must not be null!");
+		this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+		this.maxLag = maxLag;
+		this.lagQuery = lagQuery;
+		this.lagCheckInterval = lagCheckInterval;
+		this.pinDuration = pinDuration;
+		this.setTargetDataSources(Map.of(Route.PRIMARY, primaryDataSource, Route.REPLICA, replicaDataSource));
+		this.setDefaultTargetDataSource(primaryDataSource);
+		this.afterPropertiesSet();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			this.pinAfterCommit();
+			this.primaryRoutes.incrementAndGet();
+			return Route.PRIMARY;
+		}
+		if (this.isPinned()) {
+			this.pinnedRoutes.incrementAndGet();
+			return Route.PRIMARY;
+		}
+		if (this.isLagging()) {
+			this.laggingRoutes.incrementAndGet();
+			return Route.PRIMARY;
+		}
+		this.replicaRoutes.incrementAndGet();
+		return Route.REPLICA;
+	}
+
+	public long getPrimaryRoutes() {
+		return this.primaryRoutes.get();
+	}
+
+	public long getReplicaRoutes() {
+		return this.replicaRoutes.get();
+	}
+
+	public long getPinnedRoutes() {
+		return this.pinnedRoutes.get();
+	}
+
+	public long getLaggingRoutes() {
+		return this.laggingRoutes.get();
+	}
+
+	public Duration getLag() {
+		return this.lag;
+	}
+
+	/*
+	 * Pools reuse threads, so pins expire rather than lasting until the thread ends
+	 */
+	private void pinAfterCommit() {
+		if (!TransactionSynchronizationManager.isActualTransactionActive()
+				|| !TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+			@Override
+			public void afterCommit() {
+				ReplicaRoutingDataSource.this.pinnedUntil
+						.set(Instant.now().plus(ReplicaRoutingDataSource.this.pinDuration));
+			}
+
+		});
+	}
+
+	private boolean isPinned() {
+		Instant until = this.pinnedUntil.get();
+		if (until == null) {
+			return false;
+		}
+		if (Instant.now().isAfter(until)) {
+			this.pinnedUntil.remove();
+			return false;
+		}
+		return true;
+	}
+
+	/*
+	 * Checked at most once per interval, by a single thread, others using the last lag. A
+	 * failing check is taken as an unbounded lag
+	 */
+	private boolean isLagging() {
+		if (this.lagQuery.isEmpty()) {
+			return false;
+		}
+		if (Instant.now().isAfter(this.lagCheckedAt.plus(this.lagCheckInterval))
+				&& this.checkingLag.compareAndSet(false, true)) {
+			try {
+				Number seconds = this.replicaJdbcTemplate.queryForObject(this.lagQuery.get(), Number.class);
+				this.lag = seconds == null ? Duration.ZERO : Duration.ofMillis((long) (seconds.doubleValue() * 1000));
+			}
+			catch (RuntimeException exception) {
+				log.warn("Unable to check the replica lag, routing to the primary", exception);
+				this.lag = UNBOUNDED_LAG;
+			}
+			finally {
+				this.lagCheckedAt = Instant.now();
+				this.checkingLag.set(false);
+			}
+		}
+		return this.lag.compareTo(this.maxLag) > 0;
+	}
+
+}
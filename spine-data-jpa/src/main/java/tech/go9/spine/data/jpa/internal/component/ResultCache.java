@@ -0,0 +1,214 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Predicate;
+
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the ids and the total of the pages read for the entities it is enabled for. An
+ * entry is only valid while the modification versions of its entity and of the types its
+ * predicate and expand join are unchanged, so a hit costs a single primary key load
+ * instead of the content and count queries.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+@Slf4j
+public class ResultCache {
+
+	private final Set<String> entityNames;
+
+	private final Cache<Key, Entry> cache;
+
+	private final Map<Class<?>, AtomicLong> versionMap = new ConcurrentHashMap<>();
+
+	public ResultCache(Collection<String> entityNames, Duration timeToLive, long maximumSize) {
+		Assert.notNull(entityNames, "EntityNames must not be null!");
+		Assert.notNull(timeToLive, "TimeToLive must not be null!");
+		this.entityNames = Set.copyOf(entityNames);
+		this.cache = CacheBuilder.newBuilder()
+				.expireAfterWrite(timeToLive)
+				.maximumSize(maximumSize)
+				.recordStats()
+				.build();
+	}
+
+	public boolean isEnabled(Class<?> entityClazz) {
+		return this.entityNames.contains(entityClazz.getSimpleName());
+	}
+
+	/*
+	 * The versions are read before the query runs, so a commit during it leaves the entry
+	 * stale. A hit whose entities can't all be loaded again is discarded
+	 */
+	public <T> Page<T> get(Class<T> entityClazz, Collection<Class<?>> joinedClazzes, String query,
+			Pageable pageable, String expand, Function<List<Object>, List<T>> loader, Function<T, Object> idGetter,
+			Supplier<Page<T>> executor) {
+		Assert.notNull(entityClazz, "EntityClazz must not be null!");
+		Assert.notNull(joinedClazzes, "JoinedClazzes must not be null!");
+		Assert.notNull(query, "Query must not be null!");
+		Assert.notNull(pageable, "Pageable must not be null!");
+		Key key = new Key(entityClazz, query, pageable, expand);
+		List<Long> versions = this.getVersions(entityClazz, joinedClazzes);
+		Entry entry = this.cache.getIfPresent(key);
+		if (entry != null && entry.versions.equals(versions)) {
+			List<T> content = loader.apply(entry.ids);
+			if (content.size() == entry.ids.size()) {
+				return new PageImpl<>(content, pageable, entry.total);
+			}
+			log.debug("Discarding cached page of {}, some of its entities are gone", entityClazz.getName());
+		}
+		Page<T> page = executor.get();
+		List<Object> ids = page.getContent().stream().map(idGetter).collect(Collectors.toList());
+		this.cache.put(key, new Entry(versions, ids, page.getTotalElements()));
+		return page;
+	}
+
+	/*
+	 * Bumped when changed, so the writing transaction reads its own changes, and again after
+	 * it completes, so pages read meanwhile from the committed state aren't kept. Versions
+	 * are kept for every type, as cached pages of other entities may join it
+	 */
+	@SuppressWarnings("unchecked")
+	public void invalidate(Class<?> entityClazz) {
+		Assert.notNull(entityClazz, "EntityClazz must not be null!");
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			this.getVersion(entityClazz).incrementAndGet();
+			return;
+		}
+		Set<Class<?>> entityClazzes = (Set<Class<?>>) TransactionSynchronizationManager.getResource(this);
+		if (entityClazzes == null) {
+			Set<Class<?>> newEntityClazzes = new HashSet<>();
+			TransactionSynchronizationManager.bindResource(this, newEntityClazzes);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(ResultCache.this);
+					newEntityClazzes.forEach(clazz -> ResultCache.this.getVersion(clazz).incrementAndGet());
+				}
+
+			});
+			entityClazzes = newEntityClazzes;
+		}
+		if (entityClazzes.add(entityClazz)) {
+			this.getVersion(entityClazz).incrementAndGet();
+		}
+	}
+
+	public CacheStats getStats() {
+		return this.cache.stats();
+	}
+
+	public long size() {
+		return this.cache.size();
+	}
+
+	/*
+	 * Operands of AND and OR are flattened and sorted, so predicates differing only in their
+	 * order share an entry
+	 */
+	public static String normalize(Predicate predicate) {
+		if (predicate instanceof Operation) {
+			Operation<?> operation = (Operation<?>) predicate;
+			if (operation.getOperator() == Ops.AND || operation.getOperator() == Ops.OR) {
+				List<String> operands = new ArrayList<>();
+				collectOperands(operation, operation.getOperator(), operands);
+				return operands.stream()
+						.sorted()
+						.collect(Collectors.joining(" " + operation.getOperator() + " ", "(", ")"));
+			}
+		}
+		return predicate.toString();
+	}
+
+	private static void collectOperands(Operation<?> operation, Object operator, List<String> operands) {
+		operation.getArgs().forEach(argument -> {
+			if (argument instanceof Operation && ((Operation<?>) argument).getOperator() == operator) {
+				collectOperands((Operation<?>) argument, operator, operands);
+			}
+			else {
+				operands.add(normalize((Predicate) argument));
+			}
+		});
+	}
+
+	private List<Long> getVersions(Class<?> entityClazz, Collection<Class<?>> joinedClazzes) {
+		List<Long> versions = new ArrayList<>(joinedClazzes.size() + 1);
+		versions.add(this.getVersion(entityClazz).get());
+		joinedClazzes.forEach(clazz -> versions.add(this.getVersion(clazz).get()));
+		return versions;
+	}
+
+	private AtomicLong getVersion(Class<?> entityClazz) {
+		return this.versionMap.computeIfAbsent(entityClazz, clazz -> new AtomicLong());
+	}
+
+	@EqualsAndHashCode
+	@RequiredArgsConstructor
+	private static final class Key {
+
+		private final Class<?> entityClazz;
+
+		private final String query;
+
+		private final Pageable pageable;
+
+		private final String expand;
+
+	}
+
+	@RequiredArgsConstructor
+	private static final class Entry {
+
+		private final List<Long> versions;
+
+		private final List<Object> ids;
+
+		private final long total;
+
+	}
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.util.OptionalLong;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads the number of rows of an entity table from the database statistics, which is
+ * only meaningful for unfiltered queries.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+@Slf4j
+public class RowCountEstimator<T> {
+
+	private static final String POSTGRESQL_QUERY = "select cast(c.reltuples as bigint) from pg_catalog.pg_class c "
+			+ "where c.relname = lower(?1) and c.relkind = 'r' and pg_catalog.pg_table_is_visible(c.oid)";
+
+	private static final String H2_QUERY = "select row_count_estimate from information_schema.tables "
+			+ "where upper(table_name) = upper(?1) and table_schema = schema()";
+
+	private final EntityManager entityManager;
+
+	private final Class<T> entityClazz;
+
+	/*
+	 * Resolved lazily and shared by concurrent requests, the table name is published
+	 * before the query that reads it
+	 */
+	private volatile String tableName;
+
+	private volatile String query;
+
+	public RowCountEstimator(EntityManager entityManager, Class<T> entityClazz) {
+		this.entityManager = entityManager;
+		this.entityClazz = entityClazz;
+	}
+
+	public OptionalLong execute() {
+		String query = this.query;
+		if (query == null) {
+			query = this.initialize();
+		}
+		if (query.isEmpty()) {
+			return OptionalLong.empty();
+		}
+		try {
+			Object result = this.entityManager.createNativeQuery(query).setParameter(1, this.tableName)
+					.getSingleResult();
+			long estimate = result == null ? -1L : ((Number) result).longValue();
+			return estimate < 0L ? OptionalLong.empty() : OptionalLong.of(estimate);
+		}
+		catch (PersistenceException exception) {
+			log.debug("Unable to estimate rows of {}", this.tableName, exception);
+			return OptionalLong.empty();
+		}
+	}
+
+	private String initialize() {
+		SessionFactoryImplementor sessionFactory = this.entityManager.getEntityManagerFactory()
+				.unwrap(SessionFactoryImplementor.class);
+		EntityPersister entityPersister = sessionFactory.getRuntimeMetamodels().getMappingMetamodel()
+				.getEntityDescriptor(this.entityClazz);
+		Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+		if (entityPersister instanceof AbstractEntityPersister
+				&& (dialect instanceof PostgreSQLDialect || dialect instanceof H2Dialect)) {
+			this.tableName = unqualify(((AbstractEntityPersister) entityPersister).getTableName());
+			this.query = dialect instanceof PostgreSQLDialect ? POSTGRESQL_QUERY : H2_QUERY;
+		}
+		else {
+			log.debug("Row estimates are not supported for {} on {}", this.entityClazz.getName(), dialect);
+			this.query = "";
+		}
+		return this.query;
+	}
+
+	private static String unqualify(String tableName) {
+		String unqualifiedTableName = tableName.substring(tableName.lastIndexOf('.') + 1);
+		return unqualifiedTableName.replace("\"", "").replace("`", "");
+	}
+
+}
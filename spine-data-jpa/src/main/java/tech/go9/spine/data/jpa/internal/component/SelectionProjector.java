@@ -0,0 +1,154 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.impl.JPAQuery;
+
+import tech.go9.spine.core.api.domain.Selection;
+import tech.go9.spine.core.api.exception.UnexpectedException;
+import tech.go9.spine.core.api.util.ReflectionUtils;
+import tech.go9.spine.data.jpa.internal.configuration.SpineDataJpaConstants;
+import tech.go9.spine.data.jpa.internal.model.EntityDescriptor;
+import tech.go9.spine.data.jpa.internal.model.RelationDescriptor;
+import tech.go9.spine.data.jpa.internal.util.EntityTenancyFilterUtils;
+import tech.go9.spine.data.jpa.internal.util.EntityUtils;
+import tech.go9.spine.data.jpa.internal.util.QuerydslUtils;
+
+/**
+ * Turns a {@link Selection} into a tuple query over the selected attributes. To-one
+ * associations on the way are left joined once each under an alias of their own, with
+ * their tenancy predicates, and each tuple is returned as a map nested by association.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+public class SelectionProjector<T> {
+
+	private static final String SELECTION_ALIAS_PREFIX = "selected_";
+
+	private final Class<T> entityClazz;
+
+	private final PathBuilder<T> pathBuilder;
+
+	public SelectionProjector(Class<T> entityClazz, PathBuilder<T> pathBuilder) {
+		this.entityClazz = entityClazz;
+		this.pathBuilder = pathBuilder;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public JPQLQuery<Tuple> project(JPAQuery<T> jpaQuery, Selection selection) {
+		Assert.notNull(jpaQuery, "JPAQuery must not be null!");
+		Assert.notNull(selection, "Selection must not be null!");
+		Map<String, PathBuilder<?>> joins = new LinkedHashMap<>();
+		List<Expression<?>> expressions = new ArrayList<>();
+		for (String attribute : selection.getAttributes()) {
+			String[] segments = attribute.split("\\.");
+			Class<?> clazz = this.entityClazz;
+			PathBuilder<?> parentPathBuilder = this.pathBuilder;
+			String prefix = "";
+			for (int i = 0; i < segments.length - 1; i++) {
+				RelationDescriptor relation = this.getToOneRelation(clazz, segments[i], attribute);
+				Class<?> relationClazz = relation.getField().getType();
+				prefix = prefix + segments[i] + ".";
+				PathBuilder<?> joinedPathBuilder = joins.get(prefix);
+				if (joinedPathBuilder == null) {
+					joinedPathBuilder = new PathBuilder<>(relationClazz, this.createAlias(prefix));
+					jpaQuery.leftJoin((EntityPath) parentPathBuilder.get(segments[i], relationClazz),
+							(EntityPath) joinedPathBuilder);
+					Optional<Predicate> tenancyPredicate = EntityTenancyFilterUtils.getRetrievePredicate(relationClazz);
+					if (tenancyPredicate.isPresent()) {
+						jpaQuery.where(QuerydslUtils.replaceRoot(tenancyPredicate.get(), joinedPathBuilder));
+					}
+					joins.put(prefix, joinedPathBuilder);
+				}
+				parentPathBuilder = joinedPathBuilder;
+				clazz = relationClazz;
+			}
+			String leaf = segments[segments.length - 1];
+			Field field = this.getAttributeField(clazz, leaf, attribute);
+			expressions.add(parentPathBuilder.get(leaf, ClassUtils.resolvePrimitiveIfNecessary(field.getType())));
+		}
+		return jpaQuery.select(expressions.toArray(new Expression<?>[0]));
+	}
+
+	@SuppressWarnings("unchecked")
+	public Map<String, Object> toMap(Tuple tuple, Selection selection) {
+		Object[] values = tuple.toArray();
+		Map<String, Object> map = new LinkedHashMap<>();
+		List<String> attributes = selection.getAttributes();
+		for (int i = 0; i < attributes.size(); i++) {
+			String[] segments = attributes.get(i).split("\\.");
+			Map<String, Object> parentMap = map;
+			for (int j = 0; j < segments.length - 1; j++) {
+				parentMap = (Map<String, Object>) parentMap.computeIfAbsent(segments[j], key -> new LinkedHashMap<>());
+			}
+			parentMap.put(segments[segments.length - 1], values[i]);
+		}
+		return map;
+	}
+
+	/*
+	 * Each join path gets an alias of its own, as several paths may reach the same entity
+	 * type, possibly the root one
+	 */
+	private String createAlias(String prefix) {
+		return SELECTION_ALIAS_PREFIX + prefix.substring(0, prefix.length() - 1).replace('.', '_');
+	}
+
+	private RelationDescriptor getToOneRelation(Class<?> clazz, String name, String attribute) {
+		Field field = ReflectionUtils.findField(clazz, name);
+		Optional<RelationDescriptor> relation = field == null ? Optional.empty()
+				: EntityUtils.getDescriptor(clazz).getRelation(field);
+		if (relation.isEmpty() || relation.get().isCollection()) {
+			throw this.createInvalidSelectionException(attribute);
+		}
+		return relation.get();
+	}
+
+	private Field getAttributeField(Class<?> clazz, String name, String attribute) {
+		EntityDescriptor descriptor = EntityUtils.getDescriptor(clazz);
+		Field field = descriptor.getNonRelationalFieldMap().get(name);
+		if (field == null && descriptor.getIdField() != null && descriptor.getIdField().getName().equals(name)) {
+			field = descriptor.getIdField();
+		}
+		if (field == null) {
+			throw this.createInvalidSelectionException(attribute);
+		}
+		return field;
+	}
+
+	private UnexpectedException createInvalidSelectionException(String attribute) {
+		return new UnexpectedException(SpineDataJpaConstants.BAD_REQUEST_STATUS, SpineDataJpaConstants.MESSAGES_BUNDLE,
+				"INVALID_SELECTION_ATTRIBUTE", Optional.empty(), attribute, this.entityClazz.getName());
+	}
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+
+import org.hibernate.Filter;
+import org.hibernate.Session;
+import org.springframework.core.ResolvableType;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.querydsl.core.types.Predicate;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import tech.go9.spine.core.api.exception.UnexpectedException;
+import tech.go9.spine.data.jpa.api.tenancy.TenancyFilter;
+
+/**
+ * Immutable registry of the tenancy filters by entity class, built once at startup. When
+ * Hibernate filters are enabled, filters naming a Hibernate filter are enforced in SQL
+ * through bind parameters, and their retrieve predicate is only kept for the reads the
+ * filter doesn't reach.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+@Slf4j
+public class TenancyFilterRegistry {
+
+	private final Map<Class<?>, TenancyFilter<?>> tenancyFilterMap;
+
+	private final Collection<TenancyFilter<?>> hibernateTenancyFilters;
+
+	public TenancyFilterRegistry(Collection<TenancyFilter<?>> tenancyFilters, boolean hibernateFilterEnabled) {
+		Map<Class<?>, TenancyFilter<?>> tenancyFilterMap = new HashMap<>();
+		ImmutableList.Builder<TenancyFilter<?>> hibernateTenancyFilters = ImmutableList.builder();
+		for (TenancyFilter<?> tenancyFilter : tenancyFilters) {
+			Class<?> entityClazz = ResolvableType.forClass(tenancyFilter.getClass())
+					.as(TenancyFilter.class)
+					.resolveGeneric(0);
+			if (entityClazz == null) {
+				log.warn("Ignoring tenancy filter {}, its entity type can not be resolved",
+						tenancyFilter.getClass().getName());
+				continue;
+			}
+			if (tenancyFilterMap.put(entityClazz, tenancyFilter) != null) {
+				throw new UnexpectedException("More than one tenancy filter for %s", entityClazz.getName());
+			}
+			if (hibernateFilterEnabled && tenancyFilter.getFilterName().isPresent()) {
+				hibernateTenancyFilters.add(tenancyFilter);
+			}
+		}
+		this.tenancyFilterMap = ImmutableMap.copyOf(tenancyFilterMap);
+		this.hibernateTenancyFilters = hibernateTenancyFilters.build();
+	}
+
+	public Optional<Predicate> getRetrievePredicate(Class<?> entityClazz) {
+		TenancyFilter<?> tenancyFilter = this.tenancyFilterMap.get(entityClazz);
+		if (tenancyFilter == null || this.hibernateTenancyFilters.contains(tenancyFilter)) {
+			return Optional.empty();
+		}
+		return tenancyFilter.getRetrievePredicate();
+	}
+
+	/*
+	 * Hibernate filters only restrict queries, so finds by id and audit queries of the
+	 * entities they enforce still need the retrieve predicate
+	 */
+	public Optional<Predicate> getFindPredicate(Class<?> entityClazz) {
+		TenancyFilter<?> tenancyFilter = this.tenancyFilterMap.get(entityClazz);
+		if (tenancyFilter == null || !this.hibernateTenancyFilters.contains(tenancyFilter)) {
+			return Optional.empty();
+		}
+		return tenancyFilter.getRetrievePredicate();
+	}
+
+	public Optional<Predicate> getSavePredicate(Class<?> entityClazz) {
+		TenancyFilter<?> tenancyFilter = this.tenancyFilterMap.get(entityClazz);
+		return tenancyFilter == null ? Optional.empty() : tenancyFilter.getSavePredicate();
+	}
+
+	public Optional<Predicate> getDeletePredicate(Class<?> entityClazz) {
+		TenancyFilter<?> tenancyFilter = this.tenancyFilterMap.get(entityClazz);
+		return tenancyFilter == null ? Optional.empty() : tenancyFilter.getDeletePredicate();
+	}
+
+	/*
+	 * Identifies the tenant an entity is read for, to key cached reads. Hibernate filters
+	 * bind the tenant as parameters rather than in the predicate
+	 */
+	public String getTenancyKey(Class<?> entityClazz) {
+		TenancyFilter<?> tenancyFilter = this.tenancyFilterMap.get(entityClazz);
+		if (tenancyFilter == null) {
+			return "";
+		}
+		if (this.hibernateTenancyFilters.contains(tenancyFilter)) {
+			return tenancyFilter.getFilterParameters().toString();
+		}
+		return tenancyFilter.getRetrievePredicate().map(Object::toString).orElse("");
+	}
+
+	/*
+	 * Keys a read of an entity together with the types it joins, as each of them may be
+	 * restricted for the current tenant
+	 */
+	public String getTenancyKey(Collection<Class<?>> entityClazzes) {
+		StringJoiner tenancyKey = new StringJoiner(";");
+		for (Class<?> entityClazz : entityClazzes) {
+			String entityTenancyKey = this.getTenancyKey(entityClazz);
+			if (!entityTenancyKey.isEmpty()) {
+				tenancyKey.add(entityClazz.getName() + "=" + entityTenancyKey);
+			}
+		}
+		return tenancyKey.toString();
+	}
+
+	/*
+	 * Parameters are bound again for each query, as the session may outlive a tenant
+	 */
+	public void enableHibernateFilters(EntityManager entityManager) {
+		if (this.hibernateTenancyFilters.isEmpty()) {
+			return;
+		}
+		Session session = entityManager.unwrap(Session.class);
+		for (TenancyFilter<?> tenancyFilter : this.hibernateTenancyFilters) {
+			Filter filter = session.enableFilter(tenancyFilter.getFilterName().get());
+			tenancyFilter.getFilterParameters().forEach(filter::setParameter);
+			filter.validate();
+		}
+	}
+
+	/*
+	 * For reads that must see the rows of every tenant. Returns the names of the filters
+	 * it turned off, to be restored once the read is done, as later reads in the session
+	 * don't all enable them again
+	 */
+	public Set<String> disableHibernateFilters(EntityManager entityManager) {
+		if (this.hibernateTenancyFilters.isEmpty()) {
+			return Set.of();
+		}
+		Session session = entityManager.unwrap(Session.class);
+		Set<String> filterNames = new HashSet<>();
+		for (TenancyFilter<?> tenancyFilter : this.hibernateTenancyFilters) {
+			String filterName = tenancyFilter.getFilterName().get();
+			if (session.getEnabledFilter(filterName) != null) {
+				session.disableFilter(filterName);
+				filterNames.add(filterName);
+			}
+		}
+		return filterNames;
+	}
+
+	public void restoreHibernateFilters(EntityManager entityManager, Set<String> filterNames) {
+		if (filterNames.isEmpty()) {
+			return;
+		}
+		Session session = entityManager.unwrap(Session.class);
+		for (TenancyFilter<?> tenancyFilter : this.hibernateTenancyFilters) {
+			if (filterNames.contains(tenancyFilter.getFilterName().get())) {
+				Filter filter = session.enableFilter(tenancyFilter.getFilterName().get());
+				tenancyFilter.getFilterParameters().forEach(filter::setParameter);
+				filter.validate();
+			}
+		}
+	}
+
+	public int size() {
+		return this.tenancyFilterMap.size();
+	}
+
+}
@@ -15,16 +15,33 @@
  */
 package tech.go9.spine.data.jpa.internal.configuration;
 
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import com.fasterxml.jackson.datatype.hibernate5.jakarta.Hibernate5JakartaModule;
 
+import tech.go9.spine.data.jpa.api.tenancy.TenancyFilter;
+import tech.go9.spine.data.jpa.internal.component.AsyncRepositoryExecutor;
+import tech.go9.spine.data.jpa.internal.component.CountCache;
+import tech.go9.spine.data.jpa.internal.component.EntityCache;
+import tech.go9.spine.data.jpa.internal.component.EntityGraphCache;
+import tech.go9.spine.data.jpa.internal.component.EntitySnapshotCache;
+import tech.go9.spine.data.jpa.internal.component.QueryShapeCache;
+import tech.go9.spine.data.jpa.internal.component.ReplicaDataSourcePostProcessor;
 import tech.go9.spine.data.jpa.internal.component.DefaultAuditorAware;
+import tech.go9.spine.data.jpa.internal.component.ResultCache;
+import tech.go9.spine.data.jpa.internal.component.TenancyFilterRegistry;
+import tech.go9.spine.data.jpa.internal.util.EntityTenancyFilterUtils;
 
 @Configuration
 @EnableConfigurationProperties(SpineDataJpaProperties.class)
@@ -53,4 +70,69 @@ public class SpineDataJpaConfiguration {
 		return new DefaultAuditorAware();
 	}
 
+	@Bean
+	CountCache countCache(SpineDataJpaProperties spineDataJpaProperties) {
+		return new CountCache(spineDataJpaProperties.getCount().getCacheTimeToLive(),
+				spineDataJpaProperties.getCount().getCacheMaximumSize());
+	}
+
+	@Bean
+	EntityGraphCache entityGraphCache(SpineDataJpaProperties spineDataJpaProperties) {
+		return new EntityGraphCache(spineDataJpaProperties.getExpand().getCacheMaximumSize());
+	}
+
+	@Bean
+	QueryShapeCache queryShapeCache(SpineDataJpaProperties spineDataJpaProperties) {
+		return new QueryShapeCache(spineDataJpaProperties.getQuery().getShapeCacheMaximumSize());
+	}
+
+	@Bean
+	EntityCache entityCache(SpineDataJpaProperties spineDataJpaProperties) {
+		return new EntityCache(spineDataJpaProperties.getEntityCache().getEntities(),
+				spineDataJpaProperties.getEntityCache().getTimeToLive(),
+				spineDataJpaProperties.getEntityCache().getMaximumSize());
+	}
+
+	@Bean
+	ResultCache resultCache(SpineDataJpaProperties spineDataJpaProperties) {
+		return new ResultCache(spineDataJpaProperties.getResultCache().getEntities(),
+				spineDataJpaProperties.getResultCache().getTimeToLive(),
+				spineDataJpaProperties.getResultCache().getMaximumSize());
+	}
+
+	@Bean
+	EntitySnapshotCache entitySnapshotCache(SpineDataJpaProperties spineDataJpaProperties) {
+		return new EntitySnapshotCache(spineDataJpaProperties.getSnapshot().getEntities(),
+				spineDataJpaProperties.getSnapshot().getTimeToLive(),
+				spineDataJpaProperties.getSnapshot().getMaximumSize());
+	}
+
+	@Bean
+	AsyncRepositoryExecutor asyncRepositoryExecutor(SpineDataJpaProperties spineDataJpaProperties,
+			PlatformTransactionManager transactionManager) {
+		return new AsyncRepositoryExecutor(transactionManager, spineDataJpaProperties.getAsync().getPoolSize(),
+				spineDataJpaProperties.getAsync().getThreadNamePrefix());
+	}
+
+	/*
+	 * Static and bound from the environment, as post processors are created before the
+	 * configuration properties beans
+	 */
+	@Bean
+	static ReplicaDataSourcePostProcessor replicaDataSourcePostProcessor(Environment environment) {
+		return new ReplicaDataSourcePostProcessor(Binder.get(environment)
+				.bind(SpineDataJpaConstants.PROPERTIES_PREFIX + ".replica", SpineDataJpaProperties.Replica.class)
+				.orElseGet(SpineDataJpaProperties.Replica::new));
+	}
+
+	@Bean
+	TenancyFilterRegistry tenancyFilterRegistry(SpineDataJpaProperties spineDataJpaProperties,
+			ObjectProvider<TenancyFilter<?>> tenancyFilters) {
+		TenancyFilterRegistry tenancyFilterRegistry = new TenancyFilterRegistry(
+				tenancyFilters.orderedStream().collect(Collectors.toList()),
+				spineDataJpaProperties.getTenancy().isHibernateFilter());
+		EntityTenancyFilterUtils.initialize(tenancyFilterRegistry);
+		return tenancyFilterRegistry;
+	}
+
 }
@@ -19,6 +19,10 @@ public class SpineDataJpaConstants {
 
 	public static final String PROPERTIES_PREFIX = "spine.data-jpa";
 
+	public static final String MESSAGES_BUNDLE = "spine-data-jpa";
+
+	public static final String BAD_REQUEST_STATUS = "400";
+
 	private SpineDataJpaConstants() {
 
 	}
@@ -15,10 +15,17 @@
  */
 package tech.go9.spine.data.jpa.internal.configuration;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 import lombok.Getter;
 import lombok.Setter;
+import tech.go9.spine.core.api.domain.CountStrategy;
 
 @Getter
 @Setter
@@ -27,4 +34,204 @@ public class SpineDataJpaProperties {
 
 	private String tenancyFieldName = "undefined";
 
+	private Count count = new Count();
+
+	private Expand expand = new Expand();
+
+	private Query query = new Query();
+
+	private Scroll scroll = new Scroll();
+
+	private Bulk bulk = new Bulk();
+
+	private Tenancy tenancy = new Tenancy();
+
+	private EntityCache entityCache = new EntityCache();
+
+	private ResultCache resultCache = new ResultCache();
+
+	private Snapshot snapshot = new Snapshot();
+
+	private Async async = new Async();
+
+	private Replica replica = new Replica();
+
+	@Getter
+	@Setter
+	public static class Count {
+
+		private CountStrategy defaultStrategy = CountStrategy.EXACT;
+
+		/**
+		 * Count strategies by entity simple name, overriding the default strategy.
+		 */
+		private Map<String, CountStrategy> strategies = new HashMap<>();
+
+		private Duration cacheTimeToLive = Duration.ofSeconds(30);
+
+		private long cacheMaximumSize = 10000;
+
+		/**
+		 * Counts pages on the asynchronous repository executor while their content is read,
+		 * outside read-write transactions and only while the executor has idle threads.
+		 */
+		private boolean concurrent = false;
+
+	}
+
+	@Getter
+	@Setter
+	public static class Expand {
+
+		/**
+		 * Maximum number of parsed expand expressions kept across all entities.
+		 */
+		private long cacheMaximumSize = 1000;
+
+	}
+
+	@Getter
+	@Setter
+	public static class Query {
+
+		/**
+		 * Maximum number of serialized query shapes kept across all entities.
+		 */
+		private long shapeCacheMaximumSize = 1000;
+
+	}
+
+	@Getter
+	@Setter
+	public static class Scroll {
+
+		private int fetchSize = 500;
+
+		/**
+		 * Number of rows after which the persistence context is cleared.
+		 */
+		private int clearInterval = 500;
+
+	}
+
+	@Getter
+	@Setter
+	public static class Bulk {
+
+		/**
+		 * Number of entities per chunk of the chunked bulk delete and update, of saveAll and
+		 * of upsertAll, also used as the JDBC batch size of saveAll and insertAll.
+		 */
+		private int chunkSize = 500;
+
+	}
+
+	@Getter
+	@Setter
+	public static class Tenancy {
+
+		/**
+		 * Enforces tenancy filters naming a Hibernate filter through that filter instead of
+		 * their retrieve predicate.
+		 */
+		private boolean hibernateFilter = false;
+
+	}
+
+	@Getter
+	@Setter
+	public static class EntityCache {
+
+		/**
+		 * Simple names of the entities whose reads by id are cached.
+		 */
+		private Set<String> entities = new HashSet<>();
+
+		private Duration timeToLive = Duration.ofMinutes(5);
+
+		private long maximumSize = 10000;
+
+	}
+
+	@Getter
+	@Setter
+	public static class ResultCache {
+
+		/**
+		 * Simple names of the entities whose page ids and totals are cached.
+		 */
+		private Set<String> entities = new HashSet<>();
+
+		private Duration timeToLive = Duration.ofMinutes(10);
+
+		private long maximumSize = 1000;
+
+	}
+
+	@Getter
+	@Setter
+	public static class Snapshot {
+
+		/**
+		 * Simple names of the entities whose state is hashed when read, so that saving them
+		 * back unchanged skips their subtree.
+		 */
+		private Set<String> entities = new HashSet<>();
+
+		private Duration timeToLive = Duration.ofMinutes(30);
+
+		private long maximumSize = 100000;
+
+	}
+
+	@Getter
+	@Setter
+	public static class Async {
+
+		/**
+		 * Number of threads running the asynchronous repository operations.
+		 */
+		private int poolSize = 10;
+
+		private String threadNamePrefix = "spine-data-jpa-async-";
+
+	}
+
+	@Getter
+	@Setter
+	public static class Replica {
+
+		private boolean enabled = false;
+
+		/**
+		 * Name of the data source bean whose read-only transactions are routed.
+		 */
+		private String primaryBeanName = "dataSource";
+
+		private String url;
+
+		private String username;
+
+		private String password;
+
+		private String driverClassName;
+
+		private Duration maxLag = Duration.ofSeconds(5);
+
+		/**
+		 * Query returning the replica lag in seconds, e.g. on PostgreSQL
+		 * {@code select extract(epoch from now() - pg_last_xact_replay_timestamp())}. Without
+		 * it the replica is not checked.
+		 */
+		private String lagQuery;
+
+		private Duration lagCheckInterval = Duration.ofSeconds(1);
+
+		/**
+		 * Time a thread reads from the primary after committing a write.
+		 */
+		private Duration pinDuration = Duration.ofSeconds(5);
+
+	}
+
 }
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.model;
+
+import java.util.Collections;
+import java.util.List;
+
+import jakarta.persistence.AttributeNode;
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.Subgraph;
+import jakarta.persistence.metamodel.Attribute;
+import lombok.Getter;
+
+/**
+ * Read-only entity graph parsed from an expand expression, carrying the fetch joins that
+ * the query creation replays instead of walking the graph again.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+public final class CompiledEntityGraph<T> implements EntityGraph<T> {
+
+	private static final String READ_ONLY_MESSAGE = "Compiled entity graphs are read-only";
+
+	@Getter
+	private final EntityGraph<T> entityGraph;
+
+	@Getter
+	private final List<FetchJoin> fetchJoins;
+
+	@Getter
+	private final boolean collectionFetch;
+
+	public CompiledEntityGraph(EntityGraph<T> entityGraph, List<FetchJoin> fetchJoins) {
+		this.entityGraph = entityGraph;
+		this.fetchJoins = Collections.unmodifiableList(fetchJoins);
+		this.collectionFetch = fetchJoins.stream().anyMatch(FetchJoin::isCollection);
+	}
+
+	@Override
+	public String getName() {
+		return this.entityGraph.getName();
+	}
+
+	@Override
+	public List<AttributeNode<?>> getAttributeNodes() {
+		return Collections.unmodifiableList(this.entityGraph.getAttributeNodes());
+	}
+
+	@Override
+	public void addAttributeNodes(String... attributeName) {
+		throw new UnsupportedOperationException(READ_ONLY_MESSAGE);
+	}
+
+	@Override
+	public void addAttributeNodes(Attribute<T, ?>... attribute) {
+		throw new UnsupportedOperationException(READ_ONLY_MESSAGE);
+	}
+
+	@Override
+	public <X> Subgraph<X> addSubgraph(Attribute<T, X> attribute) {
+		throw new UnsupportedOperationException(READ_ONLY_MESSAGE);
+	}
+
+	@Override
+	public <X> Subgraph<? extends X> addSubgraph(Attribute<T, X> attribute, Class<? extends X> type) {
+		throw new UnsupportedOperationException(READ_ONLY_MESSAGE);
+	}
+
+	@Override
+	public <X> Subgraph<X> addSubgraph(String attributeName) {
+		throw new UnsupportedOperationException(READ_ONLY_MESSAGE);
+	}
+
+	@Override
+	public <X> Subgraph<X> addSubgraph(String attributeName, Class<X> type) {
+		throw new UnsupportedOperationException(READ_ONLY_MESSAGE);
+	}
+
+	@Override
+	public <X> Subgraph<X> addKeySubgraph(Attribute<T, X> attribute) {
+		throw new UnsupportedOperationException(READ_ONLY_MESSAGE);
+	}
+
+	@Override
+	public <X> Subgraph<? extends X> addKeySubgraph(Attribute<T, X> attribute, Class<? extends X> type) {
+		throw new UnsupportedOperationException(READ_ONLY_MESSAGE);
+	}
+
+	@Override
+	public <X> Subgraph<X> addKeySubgraph(String attributeName) {
+		throw new UnsupportedOperationException(READ_ONLY_MESSAGE);
+	}
+
+	@Override
+	public <X> Subgraph<X> addKeySubgraph(String attributeName, Class<X> type) {
+		throw new UnsupportedOperationException(READ_ONLY_MESSAGE);
+	}
+
+	@Override
+	public <T1> Subgraph<? extends T1> addSubclassSubgraph(Class<? extends T1> type) {
+		throw new UnsupportedOperationException(READ_ONLY_MESSAGE);
+	}
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.model;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.hibernate.envers.RevisionNumber;
+import org.hibernate.envers.RevisionTimestamp;
+
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToMany;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.metamodel.Attribute.PersistentAttributeType;
+import lombok.Getter;
+import tech.go9.spine.core.api.util.ReflectionUtils;
+
+/**
+ * Immutable description of an entity class, built once so that deep loads and saves
+ * don't scan fields or annotations for each entity they visit.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+@Getter
+public final class EntityDescriptor {
+
+	private final Class<?> entityClazz;
+
+	private final Field idField;
+
+	private final List<RelationDescriptor> oneToManyRelations;
+
+	private final List<RelationDescriptor> manyToManyRelations;
+
+	private final List<RelationDescriptor> oneToOneRelations;
+
+	private final List<RelationDescriptor> manyToOneRelations;
+
+	private final List<Field> nonRelationalFields;
+
+	private final Map<String, Field> nonRelationalFieldMap;
+
+	private final Map<Field, RelationDescriptor> relationMap;
+
+	/**
+	 * Fields of the revision number and timestamp, for Envers revision entities only.
+	 */
+	private final Field revisionNumberField;
+
+	private final Field revisionTimestampField;
+
+	private EntityDescriptor(Class<?> entityClazz) {
+		this.entityClazz = entityClazz;
+		Field foundIdField = null;
+		List<RelationDescriptor> oneToMany = new ArrayList<>();
+		List<RelationDescriptor> manyToMany = new ArrayList<>();
+		List<RelationDescriptor> oneToOne = new ArrayList<>();
+		List<RelationDescriptor> manyToOne = new ArrayList<>();
+		List<Field> nonRelational = new ArrayList<>();
+		Map<Field, RelationDescriptor> relations = new HashMap<>();
+		Field foundRevisionNumberField = null;
+		Field foundRevisionTimestampField = null;
+		for (Field field : ReflectionUtils.fildAllFields(entityClazz).values()) {
+			if (Modifier.isStatic(field.getModifiers())) {
+				continue;
+			}
+			if (field.isAnnotationPresent(RevisionNumber.class)) {
+				foundRevisionNumberField = field;
+			}
+			else if (field.isAnnotationPresent(RevisionTimestamp.class)) {
+				foundRevisionTimestampField = field;
+			}
+			RelationDescriptor relation = createRelation(entityClazz, field);
+			if (relation != null) {
+				relations.put(field, relation);
+				switch (relation.getType()) {
+					case ONE_TO_MANY:
+						oneToMany.add(relation);
+						break;
+					case MANY_TO_MANY:
+						manyToMany.add(relation);
+						break;
+					case ONE_TO_ONE:
+						oneToOne.add(relation);
+						break;
+					default:
+						manyToOne.add(relation);
+						break;
+				}
+			}
+			else if (field.isAnnotationPresent(Id.class)) {
+				foundIdField = foundIdField == null ? field : foundIdField;
+			}
+			else {
+				nonRelational.add(field);
+			}
+		}
+		this.idField = foundIdField;
+		this.oneToManyRelations = Collections.unmodifiableList(oneToMany);
+		this.manyToManyRelations = Collections.unmodifiableList(manyToMany);
+		this.oneToOneRelations = Collections.unmodifiableList(oneToOne);
+		this.manyToOneRelations = Collections.unmodifiableList(manyToOne);
+		this.nonRelationalFields = Collections.unmodifiableList(nonRelational);
+		Map<String, Field> nonRelationalByName = new HashMap<>();
+		nonRelational.forEach(field -> nonRelationalByName.put(field.getName(), field));
+		this.nonRelationalFieldMap = Collections.unmodifiableMap(nonRelationalByName);
+		this.relationMap = Collections.unmodifiableMap(relations);
+		this.revisionNumberField = foundRevisionNumberField;
+		this.revisionTimestampField = foundRevisionTimestampField;
+	}
+
+	public static EntityDescriptor of(Class<?> entityClazz) {
+		return new EntityDescriptor(entityClazz);
+	}
+
+	public Optional<RelationDescriptor> getRelation(Field field) {
+		return Optional.ofNullable(this.relationMap.get(field));
+	}
+
+	public Collection<RelationDescriptor> getRelations() {
+		return this.relationMap.values();
+	}
+
+	private static RelationDescriptor createRelation(Class<?> entityClazz, Field field) {
+		OneToMany oneToMany = field.getAnnotation(OneToMany.class);
+		if (oneToMany != null) {
+			Class<?> targetClazz = oneToMany.targetEntity() == void.class ? ReflectionUtils.getCollectionType(field)
+					: oneToMany.targetEntity();
+			return new RelationDescriptor(field, PersistentAttributeType.ONE_TO_MANY, oneToMany.cascade(),
+					findMappedByField(targetClazz, oneToMany.mappedBy()));
+		}
+		ManyToMany manyToMany = field.getAnnotation(ManyToMany.class);
+		if (manyToMany != null) {
+			return new RelationDescriptor(field, PersistentAttributeType.MANY_TO_MANY, manyToMany.cascade(),
+					Optional.empty());
+		}
+		OneToOne oneToOne = field.getAnnotation(OneToOne.class);
+		if (oneToOne != null) {
+			Class<?> targetClazz = oneToOne.targetEntity() == void.class ? field.getType() : oneToOne.targetEntity();
+			return new RelationDescriptor(field, PersistentAttributeType.ONE_TO_ONE, oneToOne.cascade(),
+					findMappedByField(targetClazz, oneToOne.mappedBy()));
+		}
+		ManyToOne manyToOne = field.getAnnotation(ManyToOne.class);
+		if (manyToOne != null) {
+			Class<?> targetClazz = manyToOne.targetEntity() == void.class ? field.getType()
+					: manyToOne.targetEntity();
+			return new RelationDescriptor(field, PersistentAttributeType.MANY_TO_ONE, manyToOne.cascade(),
+					isMappedBack(entityClazz, field, targetClazz) ? Optional.of(field) : Optional.empty());
+		}
+		return null;
+	}
+
+	private static Optional<Field> findMappedByField(Class<?> targetClazz, String mappedBy) {
+		if (mappedBy.isBlank()) {
+			return Optional.empty();
+		}
+		return Optional.ofNullable(ReflectionUtils.findField(targetClazz, mappedBy));
+	}
+
+	private static boolean isMappedBack(Class<?> entityClazz, Field field, Class<?> targetClazz) {
+		for (Field targetField : ReflectionUtils.fildAllFields(targetClazz).values()) {
+			OneToMany oneToMany = targetField.getAnnotation(OneToMany.class);
+			if (oneToMany != null && Collection.class.isAssignableFrom(targetField.getType())
+					&& ReflectionUtils.getCollectionType(targetField).equals(entityClazz)
+					&& field.getName().equals(oneToMany.mappedBy())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
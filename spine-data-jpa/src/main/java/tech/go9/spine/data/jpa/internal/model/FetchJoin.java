@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.model;
+
+import com.querydsl.core.types.CollectionExpression;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Path;
+import com.querydsl.jpa.JPQLQuery;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Immutable left fetch join of an entity graph attribute, built once and replayed on
+ * every query that expands it.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+@Getter
+@AllArgsConstructor
+public final class FetchJoin {
+
+	private final EntityPath<?> entityPath;
+
+	private final CollectionExpression<?, ?> collectionExpression;
+
+	private final Path<?> alias;
+
+	private final Class<?> attributeType;
+
+	public boolean isCollection() {
+		return this.collectionExpression != null;
+	}
+
+	public void apply(JPQLQuery<?> jpqlQuery) {
+		this.join(jpqlQuery).fetchJoin();
+	}
+
+	/*
+	 * The same left join without fetching, as subqueries can't fetch
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public JPQLQuery<?> join(JPQLQuery<?> jpqlQuery) {
+		if (this.isCollection()) {
+			return jpqlQuery.leftJoin((CollectionExpression) this.collectionExpression, (Path) this.alias);
+		}
+		return jpqlQuery.leftJoin((EntityPath) this.entityPath, (Path) this.alias);
+	}
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.model;
+
+import java.util.Map;
+
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.ParamExpression;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Query metadata with its constants replaced by parameters, along with the values to bind
+ * to them on this execution.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+@Getter
+@AllArgsConstructor
+public final class ParameterizedQuery {
+
+	private final QueryMetadata metadata;
+
+	private final Map<ParamExpression<?>, Object> params;
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.model;
+
+import java.util.Collections;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Serialized JPQL of a query shape and the ordered constants to bind to its positional
+ * parameters, where replaced constants are kept as {@link com.querydsl.core.types.dsl.Param}
+ * placeholders resolved on each execution.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+@Getter
+public final class QueryShape {
+
+	private final String jpql;
+
+	private final List<Object> constants;
+
+	public QueryShape(String jpql, List<Object> constants) {
+		this.jpql = jpql;
+		this.constants = Collections.unmodifiableList(constants);
+	}
+
+}
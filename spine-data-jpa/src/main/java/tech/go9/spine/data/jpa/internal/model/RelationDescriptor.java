@@ -0,0 +1,70 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.model;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+import jakarta.persistence.CascadeType;
+import jakarta.persistence.metamodel.Attribute.PersistentAttributeType;
+import lombok.Getter;
+
+/**
+ * Immutable description of a relation field of an entity, with its cascades and the field
+ * that keeps the other side of a bidirectional relation in sync.
+ *
+ * @since 1.0.0
+ * @author thiago.assis
+ */
+@Getter
+public final class RelationDescriptor {
+
+	private final Field field;
+
+	private final PersistentAttributeType type;
+
+	private final Set<CascadeType> cascades;
+
+	/**
+	 * For to-many and one-to-one relations, the field of the target entity named by
+	 * {@code mappedBy}. For many-to-one relations, the relation field itself, present only
+	 * when the target entity maps it back through a {@code mappedBy} collection.
+	 */
+	private final Optional<Field> mappedByField;
+
+	RelationDescriptor(Field field, PersistentAttributeType type, CascadeType[] cascades,
+			Optional<Field> mappedByField) {
+		this.field = field;
+		this.type = type;
+		this.cascades = cascades.length == 0 ? Collections.emptySet()
+				: Collections.unmodifiableSet(EnumSet.copyOf(Arrays.asList(cascades)));
+		this.mappedByField = mappedByField;
+	}
+
+	public boolean isCollection() {
+		return this.type == PersistentAttributeType.ONE_TO_MANY || this.type == PersistentAttributeType.MANY_TO_MANY;
+	}
+
+	public boolean hasAnyCascade(Collection<CascadeType> cascadeTypes) {
+		return cascadeTypes.stream().anyMatch(this.cascades::contains);
+	}
+
+}
@@ -16,61 +16,150 @@
 package tech.go9.spine.data.jpa.internal.repository;
 
 import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
 import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.hibernate.Session;
+import org.hibernate.StaleStateException;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
 import org.hibernate.envers.AuditReader;
 import org.hibernate.envers.AuditReaderFactory;
+import org.hibernate.envers.Audited;
 import org.hibernate.envers.CrossTypeRevisionChangesReader;
 import org.hibernate.envers.RevisionType;
+import org.hibernate.envers.exception.RevisionDoesNotExistException;
+import org.hibernate.envers.query.AuditEntity;
+import org.hibernate.envers.query.AuditQuery;
+import org.hibernate.envers.query.criteria.AuditCriterion;
+import org.hibernate.envers.query.criteria.AuditDisjunction;
+import org.hibernate.exception.LockAcquisitionException;
+import org.hibernate.graph.internal.AttributeNodeImpl;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.annotation.LastModifiedBy;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.auditing.AuditingHandler;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.jpa.repository.support.Querydsl;
 import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
 import org.springframework.data.querydsl.EntityPathResolver;
 import org.springframework.data.querydsl.SimpleEntityPathResolver;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.lang.Nullable;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
 import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.ExpressionUtils;
 import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberPath;
 import com.querydsl.core.types.dsl.PathBuilder;
 import com.querydsl.core.types.dsl.SimplePath;
 import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.impl.JPADeleteClause;
 import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUpdateClause;
 
+import jakarta.persistence.AttributeNode;
+import jakarta.persistence.CascadeType;
 import jakarta.persistence.EntityGraph;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PessimisticLockException;
+import jakarta.persistence.Subgraph;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.Version;
 import lombok.extern.slf4j.Slf4j;
+import tech.go9.spine.core.api.domain.AsOf;
+import tech.go9.spine.core.api.domain.CountStrategy;
+import tech.go9.spine.core.api.domain.KeysetPage;
+import tech.go9.spine.core.api.domain.KeysetPageable;
+import tech.go9.spine.core.api.domain.Selection;
+import tech.go9.spine.core.api.exception.MultipleException;
 import tech.go9.spine.core.api.exception.UnexpectedException;
+import tech.go9.spine.core.api.util.ApplicationContextUtils;
+import tech.go9.spine.core.api.util.ReflectionUtils;
+import tech.go9.spine.data.jpa.api.domain.EntityRevision;
 import tech.go9.spine.data.jpa.api.repository.GenericRepository;
 import tech.go9.spine.data.jpa.api.usecase.CreateJPQLQuery;
 import tech.go9.spine.data.jpa.api.usecase.LoadEntity;
 import tech.go9.spine.data.jpa.api.usecase.ParseEntityGraph;
+import tech.go9.spine.data.jpa.internal.component.AsyncRepositoryExecutor;
+import tech.go9.spine.data.jpa.internal.component.CountCache;
 import tech.go9.spine.data.jpa.internal.component.DefaultEntitySecurityManager;
+import tech.go9.spine.data.jpa.internal.component.EntityCache;
+import tech.go9.spine.data.jpa.internal.component.EntityGraphCache;
+import tech.go9.spine.data.jpa.internal.component.EntityScroller;
+import tech.go9.spine.data.jpa.internal.component.EntitySnapshotCache;
+import tech.go9.spine.data.jpa.internal.component.EntityUpserter;
+import tech.go9.spine.data.jpa.internal.component.KeysetPaginator;
+import tech.go9.spine.data.jpa.internal.component.ResultCache;
+import tech.go9.spine.data.jpa.internal.component.RowCountEstimator;
+import tech.go9.spine.data.jpa.internal.component.SelectionProjector;
+import tech.go9.spine.data.jpa.internal.component.TenancyEntityListener;
+import tech.go9.spine.data.jpa.internal.configuration.SpineDataJpaProperties;
+import tech.go9.spine.data.jpa.internal.configuration.SpineDataJpaProperties.Scroll;
+import tech.go9.spine.data.jpa.internal.model.CompiledEntityGraph;
 import tech.go9.spine.data.jpa.internal.model.OperationType;
 import tech.go9.spine.data.jpa.internal.usecase.DefaultCreateJPQLQuery;
 import tech.go9.spine.data.jpa.internal.usecase.DefaultLoadEntity;
 import tech.go9.spine.data.jpa.internal.usecase.DefaultParseEntityGraph;
+import tech.go9.spine.data.jpa.internal.util.AuditCriterionUtils;
+import tech.go9.spine.data.jpa.internal.util.EntityTenancyFilterUtils;
 import tech.go9.spine.data.jpa.internal.util.EntityUtils;
+import tech.go9.spine.data.jpa.internal.util.FetchJoinUtils;
 import tech.go9.spine.data.jpa.internal.util.QuerydslUtils;
+import tech.go9.spine.data.jpa.internal.util.RevisionUtils;
 
 @Slf4j
 public class DefaultGenericRepository<T extends Serializable, I extends Serializable> extends SimpleJpaRepository<T, I>
 		implements GenericRepository<T, I> {
 
+	private static final List<CascadeType> REMOVE_CASCADE_TYPES = List.of(CascadeType.ALL, CascadeType.REMOVE);
+
+	private static final int DEFAULT_CHUNK_SIZE = 500;
+
+	private static final int MAX_CHUNK_ATTEMPTS = 3;
+
+	private static final String REVISION_PROPERTY_NAME = "revision";
+
 	private final JpaEntityInformation<T, I> entityInformation;
 
 	private final EntityManager entityManager;
@@ -89,10 +178,21 @@ public class DefaultGenericRepository<T extends Serializable, I extends Serializ
 
 	private final LoadEntity<T, I> entityLoader;
 
+	private final KeysetPaginator<T> keysetPaginator;
+
+	private final RowCountEstimator<T> rowCountEstimator;
+
+	private final EntityUpserter<T> entityUpserter;
+
+	private final EntityScroller entityScroller;
+
+	private final SelectionProjector<T> selectionProjector;
+
 	public DefaultGenericRepository(JpaEntityInformation<T, I> entityInformation, EntityManager entityManager) {
 		super(entityInformation, entityManager);
 		this.entityInformation = entityInformation;
 		this.entityManager = entityManager;
+		EntityUtils.initialize(this.entityManager.getMetamodel());
 		EntityPathResolver entityPathResolver = SimpleEntityPathResolver.INSTANCE;
 		EntityPath<T> entityPath = entityPathResolver.createPath(this.entityInformation.getJavaType());
 		this.pathBuilder = new PathBuilder<>(entityPath.getType(), entityPath.getMetadata());
@@ -102,6 +202,11 @@ public class DefaultGenericRepository<T extends Serializable, I extends Serializ
 		this.createJPQLQuery = new DefaultCreateJPQLQuery<>(this.entityManager, entityPath, querydsl);
 		this.entityGraphParser = new DefaultParseEntityGraph();
 		this.entityLoader = new DefaultLoadEntity<>(this.entityManager, new DefaultEntitySecurityManager());
+		this.keysetPaginator = new KeysetPaginator<>(this.entityInformation, this.pathBuilder);
+		this.rowCountEstimator = new RowCountEstimator<>(this.entityManager, this.entityInformation.getJavaType());
+		this.entityUpserter = new EntityUpserter<>(this.entityManager, this.entityInformation.getJavaType());
+		this.entityScroller = new EntityScroller(this.entityManager);
+		this.selectionProjector = new SelectionProjector<>(this.entityInformation.getJavaType(), this.pathBuilder);
 	}
 
 	@Override
@@ -118,6 +223,182 @@ public class DefaultGenericRepository<T extends Serializable, I extends Serializ
 		return entities.map(entity -> this.saveOne(entity, loadEntities));
 	}
 
+	@Override
+	@Transactional
+	public void saveAll(final Stream<T> entities, final Consumer<List<T>> chunkConsumer) {
+		Assert.notNull(entities, "Entities must not be null!");
+		Assert.notNull(chunkConsumer, "ChunkConsumer must not be null!");
+		int chunkSize = ApplicationContextUtils.getBean(SpineDataJpaProperties.class)
+				.map(properties -> properties.getBulk().getChunkSize())
+				.orElse(DEFAULT_CHUNK_SIZE);
+		Session session = this.entityManager.unwrap(Session.class);
+		Integer jdbcBatchSize = session.getJdbcBatchSize();
+		session.setJdbcBatchSize(chunkSize);
+		try {
+			Iterators.partition(entities.iterator(), chunkSize).forEachRemaining(chunk -> {
+				List<T> savedEntities = this.saveChunk(chunk);
+				this.entityManager.flush();
+				this.entityManager.clear();
+				chunkConsumer.accept(savedEntities);
+			});
+		}
+		finally {
+			session.setJdbcBatchSize(jdbcBatchSize);
+		}
+	}
+
+	@Override
+	@Transactional
+	public long upsertAll(final Stream<T> entities, final List<? extends Path<?>> conflictKeys) {
+		Assert.notNull(entities, "Entities must not be null!");
+		Assert.notEmpty(conflictKeys, "ConflictKeys must not be empty!");
+		Class<T> clazz = this.entityInformation.getJavaType();
+		List<Field> conflictFields = conflictKeys.stream().map(this::getAssignmentField).collect(Collectors.toList());
+		List<String> conflictAttributeNames = conflictFields.stream().map(Field::getName).collect(Collectors.toList());
+		boolean idConflictKey = conflictFields.equals(List.of(EntityUtils.getIdField(clazz)));
+		int chunkSize = ApplicationContextUtils.getBean(SpineDataJpaProperties.class)
+				.map(properties -> properties.getBulk().getChunkSize())
+				.orElse(DEFAULT_CHUNK_SIZE);
+		Optional<Predicate> savePredicate = EntityTenancyFilterUtils.getSavePredicate(clazz);
+		TenancyEntityListener tenancyEntityListener = new TenancyEntityListener();
+		Optional<AuditingHandler> auditingHandler = ApplicationContextUtils.getBean(AuditingHandler.class);
+		this.entityManager.flush();
+		long count = 0;
+		for (Iterator<List<T>> chunks = Iterators.partition(entities.iterator(), chunkSize); chunks.hasNext();) {
+			List<T> chunk = chunks.next();
+			List<T> keyedEntities = this.getKeyedEntities(chunk, conflictFields, idConflictKey);
+			Map<List<Object>, Object> existingIds = this.findUpsertRows(keyedEntities, conflictFields, Optional.empty())
+					.stream()
+					.collect(Collectors.toMap(row -> this.getKeyValues(row, conflictFields), this::getIdValue));
+			Set<List<Object>> excludedKeys = existingIds.isEmpty() || savePredicate.isEmpty() ? Set.of()
+					: this.findUpsertRows(keyedEntities, conflictFields, savePredicate.map(Predicate::not))
+							.stream()
+							.map(row -> this.getKeyValues(row, conflictFields))
+							.collect(Collectors.toSet());
+			List<T> upsertedEntities = new ArrayList<>(chunk.size());
+			List<Object> upsertedIds = new ArrayList<>(chunk.size());
+			for (T entity : chunk) {
+				List<Object> keyValues = this.getKeyValues(entity, conflictFields);
+				if (excludedKeys.contains(keyValues)) {
+					continue;
+				}
+				Object existingId = existingIds.get(keyValues);
+				tenancyEntityListener.touchForCreate(entity);
+				if (existingId == null) {
+					auditingHandler.ifPresent(handler -> handler.markCreated(entity));
+				}
+				else {
+					auditingHandler.ifPresent(handler -> handler.markModified(entity));
+				}
+				upsertedEntities.add(entity);
+				upsertedIds.add(existingId);
+			}
+			if (upsertedEntities.size() < chunk.size()) {
+				log.debug("Skipping {} upserts of {} excluded by the save predicate",
+						chunk.size() - upsertedEntities.size(), clazz.getName());
+			}
+			count += this.entityUpserter.execute(upsertedEntities, upsertedIds, conflictAttributeNames);
+			this.entityManager.clear();
+		}
+		log.debug("Upserted {} rows of {}", count, clazz.getName());
+		this.invalidateQueries();
+		this.invalidateEntities(null);
+		return count;
+	}
+
+	/*
+	 * Not transactional, every chunk is saved and committed by a worker in a transaction of
+	 * its own. The number of chunks in flight is bounded, so the stream is read as workers
+	 * free up instead of being buffered whole. If the stream fails, the chunks in flight are
+	 * awaited so none commits after the caller has returned. On interruption the chunks not
+	 * yet started are cancelled, while running ones still commit
+	 */
+	@Override
+	public List<T> saveAllParallel(final Stream<T> entities, final int parallelism, final int chunkSize) {
+		Assert.notNull(entities, "Entities must not be null!");
+		Assert.isTrue(parallelism > 0, "Parallelism must be greater than zero!");
+		Assert.isTrue(chunkSize > 0, "ChunkSize must be greater than zero!");
+		AsyncRepositoryExecutor asyncRepositoryExecutor = this.getAsyncRepositoryExecutor();
+		Semaphore semaphore = new Semaphore(parallelism);
+		List<CompletableFuture<List<T>>> futures = new ArrayList<>();
+		try {
+			for (Iterator<List<T>> chunks = Iterators.partition(entities.iterator(), chunkSize); chunks.hasNext();) {
+				List<T> chunk = chunks.next();
+				semaphore.acquire();
+				futures.add(asyncRepositoryExecutor
+						.submit(() -> this.saveParallelChunk(chunk), MAX_CHUNK_ATTEMPTS,
+								DefaultGenericRepository::isRetryable)
+						.whenComplete((savedEntities, throwable) -> semaphore.release()));
+			}
+		}
+		catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			futures.forEach(future -> future.cancel(true));
+			throw new UnexpectedException("Interrupted while saving %s in parallel", exception,
+					this.entityInformation.getJavaType().getName());
+		}
+		catch (RuntimeException exception) {
+			futures.forEach(future -> future.handle((savedEntities, throwable) -> savedEntities).join());
+			throw exception;
+		}
+		List<T> savedEntities = new ArrayList<>();
+		MultipleException multipleException = new MultipleException();
+		for (CompletableFuture<List<T>> future : futures) {
+			try {
+				savedEntities.addAll(future.join());
+			}
+			catch (CompletionException exception) {
+				multipleException.add(exception.getCause());
+			}
+		}
+		if (!multipleException.getThrowables().isEmpty()) {
+			log.warn("Saving {} in parallel failed for {} of {} chunks", this.entityInformation.getJavaType().getName(),
+					multipleException.getThrowables().size(), futures.size());
+			throw multipleException;
+		}
+		return savedEntities;
+	}
+
+	/*
+	 * The stateless session shares the connection of the transaction. It fires no entity
+	 * callbacks, so the tenancy field and the auditing columns are set here. Envers is
+	 * bypassed as well, so audited entities are rejected
+	 */
+	@Override
+	@Transactional
+	public long insertAll(final Stream<T> entities) {
+		Assert.notNull(entities, "Entities must not be null!");
+		Class<T> clazz = this.entityInformation.getJavaType();
+		if (clazz.isAnnotationPresent(Audited.class)) {
+			throw new UnexpectedException("Stateless inserts are not supported for audited %s", clazz.getName());
+		}
+		int batchSize = ApplicationContextUtils.getBean(SpineDataJpaProperties.class)
+				.map(properties -> properties.getBulk().getChunkSize())
+				.orElse(DEFAULT_CHUNK_SIZE);
+		Session session = this.entityManager.unwrap(Session.class);
+		session.flush();
+		TenancyEntityListener tenancyEntityListener = new TenancyEntityListener();
+		Optional<AuditingHandler> auditingHandler = ApplicationContextUtils.getBean(AuditingHandler.class);
+		long count = session.doReturningWork(connection -> {
+			try (StatelessSession statelessSession = session.getSessionFactory().openStatelessSession(connection)) {
+				statelessSession.setJdbcBatchSize(batchSize);
+				long inserted = 0;
+				for (Iterator<T> iterator = entities.iterator(); iterator.hasNext(); inserted++) {
+					T entity = iterator.next();
+					Assert.isTrue(this.entityInformation.isNew(entity), "Entities must be new!");
+					tenancyEntityListener.touchForCreate(entity);
+					auditingHandler.ifPresent(handler -> handler.markCreated(entity));
+					statelessSession.insert(entity);
+				}
+				executeBatch(statelessSession);
+				return inserted;
+			}
+		});
+		log.debug("Inserted {} rows of {}", count, clazz.getName());
+		this.invalidateQueries();
+		return count;
+	}
+
 	@Override
 	@Transactional
 	public T saveOne(T entity) {
@@ -144,6 +425,12 @@ public class DefaultGenericRepository<T extends Serializable, I extends Serializ
 		}
 	}
 
+	@Override
+	public CompletableFuture<T> saveOneAsync(final T entity) {
+		Assert.notNull(entity, "Entity must not be null!");
+		return this.getAsyncRepositoryExecutor().submit(() -> this.saveOne(entity), false);
+	}
+
 	@Override
 	public Stream<T> findAll(final Predicate predicate) {
 		Assert.notNull(predicate, "Predicate must not be null!");
@@ -177,6 +464,65 @@ public class DefaultGenericRepository<T extends Serializable, I extends Serializ
 		return jpqlQuery.stream();
 	}
 
+	@Override
+	public Stream<Map<String, Object>> findAll(final Selection selection, final Optional<Predicate> predicate) {
+		Assert.notNull(selection, "Selection must not be null!");
+		Assert.notNull(predicate, "Predicate must not be null!");
+		JPQLQuery<T> jpqlQuery = this.createJPQLQuery.execute(Optional.empty(), predicate, Optional.empty(), false);
+		return this.selectionProjector.project((JPAQuery<T>) jpqlQuery, selection)
+				.stream()
+				.map(tuple -> this.selectionProjector.toMap(tuple, selection));
+	}
+
+	@Override
+	public Page<Map<String, Object>> findAll(final Pageable pageable, final Selection selection,
+			final Optional<Predicate> predicate) {
+		Assert.notNull(pageable, "Pageable must not be null!");
+		Assert.notNull(selection, "Selection must not be null!");
+		Assert.notNull(predicate, "Predicate must not be null!");
+		JPQLQuery<T> jpqlQuery = this.createJPQLQuery.execute(Optional.of(pageable), predicate, Optional.empty(),
+				false);
+		List<Map<String, Object>> content = this.selectionProjector.project((JPAQuery<T>) jpqlQuery, selection)
+				.fetch()
+				.stream()
+				.map(tuple -> this.selectionProjector.toMap(tuple, selection))
+				.collect(Collectors.toList());
+		CountStrategy countStrategy = this.getDefaultCountStrategy();
+		return PageableExecutionUtils.getPage(content, pageable, this.createCounter(predicate,
+				countStrategy == CountStrategy.NONE ? CountStrategy.EXACT : countStrategy));
+	}
+
+	@Override
+	public Stream<T> scrollAll(final Predicate predicate) {
+		Assert.notNull(predicate, "Predicate must not be null!");
+		return this.scrollAll(Optional.of(predicate), Optional.empty());
+	}
+
+	@Override
+	public Stream<T> scrollAll(final String expand) {
+		Assert.notNull(expand, "GraphExpression must not be null!");
+		return this.scrollAll(Optional.empty(), Optional.of(expand));
+	}
+
+	@Override
+	public Stream<T> scrollAll(Optional<Predicate> predicate, Optional<String> expand) {
+		Assert.notNull(predicate, "Predicate must not be null!");
+		Assert.notNull(expand, "GraphExpression must not be null!");
+		Scroll scroll = ApplicationContextUtils.getBean(SpineDataJpaProperties.class)
+				.map(SpineDataJpaProperties::getScroll)
+				.orElseGet(Scroll::new);
+		Optional<EntityGraph<T>> entityGraph = parseEntityGraph(expand);
+		if (entityGraph.filter(this::hasCollectionAttributeNodes).isPresent()) {
+			JPQLQuery<T> jpqlQuery = this.createJPQLQuery.execute(Optional.empty(), predicate, Optional.empty(), false);
+			return this.entityScroller
+					.scrollChunks(((JPAQuery<T>) jpqlQuery).select(this.idPath), scroll.getFetchSize(),
+							scroll.getClearInterval())
+					.flatMap(ids -> this.hydrate(ids, entityGraph, true).stream());
+		}
+		JPQLQuery<T> jpqlQuery = this.createJPQLQuery.execute(Optional.empty(), predicate, entityGraph, false);
+		return this.entityScroller.scroll(jpqlQuery, scroll.getFetchSize(), scroll.getClearInterval());
+	}
+
 	@Override
 	public Page<T> findAll(final Pageable pageable) {
 		Assert.notNull(pageable, "Pageable must not be null!");
@@ -205,38 +551,135 @@ public class DefaultGenericRepository<T extends Serializable, I extends Serializ
 		return this.findAll(pageable, Optional.of(predicate), Optional.of(expand));
 	}
 
+	/*
+	 * A page always needs a total, so an entity configured with CountStrategy.NONE is
+	 * counted exactly here
+	 */
 	@Override
 	public Page<T> findAll(Pageable pageable, final Optional<Predicate> predicate, final Optional<String> expand) {
-		Optional<EntityGraph<T>> entityGraph = parseEntityGraph(expand);
-		JPQLQuery<T> countJpqlQuery = null;
-		JPQLQuery<T> mainJpqlQuery = this.createJPQLQuery.execute(Optional.of(pageable), predicate, entityGraph, false);
-		LongSupplier counter = null;
-
-		// and expand one collection - melhorar o if
-		if (expand.isPresent()) {
+		CountStrategy countStrategy = this.getDefaultCountStrategy();
+		Supplier<Page<T>> executor = () -> (Page<T>) this.findAll(pageable, predicate, expand,
+				Optional.of(countStrategy == CountStrategy.NONE ? CountStrategy.EXACT : countStrategy));
+		Class<T> clazz = this.entityInformation.getJavaType();
+		Optional<ResultCache> resultCache = ApplicationContextUtils.getBean(ResultCache.class);
+		if (resultCache.isEmpty() || !resultCache.get().isEnabled(clazz)) {
+			return executor.get();
+		}
+		Optional<EntityGraph<T>> entityGraph = this.parseEntityGraph(expand);
+		Set<Class<?>> joinedClazzes = this.getJoinedClazzes(predicate, entityGraph);
+		return resultCache.get()
+				.get(clazz, joinedClazzes, this.createResultCacheQuery(predicate, joinedClazzes), pageable,
+						expand.orElse(""), ids -> this.hydrate(ids, entityGraph), this.entityInformation::getId,
+						executor);
+	}
 
-			log.warn("Avoid use expand withou a real necesary predicate, this could present performance issues");
+	@Override
+	public CompletableFuture<Page<T>> findAllAsync(final Pageable pageable, final Optional<Predicate> predicate,
+			final Optional<String> expand) {
+		Assert.notNull(pageable, "Pageable must not be null!");
+		Assert.notNull(predicate, "Predicate must not be null!");
+		Assert.notNull(expand, "GraphExpression must not be null!");
+		return this.getAsyncRepositoryExecutor().submit(() -> this.findAll(pageable, predicate, expand), true);
+	}
 
-			countJpqlQuery = this.createJPQLQuery.execute(Optional.empty(), predicate, entityGraph, true);
-			List<?> queryResults = ((JPAQuery<T>) countJpqlQuery).select(this.idPath).distinct().fetch();
-			counter = () -> queryResults.size();
+	@Override
+	public Page<T> findAll(Pageable pageable, JPQLQuery<T> query) {
+		return PageableExecutionUtils.getPage(query.fetch(), pageable, query::fetchCount);
+	}
 
-			// transformar este in em subquery?
-			mainJpqlQuery.where(this.pathBuilder.get(this.idPath).in((Collection) queryResults));
+	@Override
+	public Slice<T> findAll(final Pageable pageable, final CountStrategy countStrategy) {
+		Assert.notNull(pageable, "Pageable must not be null!");
+		Assert.notNull(countStrategy, "CountStrategy must not be null!");
+		return this.findAll(pageable, Optional.empty(), Optional.empty(), Optional.of(countStrategy));
+	}
 
+	@Override
+	public Slice<T> findAll(Pageable pageable, final Optional<Predicate> predicate, final Optional<String> expand,
+			final Optional<CountStrategy> countStrategy) {
+		Assert.notNull(pageable, "Pageable must not be null!");
+		Assert.notNull(predicate, "Predicate must not be null!");
+		Assert.notNull(expand, "GraphExpression must not be null!");
+		Assert.notNull(countStrategy, "CountStrategy must not be null!");
+		CountStrategy resolvedCountStrategy = countStrategy.orElseGet(this::getDefaultCountStrategy);
+		boolean probeNext = resolvedCountStrategy == CountStrategy.NONE && pageable.isPaged();
+		Optional<EntityGraph<T>> entityGraph = parseEntityGraph(expand);
+		boolean twoPhases = entityGraph.filter(this::hasCollectionAttributeNodes).isPresent();
+		if (twoPhases) {
+			log.debug("Fetching {} page ids before hydrating collections",
+					this.entityInformation.getJavaType().getName());
 		}
-		else {
-
-			countJpqlQuery = this.createJPQLQuery.execute(Optional.of(pageable), predicate, entityGraph, true);
-			counter = countJpqlQuery::fetchCount;
+		Optional<Predicate> pagePredicate = this.mergePredicates(predicate,
+				entityGraph.flatMap(this::createJoinedTenancyPredicate));
+		Optional<CompletableFuture<Long>> concurrentCount = resolvedCountStrategy == CountStrategy.NONE
+				? Optional.empty() : this.submitCount(pagePredicate, resolvedCountStrategy);
+		JPQLQuery<T> jpqlQuery = this.createJPQLQuery.execute(Optional.of(pageable),
+				twoPhases ? pagePredicate : predicate, twoPhases ? Optional.empty() : entityGraph, false);
+		if (probeNext) {
+			jpqlQuery.limit(pageable.getPageSize() + 1L);
+		}
+		List<T> content = twoPhases ? this.hydrate(((JPAQuery<T>) jpqlQuery).select(this.idPath).fetch(), entityGraph)
+				: jpqlQuery.fetch();
+		if (resolvedCountStrategy == CountStrategy.NONE) {
+			return this.createSlice(content, pageable, probeNext);
+		}
+		if (concurrentCount.isEmpty()) {
+			return PageableExecutionUtils.getPage(content, pageable,
+					this.createCounter(pagePredicate, resolvedCountStrategy));
 		}
+		Page<T> page = PageableExecutionUtils.getPage(content, pageable, () -> this.join(concurrentCount.get()));
+		concurrentCount.get().cancel(false);
+		return page;
+	}
 
-		return PageableExecutionUtils.getPage(mainJpqlQuery.fetch(), pageable, counter);
+	@Override
+	public KeysetPage<T> findAll(final KeysetPageable keysetPageable) {
+		Assert.notNull(keysetPageable, "KeysetPageable must not be null!");
+		return this.findAll(keysetPageable, Optional.empty(), Optional.empty());
 	}
 
 	@Override
-	public Page<T> findAll(Pageable pageable, JPQLQuery<T> query) {
-		return PageableExecutionUtils.getPage(query.fetch(), pageable, query::fetchCount);
+	public KeysetPage<T> findAll(final KeysetPageable keysetPageable, final Predicate predicate) {
+		Assert.notNull(keysetPageable, "KeysetPageable must not be null!");
+		Assert.notNull(predicate, "Predicate must not be null!");
+		return this.findAll(keysetPageable, Optional.of(predicate), Optional.empty());
+	}
+
+	@Override
+	public KeysetPage<T> findAll(final KeysetPageable keysetPageable, final String expand) {
+		Assert.notNull(keysetPageable, "KeysetPageable must not be null!");
+		Assert.notNull(expand, "GraphExpression must not be null!");
+		return this.findAll(keysetPageable, Optional.empty(), Optional.of(expand));
+	}
+
+	@Override
+	public KeysetPage<T> findAll(final KeysetPageable keysetPageable, final Predicate predicate, final String expand) {
+		Assert.notNull(keysetPageable, "KeysetPageable must not be null!");
+		Assert.notNull(predicate, "Predicate must not be null!");
+		Assert.notNull(expand, "GraphExpression must not be null!");
+		return this.findAll(keysetPageable, Optional.of(predicate), Optional.of(expand));
+	}
+
+	@Override
+	public KeysetPage<T> findAll(KeysetPageable keysetPageable, final Optional<Predicate> predicate,
+			final Optional<String> expand) {
+		Assert.notNull(keysetPageable, "KeysetPageable must not be null!");
+		Assert.notNull(predicate, "Predicate must not be null!");
+		Assert.notNull(expand, "GraphExpression must not be null!");
+		Optional<Predicate> keysetPredicate = this.keysetPaginator.createPredicate(keysetPageable);
+		Optional<Predicate> mergedPredicate = mergePredicates(predicate, keysetPredicate);
+		Optional<EntityGraph<T>> entityGraph = parseEntityGraph(expand);
+		boolean twoPhases = entityGraph.filter(this::hasCollectionAttributeNodes).isPresent();
+		if (twoPhases) {
+			mergedPredicate = mergePredicates(mergedPredicate, entityGraph.flatMap(this::createJoinedTenancyPredicate));
+		}
+		JPQLQuery<T> jpqlQuery = this.createJPQLQuery.execute(Optional.empty(), mergedPredicate,
+				twoPhases ? Optional.empty() : entityGraph, false);
+		jpqlQuery.orderBy(this.keysetPaginator.createOrderSpecifiers(keysetPageable));
+		jpqlQuery.limit(keysetPageable.getPageSize() + 1L);
+		List<T> rows = twoPhases ? this.hydrate(((JPAQuery<T>) jpqlQuery).select(this.idPath).fetch(), entityGraph)
+				: new ArrayList<>(jpqlQuery.fetch());
+		return this.keysetPaginator.createPage(rows, keysetPageable);
 	}
 
 	@Override
@@ -268,6 +711,65 @@ public class DefaultGenericRepository<T extends Serializable, I extends Serializ
 
 	@Override
 	public Optional<T> findById(final I id, final Optional<Predicate> predicate, final Optional<String> expand) {
+		Class<T> clazz = this.entityInformation.getJavaType();
+		Optional<EntityCache> entityCache = this.getEntityCache();
+		Optional<T> entity;
+		if (entityCache.isPresent() && predicate.isEmpty()) {
+			entity = entityCache.get()
+					.get(clazz, id, this.getTenancyKey(parseEntityGraph(expand)), expand.orElse(""),
+							() -> this.fetchById(id, predicate, expand));
+		}
+		else {
+			entity = this.fetchById(id, predicate, expand);
+		}
+		entity.ifPresent(value -> this.recordSnapshots(List.of(value)));
+		return entity;
+	}
+
+	@Override
+	public CompletableFuture<Optional<T>> findByIdAsync(final I id) {
+		return this.findByIdAsync(id, Optional.empty());
+	}
+
+	@Override
+	public CompletableFuture<Optional<T>> findByIdAsync(final I id, final Optional<String> expand) {
+		Assert.notNull(id, "Id must not be null!");
+		Assert.notNull(expand, "GraphExpression must not be null!");
+		return this.getAsyncRepositoryExecutor().submit(() -> this.findById(id, Optional.empty(), expand), true);
+	}
+
+	/*
+	 * Entities served from the cache are detached, misses are loaded with a single query
+	 */
+	@Override
+	public List<T> findAllById(Iterable<I> ids) {
+		Assert.notNull(ids, "Ids must not be null!");
+		Optional<EntityCache> entityCache = this.getEntityCache();
+		if (entityCache.isEmpty()) {
+			return super.findAllById(ids);
+		}
+		Class<T> clazz = this.entityInformation.getJavaType();
+		String tenancyKey = this.getTenancyKey(Optional.empty());
+		List<T> entities = new ArrayList<>();
+		List<I> missingIds = new ArrayList<>();
+		for (I id : ids) {
+			entityCache.get()
+					.getIfPresent(clazz, id, tenancyKey, "")
+					.ifPresentOrElse(entities::add, () -> missingIds.add(id));
+		}
+		if (!missingIds.isEmpty()) {
+			Predicate idPredicate = Expressions.predicate(Ops.IN, this.idPath, Expressions.constant(missingIds));
+			this.createJPQLQuery.execute(Optional.empty(), Optional.of(idPredicate), Optional.empty(), false)
+					.fetch()
+					.forEach(entity -> {
+						entityCache.get().put(clazz, this.getIdValue(entity), tenancyKey, "", entity);
+						entities.add(entity);
+					});
+		}
+		return entities;
+	}
+
+	private Optional<T> fetchById(final I id, final Optional<Predicate> predicate, final Optional<String> expand) {
 		Predicate mergedPredicate = mergeToPredicate(id, predicate);
 		Optional<EntityGraph<T>> entityGraph = parseEntityGraph(expand);
 		JPQLQuery<T> jpqlQuery = this.createJPQLQuery.execute(Optional.empty(), Optional.of(mergedPredicate),
@@ -306,6 +808,23 @@ public class DefaultGenericRepository<T extends Serializable, I extends Serializ
 		return this.createJPQLQuery.execute(pageable, Optional.empty(), entityGraph, false);
 	}
 
+	/*
+	 * The inherited finders and counts build criteria queries, which the tenancy Hibernate
+	 * filters must reach too
+	 */
+	@Override
+	protected <S extends T> TypedQuery<S> getQuery(@Nullable Specification<S> spec, Class<S> domainClass,
+			Sort sort) {
+		EntityTenancyFilterUtils.enableHibernateFilters(this.entityManager);
+		return super.getQuery(spec, domainClass, sort);
+	}
+
+	@Override
+	protected <S extends T> TypedQuery<Long> getCountQuery(@Nullable Specification<S> spec, Class<S> domainClass) {
+		EntityTenancyFilterUtils.enableHibernateFilters(this.entityManager);
+		return super.getCountQuery(spec, domainClass);
+	}
+
 	@Override
 	@Transactional
 	public void deleteAll(final Stream<T> entities) {
@@ -322,6 +841,8 @@ public class DefaultGenericRepository<T extends Serializable, I extends Serializ
 		}
 		this.entityLoader.execute(entity, OperationType.DELETE).ifPresent(loadedEntity -> {
 			this.entityManager.remove(loadedEntity);
+			this.invalidateQueries();
+			this.invalidateEntities(this.getIdValue(loadedEntity));
 		});
 	}
 
@@ -331,9 +852,86 @@ public class DefaultGenericRepository<T extends Serializable, I extends Serializ
 		Assert.notNull(id, "Id must not be null!");
 		this.findById(id).ifPresent(loadedEntity -> {
 			this.entityManager.remove(loadedEntity);
+			this.invalidateQueries();
+			this.invalidateEntities(id);
 		});
 	}
 
+	@Override
+	@Transactional
+	public long deleteAll(final Predicate predicate) {
+		return this.deleteAll(predicate, false);
+	}
+
+	@Override
+	@Transactional
+	public long deleteAll(final Predicate predicate, final boolean chunked) {
+		Assert.notNull(predicate, "Predicate must not be null!");
+		Class<T> clazz = this.entityInformation.getJavaType();
+		Optional<Predicate> deletePredicate = this.mergePredicates(Optional.of(predicate),
+				EntityTenancyFilterUtils.getDeletePredicate(clazz));
+		long count = 0;
+		if (chunked) {
+			count = this.executeInChunks(deletePredicate, this.entityManager::remove);
+		}
+		else {
+			if (clazz.isAnnotationPresent(Audited.class) || EntityUtils.getDescriptor(clazz)
+					.getRelations()
+					.stream()
+					.anyMatch(relation -> relation.hasAnyCascade(REMOVE_CASCADE_TYPES))) {
+				log.warn("Bulk deleting {} skips its cascades and auditing, consider the chunked mode",
+						clazz.getName());
+			}
+			this.entityManager.flush();
+			count = new JPADeleteClause(this.entityManager, this.pathBuilder).where(deletePredicate.get()).execute();
+			this.entityManager.clear();
+		}
+		log.debug("Deleted {} rows of {}", count, clazz.getName());
+		this.invalidateQueries();
+		this.invalidateEntities(null);
+		return count;
+	}
+
+	@Override
+	@Transactional
+	public long updateAll(final Predicate predicate, final Map<? extends Path<?>, ?> assignments) {
+		return this.updateAll(predicate, assignments, false);
+	}
+
+	@Override
+	@Transactional
+	@SuppressWarnings("unchecked")
+	public long updateAll(final Predicate predicate, final Map<? extends Path<?>, ?> assignments,
+			final boolean chunked) {
+		Assert.notNull(predicate, "Predicate must not be null!");
+		Assert.notEmpty(assignments, "Assignments must not be empty!");
+		Class<T> clazz = this.entityInformation.getJavaType();
+		Optional<Predicate> savePredicate = this.mergePredicates(Optional.of(predicate),
+				EntityTenancyFilterUtils.getSavePredicate(clazz));
+		long count = 0;
+		if (chunked) {
+			Map<Field, Object> fieldAssignments = new LinkedHashMap<>();
+			assignments.forEach((path, value) -> fieldAssignments.put(this.getAssignmentField(path), value));
+			count = this.executeInChunks(savePredicate, entity -> fieldAssignments
+					.forEach((field, value) -> this.setFieldValue(entity, field, value)));
+		}
+		else {
+			if (clazz.isAnnotationPresent(Audited.class)) {
+				log.warn("Bulk updating {} skips its auditing, consider the chunked mode", clazz.getName());
+			}
+			this.entityManager.flush();
+			JPAUpdateClause updateClause = new JPAUpdateClause(this.entityManager, this.pathBuilder);
+			assignments.forEach((path, value) -> updateClause.set((Path<Object>) path, value));
+			this.touchBulkUpdate(updateClause, assignments.keySet());
+			count = updateClause.where(savePredicate.get()).execute();
+			this.entityManager.clear();
+		}
+		log.debug("Updated {} rows of {}", count, clazz.getName());
+		this.invalidateQueries();
+		this.invalidateEntities(null);
+		return count;
+	}
+
 	@Override
 	public void flush() {
 		this.entityManager.flush();
@@ -343,14 +941,47 @@ public class DefaultGenericRepository<T extends Serializable, I extends Serializ
 	public Map<Number, T> findAllRevisions(I id) {
 		Assert.notNull(id, "Id must not be null!");
 		return this.findById(id).map(entity -> {
-			AuditReader auditReader = AuditReaderFactory.get(this.entityManager);
 			Map<Number, T> revisions = new LinkedHashMap<>();
-			auditReader.getRevisions(this.entityInformation.getJavaType(), id).forEach(revision -> revisions
-					.put(revision, auditReader.find(this.entityInformation.getJavaType(), id, revision)));
+			this.createRevisionsQuery(id, Optional.empty(), Optional.empty(), Collections.emptySet())
+					.addOrder(AuditEntity.revisionNumber().asc())
+					.getResultList()
+					.forEach(row -> {
+						EntityRevision<T> entityRevision = RevisionUtils.createEntityRevision((Object[]) row);
+						revisions.put(entityRevision.getRevision(), entityRevision.getEntity());
+					});
 			return revisions;
 		}).orElseGet(HashMap::new);
 	}
 
+	@Override
+	@SuppressWarnings("unchecked")
+	public Page<EntityRevision<T>> findAllRevisions(final I id, final Pageable pageable,
+			final Optional<Number> fromRevision, final Optional<Number> toRevision,
+			final Set<String> changedProperties) {
+		Assert.notNull(id, "Id must not be null!");
+		Assert.notNull(pageable, "Pageable must not be null!");
+		Assert.notNull(fromRevision, "FromRevision must not be null!");
+		Assert.notNull(toRevision, "ToRevision must not be null!");
+		Assert.notNull(changedProperties, "ChangedProperties must not be null!");
+		if (this.findById(id).isEmpty()) {
+			return Page.empty(pageable);
+		}
+		AuditQuery auditQuery = this.createRevisionsQuery(id, fromRevision, toRevision, changedProperties);
+		Sort.Order order = pageable.getSort().getOrderFor(REVISION_PROPERTY_NAME);
+		auditQuery.addOrder(order != null && order.isDescending() ? AuditEntity.revisionNumber().desc()
+				: AuditEntity.revisionNumber().asc());
+		if (pageable.isPaged()) {
+			auditQuery.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+		}
+		List<EntityRevision<T>> content = ((List<Object[]>) auditQuery.getResultList()).stream()
+				.map(row -> RevisionUtils.<T>createEntityRevision(row))
+				.collect(Collectors.toList());
+		return PageableExecutionUtils.getPage(content, pageable,
+				() -> ((Number) this.createRevisionsQuery(id, fromRevision, toRevision, changedProperties)
+						.addProjection(AuditEntity.revisionNumber().count())
+						.getSingleResult()).longValue());
+	}
+
 	@Override
 	// TODO como aplicar segurança neste caso? somente para "administradores"?
 	public Map<RevisionType, List<Object>> findEntitiesGroupByRevisionType(Number revision) {
@@ -360,6 +991,81 @@ public class DefaultGenericRepository<T extends Serializable, I extends Serializ
 		return crossTypeRevisionChangesReader.findEntitiesGroupByRevisionType(revision);
 	}
 
+	@Override
+	@SuppressWarnings("unchecked")
+	public Page<T> findAllAsOf(final AsOf asOf, final Optional<Predicate> predicate, final Pageable pageable) {
+		Assert.notNull(asOf, "AsOf must not be null!");
+		Assert.notNull(predicate, "Predicate must not be null!");
+		Assert.notNull(pageable, "Pageable must not be null!");
+		AuditReader auditReader = AuditReaderFactory.get(this.entityManager);
+		Optional<Number> revision = this.findRevision(auditReader, asOf);
+		if (revision.isEmpty()) {
+			return Page.empty(pageable);
+		}
+		Class<T> clazz = this.entityInformation.getJavaType();
+		Optional<Predicate> tenancyPredicate = this.mergePredicates(
+				EntityTenancyFilterUtils.getRetrievePredicate(clazz), EntityTenancyFilterUtils.getFindPredicate(clazz));
+		Optional<AuditCriterion> auditCriterion = this.mergePredicates(predicate, tenancyPredicate)
+				.map(mergedPredicate -> AuditCriterionUtils.toAuditCriterion(clazz, mergedPredicate));
+		AuditQuery auditQuery = this.createAsOfQuery(auditReader, revision.get(), auditCriterion);
+		AuditCriterionUtils.toAuditOrders(clazz, pageable.getSort()).forEach(auditQuery::addOrder);
+		if (pageable.isPaged()) {
+			auditQuery.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+		}
+		return PageableExecutionUtils.getPage((List<T>) auditQuery.getResultList(), pageable,
+				() -> ((Number) this.createAsOfQuery(auditReader, revision.get(), auditCriterion)
+						.addProjection(AuditEntity.id().count())
+						.getSingleResult()).longValue());
+	}
+
+	/*
+	 * An instant before the first revision has nothing to read
+	 */
+	private Optional<Number> findRevision(AuditReader auditReader, AsOf asOf) {
+		if (asOf.getRevision().isPresent()) {
+			return asOf.getRevision();
+		}
+		try {
+			return Optional.of(auditReader.getRevisionNumberForDate(Date.from(asOf.getInstant().get())));
+		}
+		catch (RevisionDoesNotExistException exception) {
+			return Optional.empty();
+		}
+	}
+
+	/*
+	 * With the validity audit strategy the revision is matched against the revision range
+	 * of each audit row instead of a max revision subquery
+	 */
+	private AuditQuery createAsOfQuery(AuditReader auditReader, Number revision,
+			Optional<AuditCriterion> auditCriterion) {
+		AuditQuery auditQuery = auditReader.createQuery()
+				.forEntitiesAtRevision(this.entityInformation.getJavaType(), revision);
+		auditCriterion.ifPresent(auditQuery::add);
+		return auditQuery;
+	}
+
+	/*
+	 * Selects each revision snapshot together with its revision entity and type, so the
+	 * whole history is read in one query. Filtering by changed properties requires them to
+	 * be audited with modified flags
+	 */
+	private AuditQuery createRevisionsQuery(I id, Optional<Number> fromRevision, Optional<Number> toRevision,
+			Set<String> changedProperties) {
+		AuditQuery auditQuery = AuditReaderFactory.get(this.entityManager)
+				.createQuery()
+				.forRevisionsOfEntity(this.entityInformation.getJavaType(), false, true)
+				.add(AuditEntity.id().eq(id));
+		fromRevision.ifPresent(revision -> auditQuery.add(AuditEntity.revisionNumber().ge(revision)));
+		toRevision.ifPresent(revision -> auditQuery.add(AuditEntity.revisionNumber().le(revision)));
+		if (!changedProperties.isEmpty()) {
+			AuditDisjunction auditDisjunction = AuditEntity.disjunction();
+			changedProperties.forEach(property -> auditDisjunction.add(AuditEntity.property(property).hasChanged()));
+			auditQuery.add(auditDisjunction);
+		}
+		return auditQuery;
+	}
+
 	private Predicate mergeToPredicate(I id, Optional<Predicate> predicate) {
 		Predicate mergedPredicate = Expressions.predicate(Ops.EQ, this.idPath, Expressions.constant(id));
 		if (predicate.isPresent()) {
@@ -368,9 +1074,313 @@ public class DefaultGenericRepository<T extends Serializable, I extends Serializ
 		return mergedPredicate;
 	}
 
+	/*
+	 * Collection fetch joins can't be paginated by the database, so a sorted page of ids
+	 * is fetched first and only those ids are hydrated with the entity graph
+	 */
+	private List<T> hydrate(List<?> ids, Optional<EntityGraph<T>> entityGraph) {
+		return this.hydrate(ids, entityGraph, false);
+	}
+
+	private List<T> hydrate(List<?> ids, Optional<EntityGraph<T>> entityGraph, boolean readOnly) {
+		if (ids.isEmpty()) {
+			return new ArrayList<>();
+		}
+		Predicate idsPredicate = this.pathBuilder.get(this.idPath).in((Collection) ids);
+		JPQLQuery<T> jpqlQuery = this.createJPQLQuery.execute(Optional.empty(), Optional.of(idsPredicate), entityGraph,
+				false);
+		if (readOnly) {
+			((JPAQuery<T>) jpqlQuery).setHint(HibernateHints.HINT_READ_ONLY, true);
+		}
+		Map<Object, T> entities = new HashMap<>();
+		jpqlQuery.fetch().forEach(entity -> entities.putIfAbsent(this.entityInformation.getId(entity), entity));
+		List<T> content = ids.stream().map(entities::get).filter(Objects::nonNull).collect(Collectors.toList());
+		this.recordSnapshots(content);
+		return content;
+	}
+
+	private Slice<T> createSlice(List<T> content, Pageable pageable, boolean probeNext) {
+		boolean hasNext = probeNext && content.size() > pageable.getPageSize();
+		List<T> sliceContent = hasNext ? content.subList(0, pageable.getPageSize()) : content;
+		return new SliceImpl<>(sliceContent, pageable, hasNext);
+	}
+
+	/*
+	 * A separate transaction can't see changes not yet committed, so the count is only run
+	 * concurrently when there are none
+	 */
+	private Optional<CompletableFuture<Long>> submitCount(Optional<Predicate> predicate, CountStrategy countStrategy) {
+		boolean concurrent = ApplicationContextUtils.getBean(SpineDataJpaProperties.class)
+				.map(properties -> properties.getCount().isConcurrent())
+				.orElse(false);
+		if (!concurrent || (TransactionSynchronizationManager.isActualTransactionActive()
+				&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly())) {
+			return Optional.empty();
+		}
+		LongSupplier counter = this.createCounter(predicate, countStrategy);
+		return ApplicationContextUtils.getBean(AsyncRepositoryExecutor.class)
+				.flatMap(asyncRepositoryExecutor -> asyncRepositoryExecutor.trySubmit(counter::getAsLong, true));
+	}
+
+	private long join(CompletableFuture<Long> future) {
+		try {
+			return future.join();
+		}
+		catch (CompletionException exception) {
+			if (exception.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) exception.getCause();
+			}
+			throw exception;
+		}
+	}
+
+	private LongSupplier createCounter(Optional<Predicate> predicate, CountStrategy countStrategy) {
+		switch (countStrategy) {
+			case CACHED:
+				return () -> ApplicationContextUtils.getBean(CountCache.class)
+						.map(countCache -> countCache.get(this.entityInformation.getJavaType(),
+								this.createCountCacheQuery(predicate), () -> this.countDistinct(predicate)))
+						.orElseGet(() -> this.countDistinct(predicate));
+			case ESTIMATED:
+				return () -> this.estimateCount(predicate).orElseGet(() -> this.countDistinct(predicate));
+			default:
+				return () -> this.countDistinct(predicate);
+		}
+	}
+
+	/*
+	 * The tenancy of the read is part of the keys of cached pages and totals, so tenants
+	 * never share them. Pages also key the tenancy of the types they join
+	 */
+	private String createResultCacheQuery(Optional<Predicate> predicate, Set<Class<?>> joinedClazzes) {
+		return predicate.map(ResultCache::normalize).orElse("") + "|"
+				+ EntityTenancyFilterUtils.getTenancyFilterRegistry().getTenancyKey(joinedClazzes);
+	}
+
+	/*
+	 * As pages, totals are keyed by the tenancy of the types they read, which Hibernate
+	 * filters bind outside of the predicate
+	 */
+	private String createCountCacheQuery(Optional<Predicate> predicate) {
+		return predicate.map(Object::toString).orElse("") + "|" + EntityTenancyFilterUtils.getTenancyFilterRegistry()
+				.getTenancyKey(this.getJoinedClazzes(predicate, Optional.empty()));
+	}
+
+	/*
+	 * Table statistics know nothing about filters, so filtered queries and entities
+	 * restricted to a tenant, by predicate or Hibernate filter, are counted exactly
+	 */
+	private OptionalLong estimateCount(Optional<Predicate> predicate) {
+		if (predicate.isPresent() || !EntityTenancyFilterUtils.getTenancyFilterRegistry()
+				.getTenancyKey(this.entityInformation.getJavaType())
+				.isEmpty()) {
+			return OptionalLong.empty();
+		}
+		return this.rowCountEstimator.execute();
+	}
+
+	private CountStrategy getDefaultCountStrategy() {
+		return ApplicationContextUtils.getBean(SpineDataJpaProperties.class)
+				.map(properties -> properties.getCount().getStrategies()
+						.getOrDefault(this.entityInformation.getJavaType().getSimpleName(),
+								properties.getCount().getDefaultStrategy()))
+				.orElse(CountStrategy.EXACT);
+	}
+
+	/*
+	 * Entities are loaded and changed through the persistence context, so cascades and
+	 * entity listeners (e.g. Envers) apply, flushing and clearing after each chunk
+	 */
+	private long executeInChunks(Optional<Predicate> predicate, Consumer<T> operation) {
+		int chunkSize = ApplicationContextUtils.getBean(SpineDataJpaProperties.class)
+				.map(properties -> properties.getBulk().getChunkSize())
+				.orElse(DEFAULT_CHUNK_SIZE);
+		JPQLQuery<T> jpqlQuery = this.createJPQLQuery.execute(Optional.empty(), predicate, Optional.empty(), false);
+		List<?> ids = ((JPAQuery<T>) jpqlQuery).select(this.idPath).fetch();
+		this.entityManager.flush();
+		long count = 0;
+		for (List<?> chunk : Lists.partition(ids, chunkSize)) {
+			List<T> entities = this.hydrate(chunk, Optional.empty());
+			entities.forEach(operation);
+			this.entityManager.flush();
+			this.entityManager.clear();
+			count += entities.size();
+		}
+		return count;
+	}
+
+	/*
+	 * The statement bypasses the persistence context and its listeners, so it bumps numeric
+	 * versions and sets the last modification as the auditing handler stamps it on a blank
+	 * entity, unless those attributes are assigned
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private void touchBulkUpdate(JPAUpdateClause updateClause, Set<? extends Path<?>> assignedPaths) {
+		Class<T> clazz = this.entityInformation.getJavaType();
+		Set<String> assignedNames = assignedPaths.stream()
+				.filter(path -> path.getMetadata().getParent() != null
+						&& path.getMetadata().getParent().getMetadata().isRoot())
+				.map(path -> path.getMetadata().getName())
+				.collect(Collectors.toSet());
+		List<Field> lastModifiedFields = new ArrayList<>();
+		for (Field field : ReflectionUtils.fildAllFields(clazz).values()) {
+			Class<?> type = ClassUtils.resolvePrimitiveIfNecessary(field.getType());
+			if (assignedNames.contains(field.getName())) {
+				continue;
+			}
+			if (field.isAnnotationPresent(Version.class) && Number.class.isAssignableFrom(type)) {
+				NumberPath versionPath = this.pathBuilder.getNumber(field.getName(), (Class) type);
+				updateClause.set(versionPath, versionPath.add(1));
+			}
+			else if (field.isAnnotationPresent(LastModifiedDate.class)
+					|| field.isAnnotationPresent(LastModifiedBy.class)) {
+				lastModifiedFields.add(field);
+			}
+		}
+		Optional<AuditingHandler> auditingHandler = ApplicationContextUtils.getBean(AuditingHandler.class);
+		if (lastModifiedFields.isEmpty() || auditingHandler.isEmpty()) {
+			return;
+		}
+		T modification = auditingHandler.get().markModified(ReflectionUtils.newInstance(clazz));
+		for (Field field : lastModifiedFields) {
+			Object value = this.getFieldValue(modification, field);
+			if (value != null) {
+				updateClause.set(this.pathBuilder.get(field.getName()), value);
+			}
+		}
+	}
+
+	private Field getAssignmentField(Path<?> path) {
+		Path<?> parent = path.getMetadata().getParent();
+		if (parent == null || !parent.getMetadata().isRoot()
+				|| !parent.getType().isAssignableFrom(this.entityInformation.getJavaType())) {
+			throw new UnexpectedException("Assignment %s is not an attribute of %s", path,
+					this.entityInformation.getJavaType().getName());
+		}
+		return ReflectionUtils.findField(this.entityInformation.getJavaType(), path.getMetadata().getName());
+	}
+
+	private void setFieldValue(T entity, Field field, Object value) {
+		try {
+			ReflectionUtils.setFieldValue(entity, field, value, true);
+		}
+		catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+			throw new UnexpectedException(e);
+		}
+	}
+
+	private void invalidateQueries() {
+		ApplicationContextUtils.getBean(CountCache.class)
+				.ifPresent(countCache -> countCache.invalidate(this.entityInformation.getJavaType()));
+		ApplicationContextUtils.getBean(ResultCache.class)
+				.ifPresent(resultCache -> resultCache.invalidate(this.entityInformation.getJavaType()));
+	}
+
+	/*
+	 * A null id invalidates every cached entity of the type, as bulk statements do
+	 */
+	private void invalidateEntities(Object id) {
+		ApplicationContextUtils.getBean(EntityCache.class)
+				.ifPresent(entityCache -> entityCache.invalidate(this.entityInformation.getJavaType(), id));
+		ApplicationContextUtils.getBean(EntitySnapshotCache.class)
+				.ifPresent(entitySnapshotCache -> entitySnapshotCache.invalidate(this.entityInformation.getJavaType(),
+						id));
+	}
+
+	private AsyncRepositoryExecutor getAsyncRepositoryExecutor() {
+		return ApplicationContextUtils.getBean(AsyncRepositoryExecutor.class)
+				.orElseThrow(
+						() -> new UnexpectedException("No %s configured", AsyncRepositoryExecutor.class.getName()));
+	}
+
+	/*
+	 * Entities read are hashed as they will be serialized, so saving them back unchanged
+	 * skips their subtree
+	 */
+	private void recordSnapshots(Collection<T> entities) {
+		ApplicationContextUtils.getBean(EntitySnapshotCache.class)
+				.filter(entitySnapshotCache -> entitySnapshotCache.isEnabled(this.entityInformation.getJavaType()))
+				.ifPresent(entitySnapshotCache -> entitySnapshotCache.record(entities));
+	}
+
+	private String getTenancyKey(Optional<EntityGraph<T>> entityGraph) {
+		return EntityTenancyFilterUtils.getTenancyFilterRegistry()
+				.getTenancyKey(this.getJoinedClazzes(Optional.empty(), entityGraph));
+	}
+
+	/*
+	 * The entity and the types its predicate and expand join, whose writes and tenancy
+	 * affect the result of a read too
+	 */
+	private Set<Class<?>> getJoinedClazzes(Optional<Predicate> predicate, Optional<EntityGraph<T>> entityGraph) {
+		Class<T> clazz = this.entityInformation.getJavaType();
+		Set<Class<?>> entityClazzes = new LinkedHashSet<>();
+		entityClazzes.add(clazz);
+		predicate.ifPresent(value -> entityClazzes.addAll(QuerydslUtils.getEntityTypes(value)));
+		entityGraph.ifPresent(graph -> FetchJoinUtils.getFetchJoins(clazz, graph)
+				.forEach(fetchJoin -> entityClazzes.add(fetchJoin.getAttributeType())));
+		return entityClazzes;
+	}
+
+	private Optional<EntityCache> getEntityCache() {
+		Optional<EntityCache> entityCache = ApplicationContextUtils.getBean(EntityCache.class);
+		return entityCache.filter(cache -> cache.isEnabled(this.entityInformation.getJavaType()));
+	}
+
+	/*
+	 * Reads of the entity alone, like the id and count phases of a page, drop the same
+	 * entities the tenancy of the types its expand joins drops
+	 */
+	private Optional<Predicate> createJoinedTenancyPredicate(EntityGraph<T> entityGraph) {
+		return FetchJoinUtils.createJoinedTenancyPredicate(this.entityInformation.getJavaType(), this.idPath,
+				entityGraph);
+	}
+
+	private long countDistinct(Optional<Predicate> predicate) {
+		JPQLQuery<T> countJpqlQuery = this.createJPQLQuery.execute(Optional.empty(), predicate, Optional.empty(), true);
+		Long count = ((JPAQuery<T>) countJpqlQuery).select(this.idPath.countDistinct()).fetchOne();
+		return count == null ? 0L : count;
+	}
+
+	private boolean hasCollectionAttributeNodes(EntityGraph<T> entityGraph) {
+		if (entityGraph instanceof CompiledEntityGraph) {
+			return ((CompiledEntityGraph<T>) entityGraph).isCollectionFetch();
+		}
+		return this.hasCollectionAttributeNodes(entityGraph.getAttributeNodes());
+	}
+
+	private boolean hasCollectionAttributeNodes(List<AttributeNode<?>> attributeNodes) {
+		for (AttributeNode<?> attributeNode : attributeNodes) {
+			AttributeNodeImpl<?> attributeNodeImpl = (AttributeNodeImpl<?>) attributeNode;
+			if (Collection.class.isAssignableFrom(attributeNodeImpl.getAttributeDescriptor().getJavaType())) {
+				return true;
+			}
+			for (Subgraph<?> subgraph : attributeNode.getSubgraphs().values()) {
+				if (this.hasCollectionAttributeNodes(subgraph.getAttributeNodes())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private Optional<Predicate> mergePredicates(Optional<Predicate> predicate, Optional<Predicate> otherPredicate) {
+		if (predicate.isPresent() && otherPredicate.isPresent()) {
+			return Optional.of(ExpressionUtils.and(predicate.get(), otherPredicate.get()));
+		}
+		return predicate.isPresent() ? predicate : otherPredicate;
+	}
+
 	private Optional<EntityGraph<T>> parseEntityGraph(Optional<String> expand) {
-		return expand
-				.map(g -> this.entityGraphParser.execute(this.entityManager, this.entityInformation.getJavaType(), g));
+		return expand.filter(g -> !g.isBlank())
+				.map(g -> ApplicationContextUtils.getBean(EntityGraphCache.class)
+						.map(entityGraphCache -> entityGraphCache.get(this.entityInformation.getJavaType(), g,
+								this::doParseEntityGraph))
+						.orElseGet(() -> this.doParseEntityGraph(g)));
+	}
+
+	private EntityGraph<T> doParseEntityGraph(String expand) {
+		return this.entityGraphParser.execute(this.entityManager, this.entityInformation.getJavaType(), expand);
 	}
 
 	private T saveByJpa(T entity) {
@@ -389,10 +1399,145 @@ public class DefaultGenericRepository<T extends Serializable, I extends Serializ
 		}
 		else {
 			this.entityManager.unwrap(Session.class).merge(entity);
+			this.invalidateEntities(this.getIdValue(entity));
 		}
+		this.invalidateQueries();
 		return entity;
 	}
 
+	/*
+	 * The existing rows of the whole chunk are deep loaded together. The chunk is split
+	 * before saving, so new entities are persisted before existing ones are merged and
+	 * inserts and updates are batched apart
+	 */
+	private List<T> saveChunk(List<T> chunk) {
+		List<Optional<T>> loadedEntities = this.entityLoader.execute(chunk, OperationType.SAVE);
+		List<T> savedEntities = new ArrayList<>(chunk.size());
+		for (int index = 0; index < chunk.size(); index++) {
+			T entity = chunk.get(index);
+			savedEntities.add(loadedEntities.get(index).orElseThrow(() -> {
+				Object idValue = this.getIdValue(entity);
+				return new UnexpectedException("Error saving %s[%s], check if entity exists", entity.getClass(),
+						idValue == null ? "NEW" : idValue);
+			}));
+		}
+		Map<Boolean, List<T>> entitiesByNew = savedEntities.stream()
+				.collect(Collectors.partitioningBy(this.entityInformation::isNew));
+		Session session = this.entityManager.unwrap(Session.class);
+		entitiesByNew.get(true).forEach(session::persist);
+		entitiesByNew.get(false).forEach(existingEntity -> {
+			session.merge(existingEntity);
+			this.invalidateEntities(this.getIdValue(existingEntity));
+		});
+		this.invalidateQueries();
+		return savedEntities;
+	}
+
+	/*
+	 * Rows are looked up by the keys of the chunk with the Hibernate filters off, as a row
+	 * of another tenant still conflicts, then the filters that were on are turned back on.
+	 * A native statement can't apply the save predicate, so the rows it excludes are looked
+	 * up the same way
+	 */
+	private List<T> findUpsertRows(List<T> chunk, List<Field> conflictFields, Optional<Predicate> predicate) {
+		if (chunk.isEmpty()) {
+			return List.of();
+		}
+		List<Predicate> keyPredicates = chunk.stream()
+				.map(entity -> ExpressionUtils.allOf(conflictFields.stream()
+						.map(field -> this.createKeyPredicate(field, this.getFieldValue(entity, field)))
+						.collect(Collectors.toList())))
+				.collect(Collectors.toList());
+		Set<String> filterNames = EntityTenancyFilterUtils.disableHibernateFilters(this.entityManager);
+		try {
+			return new JPAQuery<T>(this.entityManager).select(this.pathBuilder)
+					.from(this.pathBuilder)
+					.where(ExpressionUtils.anyOf(keyPredicates), predicate.orElse(null))
+					.fetch();
+		}
+		finally {
+			EntityTenancyFilterUtils.restoreHibernateFilters(this.entityManager, filterNames);
+		}
+	}
+
+	private Predicate createKeyPredicate(Field field, Object value) {
+		return this.pathBuilder.get(field.getName()).eq(value);
+	}
+
+	/*
+	 * Upserts never match null keys, so only a new entity keyed by its generated id may
+	 * have one, and it isn't looked up. A key given twice would leave one entity with the
+	 * id of another's row
+	 */
+	private List<T> getKeyedEntities(List<T> chunk, List<Field> conflictFields, boolean idConflictKey) {
+		List<T> keyedEntities = new ArrayList<>(chunk.size());
+		Set<List<Object>> keys = new HashSet<>();
+		for (T entity : chunk) {
+			List<Object> keyValues = this.getKeyValues(entity, conflictFields);
+			if (keyValues.contains(null)) {
+				Assert.isTrue(idConflictKey, "Conflict keys must not be null!");
+				continue;
+			}
+			Assert.isTrue(keys.add(keyValues), "Conflict keys must be unique within a chunk!");
+			keyedEntities.add(entity);
+		}
+		return keyedEntities;
+	}
+
+	/*
+	 * Referenced entities are compared by id, as the detached and loaded instances differ
+	 */
+	private List<Object> getKeyValues(T entity, List<Field> conflictFields) {
+		List<Object> keyValues = new ArrayList<>(conflictFields.size());
+		for (Field field : conflictFields) {
+			Object value = this.getFieldValue(entity, field);
+			boolean relation = EntityUtils.getDescriptor(this.entityInformation.getJavaType())
+					.getRelation(field)
+					.isPresent();
+			keyValues.add(value != null && relation ? this.getIdValue(value) : value);
+		}
+		return keyValues;
+	}
+
+	private Object getFieldValue(T entity, Field field) {
+		try {
+			return ReflectionUtils.getFieldValue(entity, field, true);
+		}
+		catch (Exception exception) {
+			throw new UnexpectedException("Unable to get %s.%s", exception, entity.getClass().getName(),
+					field.getName());
+		}
+	}
+
+	private List<T> saveParallelChunk(List<T> chunk) {
+		List<T> savedEntities = this.saveChunk(chunk);
+		this.entityManager.flush();
+		return savedEntities;
+	}
+
+	/*
+	 * Hibernate 6 gives StatelessSession no flush, and closing it releases a pending JDBC
+	 * batch without executing it. The batch is run through the session's SPI, to be
+	 * revisited on Hibernate upgrades
+	 */
+	private static void executeBatch(StatelessSession statelessSession) {
+		((SharedSessionContractImplementor) statelessSession).getJdbcCoordinator().executeBatch();
+	}
+
+	/*
+	 * Optimistic lock and deadlock errors may surface raw at flush or translated at commit
+	 */
+	private static boolean isRetryable(Throwable throwable) {
+		for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+			if (cause instanceof ConcurrencyFailureException || cause instanceof OptimisticLockException
+					|| cause instanceof PessimisticLockException || cause instanceof StaleStateException
+					|| cause instanceof LockAcquisitionException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	private <N> Object getIdValue(N entity) {
 		try {
 			return EntityUtils.getIdValue(entity);
@@ -32,6 +32,7 @@ import jakarta.persistence.EntityGraph;
 import jakarta.persistence.EntityManager;
 import lombok.AllArgsConstructor;
 import tech.go9.spine.data.jpa.api.usecase.CreateJPQLQuery;
+import tech.go9.spine.data.jpa.internal.component.CustomJPAQuery;
 import tech.go9.spine.data.jpa.internal.util.EntityTenancyFilterUtils;
 
 @AllArgsConstructor
@@ -47,9 +48,11 @@ public class DefaultCreateJPQLQuery<T> extends AbstractCreateQuery implements Cr
 	public JPQLQuery<T> execute(Optional<Pageable> pageable, Optional<Predicate> predicate,
 			Optional<EntityGraph<T>> optionalEntityGraph, boolean forCount) {
 
+		EntityTenancyFilterUtils.enableHibernateFilters(this.entityManager);
+
 		QueryMetadata queryMetadata = new DefaultQueryMetadata();
 		queryMetadata.setProjection(this.entityPath);
-		JPAQuery<T> jpaQuery = new JPAQuery<T>(this.entityManager, queryMetadata).from(this.entityPath);
+		JPAQuery<T> jpaQuery = new CustomJPAQuery<T>(this.entityManager, queryMetadata).from(this.entityPath);
 
 		Optional<Predicate> tenancyPredicate = EntityTenancyFilterUtils.getRetrievePredicate(this.entityPath.getType());
 		if (tenancyPredicate.isPresent()) {
@@ -65,8 +68,8 @@ public class DefaultCreateJPQLQuery<T> extends AbstractCreateQuery implements Cr
 		}
 
 		if (!forCount && optionalEntityGraph.isPresent()) {
-			super.createQuery(jpaQuery, this.entityPath.getType(), optionalEntityGraph.get().getAttributeNodes());
-			jpaQuery.setHint(EntityGraphType.FETCH.getKey(), optionalEntityGraph.get());
+			super.createQuery(jpaQuery, this.entityPath.getType(), optionalEntityGraph.get());
+			jpaQuery.setHint(EntityGraphType.FETCH.getKey(), super.getFetchGraph(optionalEntityGraph.get()));
 		}
 
 		return jpaQuery;
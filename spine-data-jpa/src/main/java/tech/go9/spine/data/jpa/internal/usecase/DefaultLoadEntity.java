@@ -17,41 +17,57 @@ package tech.go9.spine.data.jpa.internal.usecase;
 
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
 import org.hibernate.Hibernate;
+import org.hibernate.Session;
 import org.hibernate.collection.spi.PersistentCollection;
 import org.hibernate.engine.spi.PersistentAttributeInterceptable;
 import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
 import org.hibernate.proxy.HibernateProxy;
+import org.springframework.data.querydsl.SimpleEntityPathResolver;
 import org.springframework.data.util.Pair;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
-import org.springframework.util.CollectionUtils;
+
+import com.google.common.collect.Lists;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.impl.JPAQuery;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.ManyToMany;
-import jakarta.persistence.ManyToOne;
-import jakarta.persistence.OneToMany;
-import jakarta.persistence.OneToOne;
+import jakarta.persistence.FlushModeType;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import tech.go9.spine.core.api.exception.UnexpectedException;
+import tech.go9.spine.core.api.util.ApplicationContextUtils;
 import tech.go9.spine.core.api.util.ReflectionUtils;
 import tech.go9.spine.data.jpa.api.usecase.AuthorizeEntity;
 import tech.go9.spine.data.jpa.api.usecase.LoadEntity;
+import tech.go9.spine.data.jpa.internal.component.EntitySnapshotCache;
+import tech.go9.spine.data.jpa.internal.model.EntityDescriptor;
 import tech.go9.spine.data.jpa.internal.model.OperationType;
+import tech.go9.spine.data.jpa.internal.model.RelationDescriptor;
+import tech.go9.spine.data.jpa.internal.util.EntityTenancyFilterUtils;
 import tech.go9.spine.data.jpa.internal.util.EntityUtils;
 
 @Slf4j
@@ -60,6 +76,10 @@ public class DefaultLoadEntity<T, I extends Serializable> implements LoadEntity<
 
 	private static final Collection<CascadeType> MERGE_CASCADES = Arrays.asList(CascadeType.ALL, CascadeType.PERSIST);
 
+	private static final String PREFETCH_QUERY = "select distinct e from %s e left join fetch e.%s where e.%s in :ids";
+
+	private static final int PREFETCH_PARTITION_SIZE = 1000;
+
 	private final EntityManager entityManager;
 
 	private final AuthorizeEntity entitySecurityManager;
@@ -82,14 +102,135 @@ public class DefaultLoadEntity<T, I extends Serializable> implements LoadEntity<
 		Assert.notNull(entity, "entity must not be null!");
 		Assert.notNull(operationType, "operationType operationType must not be null");
 		Map<Object, Object> historyMap = new HashMap<>();
+		Set<Object> unchangedEntities = this.findUnchanged(Collections.singletonList(entity), operationType);
+		this.prefetch(Collections.singletonList(entity), unchangedEntities);
 		return loadEntity(entity, historyMap, true).map(attachedEntity -> {
-			this.deepLoad(entity, attachedEntity, operationType, historyMap, true);
+			this.deepLoad(entity, attachedEntity, operationType, historyMap, unchangedEntities, true);
 			return attachedEntity;
 		});
 	}
 
+	/*
+	 * The graphs of all the entities are prefetched together, and entities they share are
+	 * deep loaded once
+	 */
+	@Override
+	@Transactional(propagation = Propagation.MANDATORY)
+	public List<Optional<T>> execute(final List<T> entities, final OperationType operationType) {
+		Assert.notNull(entities, "entities must not be null!");
+		Assert.notNull(operationType, "operationType operationType must not be null");
+		Map<Object, Object> historyMap = new HashMap<>();
+		Set<Object> unchangedEntities = this.findUnchanged(entities, operationType);
+		this.prefetch(entities, unchangedEntities);
+		List<Optional<T>> attachedEntities = new ArrayList<>(entities.size());
+		for (T entity : entities) {
+			attachedEntities.add(loadEntity(entity, historyMap, true).map(attachedEntity -> {
+				this.deepLoad(entity, attachedEntity, operationType, historyMap, unchangedEntities, true);
+				return attachedEntity;
+			}));
+		}
+		return attachedEntities;
+	}
+
+	/*
+	 * Walks the initialized part of the detached graph and loads the persisted entities of
+	 * each type, with the collections that will be merged, in a few bulk queries. The finds
+	 * and collection reads of the deep load are then served by the persistence context, so
+	 * round trips depend on the shape of the graph instead of on the number of children.
+	 * Unchanged subtrees are not walked, as the deep load doesn't descend into them
+	 */
+	private void prefetch(Collection<?> detachedRootEntities, Set<Object> unchangedEntities) {
+		Map<Class<?>, Set<Object>> idMap = new LinkedHashMap<>();
+		Map<Class<?>, Set<String>> collectionMap = new HashMap<>();
+		Set<Object> visitedEntities = Collections.newSetFromMap(new IdentityHashMap<>());
+		Deque<Object> detachedEntities = new ArrayDeque<>();
+		for (Object detachedRootEntity : detachedRootEntities) {
+			if (visitedEntities.add(detachedRootEntity)) {
+				detachedEntities.add(detachedRootEntity);
+			}
+		}
+		while (!detachedEntities.isEmpty()) {
+			Object detachedEntity = detachedEntities.poll();
+			if (unchangedEntities.contains(detachedEntity)) {
+				continue;
+			}
+			Class<?> clazz = ReflectionUtils.getClass(detachedEntity);
+			Object id = this.entityManager.contains(detachedEntity) ? null : this.getIdValue(detachedEntity);
+			if (id != null) {
+				idMap.computeIfAbsent(clazz, key -> new LinkedHashSet<>()).add(id);
+			}
+			for (Object detachedChildEntity : this.listDetachedChildren(detachedEntity, id == null ? new HashSet<>()
+					: collectionMap.computeIfAbsent(clazz, key -> new LinkedHashSet<>()))) {
+				if (visitedEntities.add(detachedChildEntity)) {
+					detachedEntities.add(detachedChildEntity);
+				}
+			}
+		}
+		idMap.forEach((clazz, ids) -> this.prefetch(clazz, new ArrayList<>(ids),
+				collectionMap.getOrDefault(clazz, Collections.emptySet())));
+	}
+
+	/*
+	 * Entities whose tenancy is enforced by a Hibernate filter are prefetched by a query
+	 * with their find predicate, so the ids of other tenants never become managed and only
+	 * the rows found have their collections prefetched
+	 */
+	private void prefetch(Class<?> clazz, List<Object> ids, Set<String> collectionNames) {
+		log.debug("PREFETCH {}[{} ids] {}", clazz.getName(), ids.size(), collectionNames);
+		Optional<Predicate> tenancyPredicate = EntityTenancyFilterUtils.getFindPredicate(clazz);
+		if (tenancyPredicate.isPresent()) {
+			ids = this.prefetch(clazz, ids, tenancyPredicate.get());
+		}
+		else if (collectionNames.isEmpty()) {
+			this.entityManager.unwrap(Session.class).byMultipleIds(clazz).enableSessionCheck(true).multiLoad(ids);
+		}
+		if (collectionNames.isEmpty() || ids.isEmpty()) {
+			return;
+		}
+		String entityName = this.entityManager.getMetamodel().entity(clazz).getName();
+		String idName = EntityUtils.getIdField(clazz).getName();
+		for (String collectionName : collectionNames) {
+			String query = String.format(PREFETCH_QUERY, entityName, collectionName, idName);
+			for (List<Object> partition : Lists.partition(ids, PREFETCH_PARTITION_SIZE)) {
+				this.entityManager.createQuery(query, clazz).setParameter("ids", partition).getResultList();
+			}
+		}
+	}
+
+	private <N> List<Object> prefetch(Class<N> clazz, List<Object> ids, Predicate tenancyPredicate) {
+		PathBuilder<N> pathBuilder = new PathBuilder<>(clazz,
+				SimpleEntityPathResolver.INSTANCE.createPath(clazz).getMetadata());
+		List<Object> foundIds = new ArrayList<>(ids.size());
+		for (List<Object> partition : Lists.partition(ids, PREFETCH_PARTITION_SIZE)) {
+			new JPAQuery<N>(this.entityManager).select(pathBuilder).from(pathBuilder)
+					.where(pathBuilder.get(EntityUtils.getIdField(clazz).getName()).in(partition), tenancyPredicate)
+					.setFlushMode(FlushModeType.COMMIT).fetch()
+					.forEach(entity -> foundIds.add(this.getIdValue(entity)));
+		}
+		return foundIds;
+	}
+
+	private List<Object> listDetachedChildren(Object detachedEntity, Set<String> collectionNames) {
+		List<Object> detachedChildren = new ArrayList<>();
+		for (RelationDescriptor relation : EntityUtils.getDescriptor(detachedEntity).getRelations()) {
+			Optional<Object> optional = this.getDetachedObject(detachedEntity, relation.getField());
+			if (optional == null) {
+				continue;
+			}
+			if (relation.isCollection()) {
+				collectionNames.add(relation.getField().getName());
+				optional.ifPresent(detachedCollection -> this.castCollection(detachedCollection).stream()
+						.filter(Objects::nonNull).forEach(detachedChildren::add));
+			}
+			else {
+				optional.ifPresent(detachedChildren::add);
+			}
+		}
+		return detachedChildren;
+	}
+
 	private void deepLoad(Object detachedEntity, Object attachedEntity, OperationType operationType,
-			Map<Object, Object> historyMap, boolean merge) {
+			Map<Object, Object> historyMap, Set<Object> unchangedEntities, boolean merge) {
 
 		this.entitySecurityManager.authorize(attachedEntity, operationType);
 
@@ -102,31 +243,38 @@ public class DefaultLoadEntity<T, I extends Serializable> implements LoadEntity<
 		}
 
 		if (merge && operationType.equals(OperationType.SAVE)) {
+			if (unchangedEntities.contains(detachedEntity)) {
+				log.debug("UNCHANGED {}[{}]", attachedEntity.getClass().getName(), this.getIdValue(detachedEntity));
+				return;
+			}
 			mergeAttributes(detachedEntity, attachedEntity);
+			this.invalidateSnapshot(detachedEntity);
 		}
 
-		List<Field> fields = EntityUtils.getOneToManyFields(detachedEntity);
-		for (Field field : fields) {
-			boolean mergeChild = getMergeChild(operationType, field.getAnnotation(OneToMany.class).cascade(), merge);
-			this.deepLoadToMany(detachedEntity, attachedEntity, field, operationType, historyMap, mergeChild);
+		EntityDescriptor entityDescriptor = EntityUtils.getDescriptor(detachedEntity);
+
+		for (RelationDescriptor relation : entityDescriptor.getOneToManyRelations()) {
+			boolean mergeChild = getMergeChild(operationType, relation, merge);
+			this.deepLoadToMany(detachedEntity, attachedEntity, relation, operationType, historyMap,
+					unchangedEntities, mergeChild);
 		}
 
-		fields = EntityUtils.getManyToManyFields(detachedEntity);
-		for (Field field : fields) {
-			boolean mergeChild = getMergeChild(operationType, field.getAnnotation(ManyToMany.class).cascade(), merge);
-			this.deepLoadToMany(detachedEntity, attachedEntity, field, operationType, historyMap, mergeChild);
+		for (RelationDescriptor relation : entityDescriptor.getManyToManyRelations()) {
+			boolean mergeChild = getMergeChild(operationType, relation, merge);
+			this.deepLoadToMany(detachedEntity, attachedEntity, relation, operationType, historyMap,
+					unchangedEntities, mergeChild);
 		}
 
-		fields = EntityUtils.getOneToOneFields(detachedEntity);
-		for (Field field : fields) {
-			boolean mergeChild = getMergeChild(operationType, field.getAnnotation(OneToOne.class).cascade(), merge);
-			this.deepLoadToOne(detachedEntity, attachedEntity, field, operationType, historyMap, mergeChild);
+		for (RelationDescriptor relation : entityDescriptor.getOneToOneRelations()) {
+			boolean mergeChild = getMergeChild(operationType, relation, merge);
+			this.deepLoadToOne(detachedEntity, attachedEntity, relation, operationType, historyMap,
+					unchangedEntities, mergeChild);
 		}
 
-		fields = EntityUtils.getManyToOneFields(detachedEntity);
-		for (Field field : fields) {
-			boolean mergeChild = getMergeChild(operationType, field.getAnnotation(ManyToOne.class).cascade(), merge);
-			this.deepLoadToOne(detachedEntity, attachedEntity, field, operationType, historyMap, mergeChild);
+		for (RelationDescriptor relation : entityDescriptor.getManyToOneRelations()) {
+			boolean mergeChild = getMergeChild(operationType, relation, merge);
+			this.deepLoadToOne(detachedEntity, attachedEntity, relation, operationType, historyMap,
+					unchangedEntities, mergeChild);
 		}
 	}
 
@@ -155,16 +303,15 @@ public class DefaultLoadEntity<T, I extends Serializable> implements LoadEntity<
 			return EntityUtils.getDirtyFields((SelfDirtinessTracker) entity);
 		}
 		else {
-			return EntityUtils.getNonRelationalFields(entity);
+			return EntityUtils.getDescriptor(entity).getNonRelationalFields();
 		}
 	}
 
-	private boolean getMergeChild(OperationType operationType, CascadeType[] cascadeTypes, boolean merge) {
+	private boolean getMergeChild(OperationType operationType, RelationDescriptor relation, boolean merge) {
 		if (!merge) {
 			return false;
 		}
-		Collection<CascadeType> cascades = this.getCascades(operationType);
-		return CollectionUtils.containsAny(Arrays.asList(cascadeTypes), cascades);
+		return relation.hasAnyCascade(this.getCascades(operationType));
 	}
 
 	private Collection<CascadeType> getCascades(OperationType operationType) {
@@ -180,8 +327,10 @@ public class DefaultLoadEntity<T, I extends Serializable> implements LoadEntity<
 	 * Merge to many attributes
 	 */
 
-	private void deepLoadToMany(Object parentDetachedEntity, Object parentAttachedEntity, Field field,
-			OperationType operationType, Map<Object, Object> historyMap, boolean merge) {
+	private void deepLoadToMany(Object parentDetachedEntity, Object parentAttachedEntity, RelationDescriptor relation,
+			OperationType operationType, Map<Object, Object> historyMap, Set<Object> unchangedEntities, boolean merge) {
+
+		Field field = relation.getField();
 
 		Collection<Object> detachedCollection = null;
 		Optional<Object> optional = this.getDetachedObject(parentDetachedEntity, field);
@@ -230,8 +379,8 @@ public class DefaultLoadEntity<T, I extends Serializable> implements LoadEntity<
 					}
 
 					attachedCollection.add(attachedEntity);
-					EntityUtils.setMappedByFields(parentAttachedEntity, field, attachedEntity, false);
-					this.deepLoad(detachedEntity, attachedEntity, operationType, historyMap, merge);
+					EntityUtils.setMappedByFields(parentAttachedEntity, relation, attachedEntity, false);
+					this.deepLoad(detachedEntity, attachedEntity, operationType, historyMap, unchangedEntities, merge);
 
 				}
 				else {
@@ -245,13 +394,14 @@ public class DefaultLoadEntity<T, I extends Serializable> implements LoadEntity<
 						}
 						attachedEntity = optionalAttachedEntity.get();
 						attachedCollection.add(attachedEntity);
-						EntityUtils.setMappedByFields(parentAttachedEntity, field, attachedEntity, false);
-						this.deepLoad(detachedEntity, attachedEntity, operationType, historyMap, merge);
+						EntityUtils.setMappedByFields(parentAttachedEntity, relation, attachedEntity, false);
+						this.deepLoad(detachedEntity, attachedEntity, operationType, historyMap, unchangedEntities,
+								merge);
 
 					}
 					else {
 
-						EntityUtils.setMappedByFields(parentDetachedEntity, field, detachedEntity, true);
+						EntityUtils.setMappedByFields(parentDetachedEntity, relation, detachedEntity, true);
 						detachedCollection.remove(detachedEntity);
 					}
 				}
@@ -262,7 +412,7 @@ public class DefaultLoadEntity<T, I extends Serializable> implements LoadEntity<
 				if (merge) {
 					if (detachedCollection != null) {
 						attachedCollection.remove(attachedEntity);
-						EntityUtils.setMappedByFields(parentAttachedEntity, field, attachedEntity, true);
+						EntityUtils.setMappedByFields(parentAttachedEntity, relation, attachedEntity, true);
 						this.deleteEntity(attachedEntity);
 					}
 				}
@@ -273,15 +423,18 @@ public class DefaultLoadEntity<T, I extends Serializable> implements LoadEntity<
 			}
 			else if (detachedEntity != null && attachedEntity != null) {
 
-				this.deepLoad(detachedEntity, attachedEntity, operationType, historyMap, merge);
+				this.deepLoad(detachedEntity, attachedEntity, operationType, historyMap, unchangedEntities, merge);
 			}
 		}
 	}
 
+	/*
+	 * Both collections are indexed once, by id and by identity for new entities, so pairing
+	 * is linear instead of scanning the other collection for every element
+	 */
 	private List<Pair<Optional<Object>, Optional<Object>>> listEntityPairs(Collection<Object> detachedCollection,
 			Collection<Object> attachedCollection) {
 
-		Set<Object> history = new LinkedHashSet<>();
 		List<Pair<Optional<Object>, Optional<Object>>> pairs = new ArrayList<>();
 
 		if (attachedCollection != null && detachedCollection == null) {
@@ -298,36 +451,35 @@ public class DefaultLoadEntity<T, I extends Serializable> implements LoadEntity<
 		}
 		else if (attachedCollection != null && detachedCollection != null) {
 
+			EntityIndex detachedIndex = new EntityIndex(detachedCollection);
+			Set<Object> pairedDetachedEntities = Collections.newSetFromMap(new IdentityHashMap<>());
+
 			for (Object attachedEntity : attachedCollection) {
-				this.findEntity(detachedCollection, attachedEntity).ifPresentOrElse(detachedEntity -> {
-					Object idValue = this.getIdValue(detachedEntity);
-					if (idValue != null) {
-						history.add(idValue);
+				Object attachedIdValue = this.getIdValue(attachedEntity);
+				Object detachedEntity = detachedIndex.find(attachedEntity, attachedIdValue);
+				if (detachedEntity != null) {
+					if (detachedIndex.getIdValue(detachedEntity) != null) {
+						pairedDetachedEntities.add(detachedEntity);
 						pairs.add(Pair.of(Optional.of(detachedEntity), Optional.of(attachedEntity)));
 					}
-				}, () -> {
-					Object idValue = this.getIdValue(attachedEntity);
-					if (idValue != null) {
-						history.add(idValue);
-						pairs.add(Pair.of(Optional.empty(), Optional.of(attachedEntity)));
-					}
-				});
+				}
+				else if (attachedIdValue != null) {
+					pairs.add(Pair.of(Optional.empty(), Optional.of(attachedEntity)));
+				}
 			}
 
+			EntityIndex attachedIndex = new EntityIndex(attachedCollection);
+
 			for (Object detachedEntity : detachedCollection) {
-				this.findEntity(attachedCollection, detachedEntity).ifPresentOrElse(attachedEntity -> {
-					Object idValue = this.getIdValue(attachedEntity);
-					if (idValue != null && !history.contains(idValue)) {
-						history.add(idValue);
-					}
-					pairs.add(Pair.of(Optional.of(detachedEntity), Optional.of(attachedEntity)));
-				}, () -> {
-					Object idValue = this.getIdValue(detachedEntity);
-					if (idValue != null && !history.contains(idValue)) {
-						history.add(idValue);
-					}
-					pairs.add(Pair.of(Optional.of(detachedEntity), Optional.empty()));
-				});
+				if (pairedDetachedEntities.contains(detachedEntity)) {
+					continue;
+				}
+				Object attachedEntity = attachedIndex.find(detachedEntity, detachedIndex.getIdValue(detachedEntity));
+				if (attachedEntity == null && log.isDebugEnabled()) {
+					log.debug("Entity {}[{}] not found in attached collection", detachedEntity.getClass(),
+							detachedIndex.getIdValue(detachedEntity));
+				}
+				pairs.add(Pair.of(Optional.of(detachedEntity), Optional.ofNullable(attachedEntity)));
 			}
 		}
 
@@ -338,8 +490,10 @@ public class DefaultLoadEntity<T, I extends Serializable> implements LoadEntity<
 	 * Merge to one attribute
 	 */
 
-	private void deepLoadToOne(Object parentDetachedEntity, Object parentAttachedEntity, Field field,
-			OperationType operationType, Map<Object, Object> historyMap, boolean merge) {
+	private void deepLoadToOne(Object parentDetachedEntity, Object parentAttachedEntity, RelationDescriptor relation,
+			OperationType operationType, Map<Object, Object> historyMap, Set<Object> unchangedEntities, boolean merge) {
+
+		Field field = relation.getField();
 
 		Object detachedEntity = null;
 		Optional<Object> optional = this.getDetachedObject(parentDetachedEntity, field);
@@ -362,8 +516,8 @@ public class DefaultLoadEntity<T, I extends Serializable> implements LoadEntity<
 					attachedEntity = ReflectionUtils.newInstance(clazz);
 				}
 				this.setFieldValue(parentAttachedEntity, field, attachedEntity);
-				EntityUtils.setMappedByFields(parentAttachedEntity, field, attachedEntity, false);
-				this.deepLoad(detachedEntity, attachedEntity, operationType, historyMap, merge);
+				EntityUtils.setMappedByFields(parentAttachedEntity, relation, attachedEntity, false);
+				this.deepLoad(detachedEntity, attachedEntity, operationType, historyMap, unchangedEntities, merge);
 
 			}
 			else {
@@ -376,7 +530,7 @@ public class DefaultLoadEntity<T, I extends Serializable> implements LoadEntity<
 			if (merge) {
 				// delete attached entity
 				this.setFieldValue(parentAttachedEntity, field, null);
-				EntityUtils.setMappedByFields(parentAttachedEntity, field, attachedEntity, true);
+				EntityUtils.setMappedByFields(parentAttachedEntity, relation, attachedEntity, true);
 				this.deleteEntity(attachedEntity);
 			}
 			else {
@@ -387,8 +541,30 @@ public class DefaultLoadEntity<T, I extends Serializable> implements LoadEntity<
 		else if (detachedEntity != null && attachedEntity != null) {
 
 			this.setFieldValue(parentAttachedEntity, field, attachedEntity);
-			EntityUtils.setMappedByFields(parentAttachedEntity, field, attachedEntity, false);
-			this.deepLoad(detachedEntity, attachedEntity, operationType, historyMap, merge);
+			EntityUtils.setMappedByFields(parentAttachedEntity, relation, attachedEntity, false);
+			this.deepLoad(detachedEntity, attachedEntity, operationType, historyMap, unchangedEntities, merge);
+		}
+	}
+
+	private Set<Object> findUnchanged(Collection<?> detachedRootEntities, OperationType operationType) {
+		if (!operationType.equals(OperationType.SAVE)) {
+			return Collections.emptySet();
+		}
+		return ApplicationContextUtils.getBean(EntitySnapshotCache.class)
+				.filter(EntitySnapshotCache::isEnabled)
+				.map(entitySnapshotCache -> entitySnapshotCache.findUnchanged(detachedRootEntities))
+				.orElseGet(Collections::emptySet);
+	}
+
+	/*
+	 * The merged state may differ from the one last read
+	 */
+	private void invalidateSnapshot(Object detachedEntity) {
+		Object id = this.getIdValue(detachedEntity);
+		if (id != null) {
+			Class<?> clazz = ReflectionUtils.getClass(detachedEntity);
+			ApplicationContextUtils.getBean(EntitySnapshotCache.class)
+					.ifPresent(entitySnapshotCache -> entitySnapshotCache.invalidate(clazz, id));
 		}
 	}
 
@@ -465,35 +641,51 @@ public class DefaultLoadEntity<T, I extends Serializable> implements LoadEntity<
 		}
 	}
 
+	/*
+	 * Entities whose tenancy is enforced by a Hibernate filter are loaded by a query with
+	 * their retrieve predicate, since the filter doesn't apply to finds by id. Like a find,
+	 * the query doesn't flush the entities being merged. Entities already managed, as the
+	 * prefetch leaves them, are not queried again
+	 */
 	private <N> Optional<N> loadEntity(Class<N> clazz, Object id) {
 		log.debug("LOAD {}[{}]", clazz.getName(), id);
-		Optional<N> entity = Optional.ofNullable(this.entityManager.find(clazz, id));
+		Optional<Predicate> tenancyPredicate = EntityTenancyFilterUtils.getFindPredicate(clazz);
+		Optional<N> entity;
+		if (tenancyPredicate.isEmpty()) {
+			entity = Optional.ofNullable(this.entityManager.find(clazz, id));
+		}
+		else {
+			entity = this.getManagedEntity(clazz, id);
+			if (entity.isEmpty()) {
+				PathBuilder<N> pathBuilder = new PathBuilder<>(clazz,
+						SimpleEntityPathResolver.INSTANCE.createPath(clazz).getMetadata());
+				entity = Optional.ofNullable(new JPAQuery<N>(this.entityManager).select(pathBuilder)
+						.from(pathBuilder)
+						.where(pathBuilder.get(EntityUtils.getIdField(clazz).getName()).eq(id), tenancyPredicate.get())
+						.setFlushMode(FlushModeType.COMMIT)
+						.fetchOne());
+			}
+		}
 		if (log.isDebugEnabled() && entity.isEmpty()) {
 			log.debug("Entity {}[{}] not found", clazz.getName(), id);
 		}
 		return entity;
 	}
 
+	private <N> Optional<N> getManagedEntity(Class<N> clazz, Object id) {
+		SessionImplementor session = this.entityManager.unwrap(SessionImplementor.class);
+		EntityPersister entityPersister = session.getFactory().getRuntimeMetamodels().getMappingMetamodel()
+				.getEntityDescriptor(clazz);
+		Object entity = session.getPersistenceContextInternal()
+				.getEntity(session.generateEntityKey(id, entityPersister));
+		return Optional.ofNullable(clazz.cast(entity));
+	}
+
 	private void deleteEntity(Object entity) {
 		this.entityManager.remove(entity);
 		log.debug(String.format("DELETE %s[%s]", entity.getClass().getName(), entity));
 	}
 
-	private <N> Optional<N> findEntity(Collection<N> collection, N entity) {
-		try {
-			Optional<N> result = EntityUtils.findEntity(collection, entity);
-			if (log.isDebugEnabled() && result.isEmpty()) {
-				log.warn("Entity {}[{}] not found in collection {}", entity.getClass(), this.getIdValue(entity),
-						collection.toString());
-			}
-			return result;
-		}
-		catch (Exception exception) {
-			throw new UnexpectedException("Unable to get entity %s[%s] in collection %s", exception, entity.getClass(),
-					this.getIdValue(entity), collection.toString());
-		}
-	}
-
 	private Object getIdValue(Object entity) {
 		try {
 			return EntityUtils.getIdValue(entity);
@@ -545,4 +737,33 @@ public class DefaultLoadEntity<T, I extends Serializable> implements LoadEntity<
 				this.getFieldValue(attachedEntity, field, true), this.getFieldValue(detachedEntity, field, true)));
 	}
 
+	private final class EntityIndex {
+
+		private final Map<Object, Object> entityMap = new HashMap<>();
+
+		private final Map<Object, Object> idValueMap = new IdentityHashMap<>();
+
+		private EntityIndex(Collection<Object> collection) {
+			for (Object entity : collection) {
+				Object idValue = DefaultLoadEntity.this.getIdValue(entity);
+				this.idValueMap.put(entity, idValue);
+				if (idValue != null) {
+					this.entityMap.putIfAbsent(idValue, entity);
+				}
+			}
+		}
+
+		private Object getIdValue(Object entity) {
+			return this.idValueMap.get(entity);
+		}
+
+		private Object find(Object entity, Object idValue) {
+			if (idValue != null) {
+				return this.entityMap.get(idValue);
+			}
+			return this.idValueMap.containsKey(entity) ? entity : null;
+		}
+
+	}
+
 }
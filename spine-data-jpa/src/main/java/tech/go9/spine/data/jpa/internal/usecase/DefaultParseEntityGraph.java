@@ -22,6 +22,7 @@ import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.hibernate.graph.spi.RootGraphImplementor;
 import org.springframework.data.util.Pair;
 import org.springframework.util.Assert;
 
@@ -31,6 +32,8 @@ import jakarta.persistence.Subgraph;
 import jakarta.persistence.metamodel.EntityType;
 import lombok.extern.slf4j.Slf4j;
 import tech.go9.spine.data.jpa.api.usecase.ParseEntityGraph;
+import tech.go9.spine.data.jpa.internal.model.CompiledEntityGraph;
+import tech.go9.spine.data.jpa.internal.util.FetchJoinUtils;
 
 @Slf4j
 public class DefaultParseEntityGraph implements ParseEntityGraph {
@@ -99,7 +102,10 @@ public class DefaultParseEntityGraph implements ParseEntityGraph {
 		log.debug("EntityGraph expression: " + expression + " successfully transformed to EntityGraph: " + entityGraph
 				+ " for class: " + type.getName());
 
-		return entityGraph;
+		RootGraphImplementor<T> immutableEntityGraph = ((RootGraphImplementor<T>) entityGraph).makeRootGraph(null,
+				false);
+		return new CompiledEntityGraph<>(immutableEntityGraph,
+				FetchJoinUtils.createFetchJoins(type, immutableEntityGraph.getAttributeNodes()));
 	}
 
 	private void addSubgraph(EntityManager entityManager, Subgraph subGraph, Map<String, Object> node) {
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.util;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.hibernate.envers.query.AuditEntity;
+import org.hibernate.envers.query.criteria.AuditCriterion;
+import org.hibernate.envers.query.criteria.AuditProperty;
+import org.hibernate.envers.query.criteria.AuditRelatedId;
+import org.hibernate.envers.query.order.AuditOrder;
+import org.springframework.data.domain.Sort;
+
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+
+import tech.go9.spine.core.api.exception.UnexpectedException;
+import tech.go9.spine.data.jpa.internal.configuration.SpineDataJpaConstants;
+
+/*
+ * Translates Querydsl predicates into Envers criteria, so filters run against the audit
+ * tables in SQL. Only comparisons of root attributes, or of the id of a to-one relation,
+ * with constants can be translated
+ */
+public final class AuditCriterionUtils {
+
+	private AuditCriterionUtils() {
+
+	}
+
+	public static AuditCriterion toAuditCriterion(Class<?> entityClazz, Predicate predicate) {
+		if (!(predicate instanceof Operation)) {
+			throw createInvalidPredicateException(entityClazz, predicate);
+		}
+		Operation<?> operation = (Operation<?>) predicate;
+		Ops operator = operation.getOperator() instanceof Ops ? (Ops) operation.getOperator() : null;
+		if (operator == null) {
+			throw createInvalidPredicateException(entityClazz, predicate);
+		}
+		switch (operator) {
+			case AND:
+				return AuditEntity.and(toAuditCriterion(entityClazz, (Predicate) operation.getArg(0)),
+						toAuditCriterion(entityClazz, (Predicate) operation.getArg(1)));
+			case OR:
+				return AuditEntity.or(toAuditCriterion(entityClazz, (Predicate) operation.getArg(0)),
+						toAuditCriterion(entityClazz, (Predicate) operation.getArg(1)));
+			case NOT:
+				return AuditEntity.not(toAuditCriterion(entityClazz, (Predicate) operation.getArg(0)));
+			default:
+				return toComparisonCriterion(entityClazz, operation, operator);
+		}
+	}
+
+	public static List<AuditOrder> toAuditOrders(Class<?> entityClazz, Sort sort) {
+		List<AuditOrder> auditOrders = new ArrayList<>();
+		for (Sort.Order order : sort) {
+			if (!EntityUtils.getDescriptor(entityClazz).getNonRelationalFieldMap().containsKey(order.getProperty())
+					&& !isIdField(entityClazz, order.getProperty())) {
+				throw new UnexpectedException(SpineDataJpaConstants.BAD_REQUEST_STATUS,
+						SpineDataJpaConstants.MESSAGES_BUNDLE, "INVALID_SORT_PROPERTY", Optional.empty(),
+						order.getProperty(), entityClazz.getName());
+			}
+			AuditProperty<Object> auditProperty = createAuditProperty(entityClazz, order.getProperty());
+			auditOrders.add(order.isDescending() ? auditProperty.desc() : auditProperty.asc());
+		}
+		return auditOrders;
+	}
+
+	private static AuditCriterion toComparisonCriterion(Class<?> entityClazz, Operation<?> operation, Ops operator) {
+		if (!(operation.getArg(0) instanceof Path)) {
+			throw createInvalidPredicateException(entityClazz, operation);
+		}
+		Path<?> path = (Path<?>) operation.getArg(0);
+		List<Object> values = getConstants(entityClazz, operation);
+		if (isRelatedIdPath(path)) {
+			return toRelatedIdCriterion(entityClazz, operation, operator, path, values);
+		}
+		if (path.getMetadata().getParent() == null || !path.getMetadata().getParent().getMetadata().isRoot()) {
+			throw createInvalidPredicateException(entityClazz, operation);
+		}
+		AuditProperty<Object> auditProperty = createAuditProperty(entityClazz, path.getMetadata().getName());
+		switch (operator) {
+			case EQ:
+				return auditProperty.eq(values.get(0));
+			case NE:
+				return auditProperty.ne(values.get(0));
+			case LT:
+				return auditProperty.lt(values.get(0));
+			case GT:
+				return auditProperty.gt(values.get(0));
+			case LOE:
+				return auditProperty.le(values.get(0));
+			case GOE:
+				return auditProperty.ge(values.get(0));
+			case BETWEEN:
+				return auditProperty.between(values.get(0), values.get(1));
+			case IN:
+				return auditProperty.in(values);
+			case NOT_IN:
+				return AuditEntity.not(auditProperty.in(values));
+			case IS_NULL:
+				return auditProperty.isNull();
+			case IS_NOT_NULL:
+				return auditProperty.isNotNull();
+			case LIKE:
+				return auditProperty.like(String.valueOf(values.get(0)));
+			case LIKE_IC:
+				return auditProperty.ilike(String.valueOf(values.get(0)));
+			case EQ_IGNORE_CASE:
+				return auditProperty.ilike(escapeLike(values.get(0)));
+			case STARTS_WITH:
+				return auditProperty.like(escapeLike(values.get(0)) + "%");
+			case STARTS_WITH_IC:
+				return auditProperty.ilike(escapeLike(values.get(0)) + "%");
+			case ENDS_WITH:
+				return auditProperty.like("%" + escapeLike(values.get(0)));
+			case ENDS_WITH_IC:
+				return auditProperty.ilike("%" + escapeLike(values.get(0)));
+			case STRING_CONTAINS:
+				return auditProperty.like("%" + escapeLike(values.get(0)) + "%");
+			case STRING_CONTAINS_IC:
+				return auditProperty.ilike("%" + escapeLike(values.get(0)) + "%");
+			default:
+				throw createInvalidPredicateException(entityClazz, operation);
+		}
+	}
+
+	private static AuditCriterion toRelatedIdCriterion(Class<?> entityClazz, Operation<?> operation, Ops operator,
+			Path<?> path, List<Object> values) {
+		AuditRelatedId auditRelatedId = AuditEntity.relatedId(path.getMetadata().getParent().getMetadata().getName());
+		switch (operator) {
+			case EQ:
+				return auditRelatedId.eq(values.get(0));
+			case NE:
+				return auditRelatedId.ne(values.get(0));
+			case IN:
+				return auditRelatedId.in(values.toArray());
+			case NOT_IN:
+				return AuditEntity.not(auditRelatedId.in(values.toArray()));
+			default:
+				throw createInvalidPredicateException(entityClazz, operation);
+		}
+	}
+
+	/*
+	 * Collection constants, as in IN predicates, are flattened into their elements
+	 */
+	private static List<Object> getConstants(Class<?> entityClazz, Operation<?> operation) {
+		List<Object> values = new ArrayList<>();
+		for (Expression<?> argument : operation.getArgs().subList(1, operation.getArgs().size())) {
+			if (!(argument instanceof Constant)) {
+				throw createInvalidPredicateException(entityClazz, operation);
+			}
+			Object value = ((Constant<?>) argument).getConstant();
+			if (value instanceof Collection) {
+				values.addAll((Collection<?>) value);
+			}
+			else {
+				values.add(value);
+			}
+		}
+		return values;
+	}
+
+	/*
+	 * Envers renders likes without an escape clause, so the wildcards of a value matched
+	 * literally are escaped with the backslash, the default escape of PostgreSQL and H2
+	 */
+	private static String escapeLike(Object value) {
+		return String.valueOf(value).replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+
+	private static boolean isRelatedIdPath(Path<?> path) {
+		Path<?> parent = path.getMetadata().getParent();
+		if (parent == null || parent.getMetadata().isRoot() || parent.getMetadata().getParent() == null
+				|| !parent.getMetadata().getParent().getMetadata().isRoot()) {
+			return false;
+		}
+		return isIdField(parent.getType(), path.getMetadata().getName());
+	}
+
+	private static boolean isIdField(Class<?> entityClazz, String name) {
+		Field idField = EntityUtils.getDescriptor(entityClazz).getIdField();
+		return idField != null && idField.getName().equals(name);
+	}
+
+	private static AuditProperty<Object> createAuditProperty(Class<?> entityClazz, String name) {
+		return isIdField(entityClazz, name) ? AuditEntity.id() : AuditEntity.property(name);
+	}
+
+	private static UnexpectedException createInvalidPredicateException(Class<?> entityClazz, Object predicate) {
+		return new UnexpectedException(SpineDataJpaConstants.BAD_REQUEST_STATUS, SpineDataJpaConstants.MESSAGES_BUNDLE,
+				"INVALID_AS_OF_PREDICATE", Optional.empty(), predicate, entityClazz.getName());
+	}
+
+}
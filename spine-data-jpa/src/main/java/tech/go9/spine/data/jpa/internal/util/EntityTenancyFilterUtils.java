@@ -15,87 +15,78 @@
  */
 package tech.go9.spine.data.jpa.internal.util;
 
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Set;
 
 import com.querydsl.core.types.Predicate;
 
+import jakarta.persistence.EntityManager;
 import tech.go9.spine.core.api.util.ApplicationContextUtils;
 import tech.go9.spine.data.jpa.api.tenancy.TenancyFilter;
+import tech.go9.spine.data.jpa.internal.component.TenancyFilterRegistry;
 
 public final class EntityTenancyFilterUtils {
 
-	private static Map<String, TenancyFilter<?>> entityTenancyFilterMap;
+	private static volatile TenancyFilterRegistry tenancyFilterRegistry;
 
 	private EntityTenancyFilterUtils() {
 
 	}
 
+	/*
+	 * Called when the registry bean is created, so requests never build it
+	 */
+	public static void initialize(TenancyFilterRegistry tenancyFilterRegistry) {
+		EntityTenancyFilterUtils.tenancyFilterRegistry = tenancyFilterRegistry;
+	}
+
 	public static <T> Optional<Predicate> getRetrievePredicate(Class<T> entityClazz) {
-		TenancyFilter<T> entityTenancyFilter = getEntityTenancyFilter(entityClazz);
-		if (entityTenancyFilter != null) {
-			return entityTenancyFilter.getRetrievePredicate();
-		}
-		else {
-			return Optional.empty();
-		}
+		return getTenancyFilterRegistry().getRetrievePredicate(entityClazz);
+	}
+
+	public static <T> Optional<Predicate> getFindPredicate(Class<T> entityClazz) {
+		return getTenancyFilterRegistry().getFindPredicate(entityClazz);
 	}
 
 	public static <T> Optional<Predicate> getSavePredicate(Class<T> entityClazz) {
-		TenancyFilter<T> entityTenancyFilter = getEntityTenancyFilter(entityClazz);
-		if (entityTenancyFilter != null) {
-			return entityTenancyFilter.getSavePredicate();
-		}
-		else {
-			return Optional.empty();
-		}
+		return getTenancyFilterRegistry().getSavePredicate(entityClazz);
 	}
 
 	public static <T> Optional<Predicate> getDeletePredicate(Class<T> entityClazz) {
-		TenancyFilter<T> entityTenancyFilter = getEntityTenancyFilter(entityClazz);
-		if (entityTenancyFilter != null) {
-			return entityTenancyFilter.getDeletePredicate();
-		}
-		else {
-			return Optional.empty();
-		}
+		return getTenancyFilterRegistry().getDeletePredicate(entityClazz);
 	}
 
-	@SuppressWarnings("unchecked")
-	private static <T> TenancyFilter<T> getEntityTenancyFilter(Class<T> entityClazz) {
-		if (EntityTenancyFilterUtils.entityTenancyFilterMap == null) {
-			loadEntityTenancyFilters();
-		}
-		return (TenancyFilter<T>) entityTenancyFilterMap.get(entityClazz.getName());
+	public static void enableHibernateFilters(EntityManager entityManager) {
+		getTenancyFilterRegistry().enableHibernateFilters(entityManager);
 	}
 
-	private static void loadEntityTenancyFilters() {
-		EntityTenancyFilterUtils.entityTenancyFilterMap = new HashMap<>();
-		Map<String, TenancyFilter<?>> entityTenancyFilterMap = ApplicationContextUtils.getBeans(TenancyFilter.class);
-		for (Entry<String, TenancyFilter<?>> entityTenancyFilterMapEntry : entityTenancyFilterMap.entrySet()) {
-			TenancyFilter<?> entityTenancyFilter = entityTenancyFilterMapEntry.getValue();
-			getType(entityTenancyFilter.getClass()).ifPresent(type -> EntityTenancyFilterUtils.entityTenancyFilterMap
-					.put(type.getTypeName(), entityTenancyFilter));
-		}
+	public static Set<String> disableHibernateFilters(EntityManager entityManager) {
+		return getTenancyFilterRegistry().disableHibernateFilters(entityManager);
 	}
 
-	private static Optional<Type> getType(Class<?> clazz) {
-		Type[] types = clazz.getGenericInterfaces();
-		for (Type type : types) {
-			ParameterizedType parameterizedType = (ParameterizedType) type;
-			if (parameterizedType.getRawType().getTypeName().equals(TenancyFilter.class.getName())) {
-				return Optional.of(parameterizedType.getActualTypeArguments()[0]);
-			}
+	public static void restoreHibernateFilters(EntityManager entityManager, Set<String> filterNames) {
+		getTenancyFilterRegistry().restoreHibernateFilters(entityManager, filterNames);
+	}
+
+	public static TenancyFilterRegistry getTenancyFilterRegistry() {
+		TenancyFilterRegistry registry = EntityTenancyFilterUtils.tenancyFilterRegistry;
+		if (registry != null) {
+			return registry;
 		}
-		Class<?> superClazz = clazz.getSuperclass();
-		if (superClazz != null) {
-			return getType(superClazz);
+		synchronized (EntityTenancyFilterUtils.class) {
+			if (EntityTenancyFilterUtils.tenancyFilterRegistry == null) {
+				EntityTenancyFilterUtils.tenancyFilterRegistry = ApplicationContextUtils
+						.getBean(TenancyFilterRegistry.class)
+						.orElseGet(EntityTenancyFilterUtils::createTenancyFilterRegistry);
+			}
+			return EntityTenancyFilterUtils.tenancyFilterRegistry;
 		}
-		return Optional.empty();
+	}
+
+	private static TenancyFilterRegistry createTenancyFilterRegistry() {
+		Map<String, TenancyFilter<?>> tenancyFilterMap = ApplicationContextUtils.getBeans(TenancyFilter.class);
+		return new TenancyFilterRegistry(tenancyFilterMap.values(), false);
 	}
 
 }
@@ -17,67 +17,56 @@ package tech.go9.spine.data.jpa.internal.util;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.hibernate.engine.spi.SelfDirtinessTracker;
 
-import jakarta.persistence.Id;
-import jakarta.persistence.ManyToMany;
-import jakarta.persistence.ManyToOne;
-import jakarta.persistence.OneToMany;
-import jakarta.persistence.OneToOne;
+import jakarta.persistence.metamodel.Attribute.PersistentAttributeType;
+import jakarta.persistence.metamodel.Metamodel;
+import jakarta.persistence.metamodel.Type;
 import tech.go9.spine.core.api.exception.UnexpectedException;
 import tech.go9.spine.core.api.util.ReflectionUtils;
+import tech.go9.spine.data.jpa.internal.model.EntityDescriptor;
+import tech.go9.spine.data.jpa.internal.model.RelationDescriptor;
 
 public class EntityUtils {
 
-	private static final Map<Class<?>, Field> idMap = new HashMap<>();
+	private static final Map<Class<?>, EntityDescriptor> descriptorMap = new ConcurrentHashMap<>();
 
-	private static final Map<Class<?>, List<Field>> nonRelationalFieldMap = new HashMap<>();
-
-	private static final Map<Class<?>, List<Field>> oneToManyFieldMap = new HashMap<>();
-
-	private static final Map<Class<?>, List<Field>> manyToManyFieldMap = new HashMap<>();
+	private EntityUtils() {
 
-	private static final Map<Class<?>, List<Field>> oneToOneFieldMap = new HashMap<>();
+	}
 
-	private static final Map<Class<?>, List<Field>> manyToOneFieldMap = new HashMap<>();
+	/*
+	 * Called while repositories are created, so every descriptor is complete before the
+	 * first request reads it
+	 */
+	public static void initialize(Metamodel metamodel) {
+		metamodel.getEntities().stream().map(Type::getJavaType).filter(Objects::nonNull)
+				.forEach(entityClazz -> descriptorMap.computeIfAbsent(entityClazz, EntityDescriptor::of));
+	}
 
-	private EntityUtils() {
+	public static EntityDescriptor getDescriptor(Class<?> entityClazz) {
+		EntityDescriptor entityDescriptor = descriptorMap.get(entityClazz);
+		if (entityDescriptor != null) {
+			return entityDescriptor;
+		}
+		return descriptorMap.computeIfAbsent(entityClazz, EntityUtils::createDescriptor);
+	}
 
+	public static <N> EntityDescriptor getDescriptor(final N entity) {
+		return getDescriptor(entity.getClass());
 	}
 
 	public static <N> Field getIdField(Class<N> entityClazz) {
-
 		if (entityClazz == null) {
 			return null;
 		}
-
-		Field idField = idMap.get(entityClazz);
-		if (idField != null) {
-			return idField;
-		}
-
-		for (Field field : entityClazz.getDeclaredFields()) {
-			if (field.isAnnotationPresent(Id.class)) {
-				idField = field;
-				idMap.put(entityClazz, idField);
-				break;
-			}
-		}
-
-		if (idField == null && entityClazz.getSuperclass() != Object.class) {
-			idField = getIdField(entityClazz.getSuperclass());
-		}
-
-		return idField;
+		return getDescriptor(entityClazz).getIdField();
 	}
 
 	public static <N, I> I getIdValue(N entity)
@@ -86,140 +75,14 @@ public class EntityUtils {
 		return (I) ReflectionUtils.getFieldValue(entity, field, true);
 	}
 
-	public static <N> Optional<N> findEntity(Collection<N> collection, N entity)
-			throws IllegalAccessException, InvocationTargetException, NoSuchMethodException {
-		if (collection != null && !collection.isEmpty()) {
-			Object referenceId = getIdValue(entity);
-			for (N currentEntity : collection) {
-				Object currentId = getIdValue(currentEntity);
-				if (currentEntity == entity || (referenceId != null && currentId != null
-						&& (currentId == referenceId || currentId.equals(referenceId)))) {
-					return Optional.of(currentEntity);
-				}
-			}
-		}
-		return Optional.empty();
-	}
-
-	public static <N> List<Field> getOneToManyFields(final N entity) {
-		return getOneToManyFields(entity.getClass());
-	}
-
-	public static List<Field> getOneToManyFields(Class<?> entityClazz) {
-		List<Field> fields = oneToManyFieldMap.get(entityClazz);
-		if (fields != null) {
-			return fields;
-		}
-		else {
-			fields = new ArrayList<>();
-			oneToManyFieldMap.put(entityClazz, fields);
-		}
-		for (Field field : ReflectionUtils.fildAllFields(entityClazz).values()) {
-			if (field.isAnnotationPresent(OneToMany.class) && !field.getName().equals("serialVersionUID")) {
-				fields.add(field);
-			}
-		}
-		return fields;
-	}
-
-	public static <N> List<Field> getManyToManyFields(final N entity) {
-		return getManyToManyFields(entity.getClass());
-	}
-
-	public static List<Field> getManyToManyFields(Class<?> entityClazz) {
-		List<Field> fields = manyToManyFieldMap.get(entityClazz);
-		if (fields != null) {
-			return fields;
-		}
-		else {
-			fields = new ArrayList<>();
-			manyToManyFieldMap.put(entityClazz, fields);
-		}
-		for (Field field : ReflectionUtils.fildAllFields(entityClazz).values()) {
-			if (field.isAnnotationPresent(ManyToMany.class) && !field.getName().equals("serialVersionUID")) {
-				fields.add(field);
-			}
-		}
-		return fields;
-	}
-
-	public static <N> List<Field> getOneToOneFields(final N entity) {
-		return getOneToOneFields(entity.getClass());
-	}
-
-	public static List<Field> getOneToOneFields(Class<?> entityClazz) {
-		List<Field> fields = oneToOneFieldMap.get(entityClazz);
-		if (fields != null) {
-			return fields;
-		}
-		else {
-			fields = new ArrayList<>();
-			oneToOneFieldMap.put(entityClazz, fields);
-		}
-		for (Field field : ReflectionUtils.fildAllFields(entityClazz).values()) {
-			if (field.isAnnotationPresent(OneToOne.class) && !field.getName().equals("serialVersionUID")) {
-				fields.add(field);
-			}
-		}
-		return fields;
-	}
-
-	public static <N> List<Field> getManyToOneFields(final N entity) {
-		return getManyToOneFields(entity.getClass());
-	}
-
-	public static List<Field> getManyToOneFields(Class<?> entityClazz) {
-		List<Field> fields = manyToOneFieldMap.get(entityClazz);
-		if (fields != null) {
-			return fields;
-		}
-		else {
-			fields = new ArrayList<>();
-			manyToOneFieldMap.put(entityClazz, fields);
-		}
-		for (Field field : ReflectionUtils.fildAllFields(entityClazz).values()) {
-			if (field.isAnnotationPresent(ManyToOne.class) && !field.getName().equals("serialVersionUID")) {
-				fields.add(field);
-			}
-		}
-		return fields;
-	}
-
-	public static <N> List<Field> getNonRelationalFields(final N entity) {
-		return getNonRelationalFields(entity.getClass());
-	}
-
-	public static List<Field> getNonRelationalFields(Class<?> entityClazz) {
-
-		List<Field> fields = nonRelationalFieldMap.get(entityClazz);
-		if (fields != null) {
-			return fields;
-		}
-		else {
-			fields = new ArrayList<>();
-			nonRelationalFieldMap.put(entityClazz, fields);
-		}
-
-		ReflectionUtils
-				.fildAllFields(entityClazz).values().stream().filter(field -> !isRelationalField(field)
-						&& !field.isAnnotationPresent(Id.class) && !Modifier.isStatic(field.getModifiers()))
-				.map(fields::add).collect(Collectors.toList());
-
-		return fields;
-	}
-
-	public static boolean isRelationalField(Field field) {
-		return field.isAnnotationPresent(OneToMany.class) || field.isAnnotationPresent(OneToOne.class)
-				|| field.isAnnotationPresent(ManyToOne.class) || field.isAnnotationPresent(ManyToMany.class);
-	}
-
 	public static Collection<Field> getDirtyFields(SelfDirtinessTracker selfDirtinessTracker) {
 		Collection<Field> fields = new ArrayList<>();
 		String[] dirtyAttributes = selfDirtinessTracker.$$_hibernate_getDirtyAttributes();
 		if (dirtyAttributes != null) {
-			for (String attributeName : selfDirtinessTracker.$$_hibernate_getDirtyAttributes()) {
-				Field field = ReflectionUtils.findField(selfDirtinessTracker.getClass(), attributeName);
-				if (!field.isAnnotationPresent(Id.class) && !EntityUtils.isRelationalField(field)) {
+			Map<String, Field> nonRelationalFieldMap = getDescriptor(selfDirtinessTracker).getNonRelationalFieldMap();
+			for (String attributeName : dirtyAttributes) {
+				Field field = nonRelationalFieldMap.get(attributeName);
+				if (field != null) {
 					fields.add(field);
 				}
 			}
@@ -227,107 +90,30 @@ public class EntityUtils {
 		return fields;
 	}
 
-	public static void setMappedByFields(Object fromEntity, Field field, Object toEntity, boolean setNull) {
-		if (field.isAnnotationPresent(OneToMany.class)) {
-			setOneToManyMappedByFields(fromEntity, field, toEntity, setNull);
-		}
-		else if (field.isAnnotationPresent(OneToOne.class)) {
-			setOneToOneMappedByFields(fromEntity, field, toEntity, setNull);
-		}
-		else if (field.isAnnotationPresent(ManyToOne.class)) {
-			setManyToOneMappedByFields(fromEntity, field, toEntity, setNull);
-		}
-	}
-
-	public static void setOneToManyMappedByFields(Object fromEntity, Field field, Object toEntity, boolean setNull) {
-		OneToMany oneToMany = field.getAnnotation(OneToMany.class);
-		String mappedBy = oneToMany.mappedBy();
-		if (!mappedBy.isBlank()) {
-			Field mappedByField = ReflectionUtils.findField(toEntity.getClass(), mappedBy);
-			if (setNull) {
-				setFieldValue(toEntity, mappedByField, null);
+	public static void setMappedByFields(Object fromEntity, RelationDescriptor relation, Object toEntity,
+			boolean setNull) {
+		relation.getMappedByField().ifPresent(mappedByField -> {
+			if (relation.getType() == PersistentAttributeType.MANY_TO_ONE) {
+				setFieldValue(fromEntity, mappedByField, setNull ? null : toEntity);
 			}
 			else {
-				setFieldValue(toEntity, mappedByField, fromEntity);
+				setFieldValue(toEntity, mappedByField, setNull ? null : fromEntity);
 			}
-		}
-	}
-
-	public static void setOneToOneMappedByFields(Object fromEntity, Field field, Object toEntity, boolean setNull) {
-
-		OneToOne oneToOne = field.getAnnotation(OneToOne.class);
-		if (oneToOne != null) {
-
-			String mappedBy = oneToOne.mappedBy();
-			if (!mappedBy.isBlank()) {
-
-				Field mappedByField = ReflectionUtils.findField(toEntity.getClass(), mappedBy);
-				if (setNull) {
-					setFieldValue(toEntity, mappedByField, null);
-				}
-				else {
-					setFieldValue(toEntity, mappedByField, fromEntity);
-				}
-
-			}
-			else {
-
-				for (Map.Entry<String, Field> toEntityFieldEntry : ReflectionUtils.fildAllFields(toEntity.getClass())
-						.entrySet()) {
-
-					Field toEntityField = toEntityFieldEntry.getValue();
-					if (toEntityField.getType().equals(fromEntity.getClass())) {
-
-						OneToOne childOneToOne = field.getAnnotation(OneToOne.class);
-						if (childOneToOne != null) {
-
-							String childMappedBy = oneToOne.mappedBy();
-							if (!mappedBy.isBlank() && field.getName().equals(childMappedBy)) {
-
-								if (setNull) {
-									setFieldValue(toEntity, toEntityField, null);
-								}
-								else {
-									setFieldValue(toEntity, toEntityField, fromEntity);
-								}
-							}
-						}
-					}
-				}
-			}
-		}
-	}
-
-	public static void setManyToOneMappedByFields(Object fromEntity, Field field, Object toEntity, boolean setNull) {
-
-		ManyToOne manyToOne = field.getAnnotation(ManyToOne.class);
-		if (manyToOne != null) {
-
-			for (Map.Entry<String, Field> toEntityFieldEntry : ReflectionUtils.fildAllFields(toEntity.getClass())
-					.entrySet()) {
-
-				Field toEntityField = toEntityFieldEntry.getValue();
-				if (Collection.class.isAssignableFrom(toEntityField.getType())
-						&& ReflectionUtils.getCollectionType(toEntityField).equals(fromEntity.getClass())) {
-
-					OneToMany oneToMany = toEntityField.getAnnotation(OneToMany.class);
-					if (oneToMany != null) {
-
-						String mappedBy = oneToMany.mappedBy();
-						if (!mappedBy.isBlank() && field.getName().equals(mappedBy)) {
-							Field mappedByField = ReflectionUtils.findField(fromEntity.getClass(), mappedBy);
-							if (setNull) {
-								setFieldValue(fromEntity, mappedByField, null);
-							}
-							else {
-								setFieldValue(fromEntity, mappedByField, toEntity);
-							}
-							break;
-						}
-					}
-				}
+		});
+	}
+
+	/*
+	 * Proxies and enhanced subclasses share the descriptor of the mapped entity class
+	 */
+	private static EntityDescriptor createDescriptor(Class<?> clazz) {
+		for (Class<?> superClazz = clazz.getSuperclass(); superClazz != null
+				&& superClazz != Object.class; superClazz = superClazz.getSuperclass()) {
+			EntityDescriptor entityDescriptor = descriptorMap.get(superClazz);
+			if (entityDescriptor != null) {
+				return entityDescriptor;
 			}
 		}
+		return EntityDescriptor.of(clazz);
 	}
 
 	private static void setFieldValue(Object object, Field field, Object value) {
@@ -336,7 +122,7 @@ public class EntityUtils {
 		}
 		catch (Exception exception) {
 			throw new UnexpectedException("Unable to set %s.%s -> %s", exception, object.getClass().getName(),
-					field.getName(), value.toString());
+					field.getName(), String.valueOf(value));
 		}
 	}
 
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.util;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.hibernate.graph.internal.AbstractGraph;
+import org.hibernate.graph.internal.AttributeNodeImpl;
+import org.springframework.data.querydsl.SimpleEntityPathResolver;
+
+import com.querydsl.core.types.CollectionExpression;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.core.types.dsl.SimplePath;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.JPQLQuery;
+
+import jakarta.persistence.AttributeNode;
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.ManyToMany;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Subgraph;
+import tech.go9.spine.core.api.exception.UnexpectedException;
+import tech.go9.spine.core.api.util.ReflectionUtils;
+import tech.go9.spine.data.jpa.internal.model.CompiledEntityGraph;
+import tech.go9.spine.data.jpa.internal.model.FetchJoin;
+
+public final class FetchJoinUtils {
+
+	private static final String JOINED_ALIAS_PREFIX = "joined_";
+
+	private FetchJoinUtils() {
+
+	}
+
+	public static List<FetchJoin> getFetchJoins(Class<?> clazz, EntityGraph<?> entityGraph) {
+		if (entityGraph instanceof CompiledEntityGraph) {
+			return ((CompiledEntityGraph<?>) entityGraph).getFetchJoins();
+		}
+		return createFetchJoins(clazz, entityGraph.getAttributeNodes());
+	}
+
+	public static List<FetchJoin> createFetchJoins(Class<?> clazz, List<AttributeNode<?>> attributeNodes) {
+		List<FetchJoin> fetchJoins = new ArrayList<>();
+		createFetchJoins(fetchJoins, clazz, getAlias(clazz), attributeNodes);
+		return fetchJoins;
+	}
+
+	/*
+	 * Tenancy predicates are resolved on each query, since they usually depend on the
+	 * current user
+	 */
+	public static void applyFetchJoins(JPQLQuery<?> jpqlQuery, List<FetchJoin> fetchJoins) {
+		for (FetchJoin fetchJoin : fetchJoins) {
+			fetchJoin.apply(jpqlQuery);
+			Optional<Predicate> optionalPredicate = EntityTenancyFilterUtils
+					.getRetrievePredicate(fetchJoin.getAttributeType());
+			if (optionalPredicate.isPresent()) {
+				jpqlQuery.where(optionalPredicate.get());
+			}
+		}
+	}
+
+	/*
+	 * Fetch joins drop the entities none of whose joined rows pass the tenancy predicates
+	 * of the joined types. Reads made without the joins, like the id and count phases of a
+	 * page, are restricted to the ids of the entities keeping a row. The subquery root has
+	 * an alias of its own, the joins keep theirs as the predicates are written against them
+	 */
+	public static <I> Optional<Predicate> createJoinedTenancyPredicate(Class<?> clazz, SimplePath<I> idPath,
+			EntityGraph<?> entityGraph) {
+		List<FetchJoin> fetchJoins = getFetchJoins(clazz, entityGraph);
+		if (fetchJoins.stream()
+				.noneMatch(fetchJoin -> EntityTenancyFilterUtils.getRetrievePredicate(fetchJoin.getAttributeType())
+						.isPresent())) {
+			return Optional.empty();
+		}
+		String alias = JOINED_ALIAS_PREFIX + getAlias(clazz);
+		PathBuilder<?> joinedRootPath = new PathBuilder<>(clazz, alias);
+		JPQLQuery<? extends I> subquery = JPAExpressions
+				.select(Expressions.path(idPath.getType(), joinedRootPath, idPath.getMetadata().getName()))
+				.from(joinedRootPath);
+		List<FetchJoin> joins = new ArrayList<>();
+		createFetchJoins(joins, clazz, alias, entityGraph.getAttributeNodes());
+		for (FetchJoin join : joins) {
+			join.join(subquery);
+			EntityTenancyFilterUtils.getRetrievePredicate(join.getAttributeType())
+					.ifPresent(predicate -> subquery.where(predicate));
+		}
+		return Optional.of(ExpressionUtils.in(idPath, subquery));
+	}
+
+	/*
+	 * Only the attributes of the entity read are joined from the given alias, nested ones
+	 * join from the default alias of their owner
+	 */
+	private static void createFetchJoins(List<FetchJoin> fetchJoins, Class<?> clazz, String alias,
+			List<AttributeNode<?>> attributeNodes) {
+		attributeNodes.forEach((AttributeNode<?> attributeNode) -> {
+
+			AttributeNodeImpl<?> attributeNodeImpl = (AttributeNodeImpl<?>) attributeNode;
+			String attributeName = attributeNodeImpl.getAttributeName();
+			Class<?> attributeType = attributeNodeImpl.getAttributeDescriptor().getJavaType();
+			if (Collection.class.isAssignableFrom(attributeType)) {
+				Field field = ReflectionUtils.findField(clazz, attributeName);
+				attributeType = ReflectionUtils.getCollectionType(field);
+			}
+
+			if (attributeNode.getSubgraphs().isEmpty()) {
+				fetchJoins.add(createFetchJoin(clazz, alias, attributeName, attributeType));
+			}
+			else {
+
+				for (Subgraph<?> subgraph : attributeNode.getSubgraphs().values()) {
+					AbstractGraph<?> abstractGraph = (AbstractGraph<?>) subgraph;
+					attributeType = abstractGraph.getGraphedType().getJavaType();
+					fetchJoins.add(createFetchJoin(clazz, alias, attributeName, attributeType));
+					createFetchJoins(fetchJoins, attributeType, getAlias(attributeType), subgraph.getAttributeNodes());
+				}
+			}
+		});
+	}
+
+	private static <A, B> FetchJoin createFetchJoin(Class<A> clazz, String alias, String attributeName,
+			Class<B> attributeType) {
+		Field field = ReflectionUtils.findField(clazz, attributeName);
+		// TODO ver a cardinalidade para determinar left join
+		if (field.isAnnotationPresent(OneToOne.class) || field.isAnnotationPresent(ManyToOne.class)) {
+			return new FetchJoin(createEntityPath(clazz, alias, attributeName, attributeType), null,
+					createPath(attributeType), attributeType);
+		}
+		else if (field.isAnnotationPresent(OneToMany.class) || field.isAnnotationPresent(ManyToMany.class)) {
+			return new FetchJoin(null, createCollectionExpression(clazz, alias, attributeName, attributeType),
+					createPath(attributeType), attributeType);
+		}
+		else {
+			throw new UnexpectedException("TBD");
+		}
+	}
+
+	private static <A, B> CollectionExpression<?, B> createCollectionExpression(Class<A> clazz, String alias,
+			String attributeName, Class<B> attributeType) {
+		PathBuilder<A> pathBuilder = new PathBuilder<>(clazz, alias);
+		Field field = ReflectionUtils.findField(clazz, attributeName);
+		CollectionExpression<?, B> collectionExpression = null;
+		if (field.getType().isAssignableFrom(Set.class)) {
+			collectionExpression = pathBuilder.getSet(attributeName, attributeType);
+		}
+		else if (field.getType().isAssignableFrom(List.class)) {
+			collectionExpression = pathBuilder.getList(attributeName, attributeType);
+		}
+		else if (field.getType().isAssignableFrom(Collection.class)) {
+			collectionExpression = pathBuilder.getCollection(attributeName, attributeType);
+		}
+		return collectionExpression;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <A, B> EntityPath<B> createEntityPath(Class<A> clazz, String alias, String attributeName,
+			Class<B> attributeType) {
+		PathBuilder<A> pathBuilder = new PathBuilder<>(clazz, alias);
+		return (EntityPath<B>) pathBuilder.get(attributeName, attributeType);
+	}
+
+	private static <B> Path<B> createPath(Class<B> attributeType) {
+		return SimpleEntityPathResolver.INSTANCE.createPath(attributeType);
+	}
+
+	private static String getAlias(Class<?> clazz) {
+		return QuerydslUtils.createRootPath(clazz).getMetadata().getName();
+	}
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.util;
+
+import java.time.temporal.Temporal;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import com.querydsl.core.DefaultQueryMetadata;
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.JoinFlag;
+import com.querydsl.core.QueryFlag;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.support.ReplaceVisitor;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.dsl.Param;
+
+import tech.go9.spine.data.jpa.internal.model.ParameterizedQuery;
+
+public final class QueryShapeUtils {
+
+	private static final String PARAM_PREFIX = "spineConstant";
+
+	/*
+	 * The serializer rewrites constants of these operations (like escaping, literal cast
+	 * types and case literals), which a parameter can't reproduce
+	 */
+	private static final Set<Operator> LITERAL_OPERATORS = Set.of(Ops.STARTS_WITH, Ops.STARTS_WITH_IC, Ops.ENDS_WITH,
+			Ops.ENDS_WITH_IC, Ops.STRING_CONTAINS, Ops.STRING_CONTAINS_IC, Ops.LIKE_ESCAPE, Ops.LIKE_ESCAPE_IC,
+			Ops.MATCHES, Ops.MATCHES_IC, Ops.NUMCAST, Ops.INSTANCE_OF, Ops.CASE, Ops.CASE_WHEN, Ops.CASE_ELSE,
+			Ops.CASE_EQ, Ops.CASE_EQ_WHEN, Ops.CASE_EQ_ELSE, Ops.SUBSTR_1ARG, Ops.SUBSTR_2ARGS, Ops.CHAR_AT,
+			Ops.StringOps.LOCATE, Ops.StringOps.LOCATE2);
+
+	private QueryShapeUtils() {
+
+	}
+
+	/**
+	 * Replaces the scalar and collection constants of join conditions, where and having
+	 * clauses by parameters, so queries differing only by those values share the same
+	 * JPQL. Projections and orderings are kept as they are.
+	 */
+	public static ParameterizedQuery parameterize(QueryMetadata metadata) {
+		ConstantReplaceVisitor visitor = new ConstantReplaceVisitor();
+		DefaultQueryMetadata parameterizedMetadata = new DefaultQueryMetadata();
+		parameterizedMetadata.setValidate(false);
+		for (JoinExpression joinExpression : metadata.getJoins()) {
+			parameterizedMetadata.addJoin(joinExpression.getType(), joinExpression.getTarget());
+			if (joinExpression.getCondition() != null) {
+				parameterizedMetadata.addJoinCondition(visitor.replace(joinExpression.getCondition()));
+			}
+			for (JoinFlag joinFlag : joinExpression.getFlags()) {
+				parameterizedMetadata.addJoinFlag(joinFlag);
+			}
+		}
+		if (metadata.getWhere() != null) {
+			parameterizedMetadata.addWhere(visitor.replace(metadata.getWhere()));
+		}
+		for (Expression<?> groupBy : metadata.getGroupBy()) {
+			parameterizedMetadata.addGroupBy(groupBy);
+		}
+		if (metadata.getHaving() != null) {
+			parameterizedMetadata.addHaving(visitor.replace(metadata.getHaving()));
+		}
+		for (OrderSpecifier<?> orderSpecifier : metadata.getOrderBy()) {
+			parameterizedMetadata.addOrderBy(orderSpecifier);
+		}
+		for (QueryFlag queryFlag : metadata.getFlags()) {
+			parameterizedMetadata.addFlag(queryFlag);
+		}
+		parameterizedMetadata.setProjection(metadata.getProjection());
+		parameterizedMetadata.setDistinct(metadata.isDistinct());
+		parameterizedMetadata.setModifiers(metadata.getModifiers());
+		Map<ParamExpression<?>, Object> params = new HashMap<>(metadata.getParams());
+		params.putAll(visitor.params);
+		return new ParameterizedQuery(parameterizedMetadata, params);
+	}
+
+	/*
+	 * Booleans are left as constants, since they may stand for predicates. Collections are
+	 * bound as a single parameter either way, so their values and size stay out of the
+	 * shape, except for empty ones which the serializer replaces by a literal condition
+	 */
+	private static boolean isParameterizable(Object constant) {
+		if (constant instanceof Collection) {
+			return !((Collection<?>) constant).isEmpty();
+		}
+		return constant instanceof String || constant instanceof Number || constant instanceof Character
+				|| constant instanceof Enum || constant instanceof Temporal || constant instanceof Date
+				|| constant instanceof UUID;
+	}
+
+	private static final class ConstantReplaceVisitor extends ReplaceVisitor<Void> {
+
+		private final Map<ParamExpression<?>, Object> params = new HashMap<>();
+
+		private Predicate replace(Predicate predicate) {
+			Expression<?> replaced = predicate.accept(this, null);
+			return replaced instanceof Predicate ? (Predicate) replaced : predicate;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Expression<?> visit(Constant<?> expr, Void context) {
+			Object constant = expr.getConstant();
+			if (!isParameterizable(constant)) {
+				return expr;
+			}
+			Class<?> type = constant instanceof Collection ? Collection.class : expr.getType();
+			Param<Object> param = new Param<>((Class<Object>) type, PARAM_PREFIX + this.params.size());
+			this.params.put(param, constant);
+			return param;
+		}
+
+		@Override
+		public Expression<?> visit(Operation<?> expr, Void context) {
+			if (LITERAL_OPERATORS.contains(expr.getOperator())) {
+				return expr;
+			}
+			return super.visit(expr, context);
+		}
+
+		@Override
+		public Expression<?> visit(Path<?> expr, Void context) {
+			return expr;
+		}
+
+		@Override
+		public Expression<?> visit(TemplateExpression<?> expr, Void context) {
+			return expr;
+		}
+
+	}
+
+}
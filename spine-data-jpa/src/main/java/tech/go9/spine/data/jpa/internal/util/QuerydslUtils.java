@@ -16,18 +16,36 @@
 package tech.go9.spine.data.jpa.internal.util;
 
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.querydsl.EntityPathResolver;
 import org.springframework.data.querydsl.SimpleEntityPathResolver;
 
 import com.google.common.base.CaseFormat;
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.support.ReplaceVisitor;
+import com.querydsl.core.types.CollectionExpression;
+import com.querydsl.core.types.Constant;
 import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.Visitor;
 import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.core.types.dsl.PathBuilder;
 import com.querydsl.core.types.dsl.SimplePath;
 
+import jakarta.persistence.Entity;
+
 public final class QuerydslUtils {
 
 	private static final EntityPathResolver entityPathResolver = SimpleEntityPathResolver.INSTANCE;
@@ -44,9 +62,116 @@ public final class QuerydslUtils {
 		return Expressions.path(clazz, CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_CAMEL, clazz.getSimpleName()));
 	}
 
+	/*
+	 * Collects the entity types an expression navigates to, like the city of
+	 * hotel.city.name, which the query joins to evaluate it
+	 */
+	public static Set<Class<?>> getEntityTypes(Expression<?> expression) {
+		Set<Class<?>> entityTypes = new LinkedHashSet<>();
+		expression.accept(EntityTypeCollector.INSTANCE, entityTypes);
+		return entityTypes;
+	}
+
+	/*
+	 * Moves a predicate written against the default alias of an entity, like a tenancy
+	 * predicate, to another alias of the same entity
+	 */
+	public static Predicate replaceRoot(Predicate predicate, Path<?> root) {
+		Expression<?> replaced = predicate.accept(new RootReplaceVisitor(root), null);
+		return replaced instanceof Predicate ? (Predicate) replaced : predicate;
+	}
+
 	public static <T, I> SimplePath<I> createIdPath(JpaEntityInformation<T, I> entityInformation,
 			SimplePath<T> rootPath) {
 		return Expressions.path(entityInformation.getIdType(), rootPath, entityInformation.getIdAttribute().getName());
 	}
 
+	private static final class RootReplaceVisitor extends ReplaceVisitor<Void> {
+
+		private final Path<?> root;
+
+		private RootReplaceVisitor(Path<?> root) {
+			this.root = root;
+		}
+
+		@Override
+		public Expression<?> visit(Path<?> expr, Void context) {
+			if (expr.getMetadata().isRoot() && expr.getType().equals(this.root.getType())) {
+				return this.root;
+			}
+			return super.visit(expr, context);
+		}
+
+	}
+
+	private static final class EntityTypeCollector implements Visitor<Void, Set<Class<?>>> {
+
+		private static final EntityTypeCollector INSTANCE = new EntityTypeCollector();
+
+		@Override
+		public Void visit(Constant<?> expr, Set<Class<?>> entityTypes) {
+			return null;
+		}
+
+		@Override
+		public Void visit(FactoryExpression<?> expr, Set<Class<?>> entityTypes) {
+			expr.getArgs().forEach(argument -> argument.accept(this, entityTypes));
+			return null;
+		}
+
+		@Override
+		public Void visit(Operation<?> expr, Set<Class<?>> entityTypes) {
+			expr.getArgs().forEach(argument -> argument.accept(this, entityTypes));
+			return null;
+		}
+
+		@Override
+		public Void visit(ParamExpression<?> expr, Set<Class<?>> entityTypes) {
+			return null;
+		}
+
+		@Override
+		public Void visit(Path<?> expr, Set<Class<?>> entityTypes) {
+			for (Path<?> path = expr; path != null; path = path.getMetadata().getParent()) {
+				this.addEntityType(path.getType(), entityTypes);
+				if (path instanceof CollectionExpression) {
+					this.addEntityType(((CollectionExpression<?, ?>) path).getParameter(0), entityTypes);
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public Void visit(SubQueryExpression<?> expr, Set<Class<?>> entityTypes) {
+			QueryMetadata metadata = expr.getMetadata();
+			for (JoinExpression joinExpression : metadata.getJoins()) {
+				joinExpression.getTarget().accept(this, entityTypes);
+				if (joinExpression.getCondition() != null) {
+					joinExpression.getCondition().accept(this, entityTypes);
+				}
+			}
+			if (metadata.getWhere() != null) {
+				metadata.getWhere().accept(this, entityTypes);
+			}
+			return null;
+		}
+
+		@Override
+		public Void visit(TemplateExpression<?> expr, Set<Class<?>> entityTypes) {
+			expr.getArgs().forEach(argument -> {
+				if (argument instanceof Expression) {
+					((Expression<?>) argument).accept(this, entityTypes);
+				}
+			});
+			return null;
+		}
+
+		private void addEntityType(Class<?> type, Set<Class<?>> entityTypes) {
+			if (type != null && type.isAnnotationPresent(Entity.class)) {
+				entityTypes.add(type);
+			}
+		}
+
+	}
+
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+import org.hibernate.envers.RevisionType;
+
+import tech.go9.spine.core.api.exception.UnexpectedException;
+import tech.go9.spine.core.api.util.ReflectionUtils;
+import tech.go9.spine.data.jpa.api.domain.EntityRevision;
+import tech.go9.spine.data.jpa.internal.model.EntityDescriptor;
+
+public final class RevisionUtils {
+
+	private RevisionUtils() {
+
+	}
+
+	/**
+	 * Creates the revision of a row of an Envers revisions query, i.e. the entity, the
+	 * revision entity and the revision type.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> EntityRevision<T> createEntityRevision(Object[] row) {
+		Object revisionEntity = row[1];
+		EntityDescriptor descriptor = EntityUtils.getDescriptor(revisionEntity.getClass());
+		if (descriptor.getRevisionNumberField() == null || descriptor.getRevisionTimestampField() == null) {
+			throw new UnexpectedException("Revision entity %s must have revision number and timestamp fields",
+					revisionEntity.getClass().getName());
+		}
+		Number revision = (Number) getFieldValue(revisionEntity, descriptor.getRevisionNumberField());
+		Instant timestamp = toInstant(getFieldValue(revisionEntity, descriptor.getRevisionTimestampField()));
+		return new EntityRevision<>((T) row[0], revision, timestamp, (RevisionType) row[2]);
+	}
+
+	private static Object getFieldValue(Object revisionEntity, Field field) {
+		try {
+			return ReflectionUtils.getFieldValue(revisionEntity, field, true);
+		}
+		catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+			throw new UnexpectedException(e);
+		}
+	}
+
+	private static Instant toInstant(Object timestamp) {
+		if (timestamp instanceof Number) {
+			return Instant.ofEpochMilli(((Number) timestamp).longValue());
+		}
+		else if (timestamp instanceof Date) {
+			return ((Date) timestamp).toInstant();
+		}
+		else if (timestamp instanceof LocalDateTime) {
+			return ((LocalDateTime) timestamp).atZone(ZoneId.systemDefault()).toInstant();
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import tech.go9.spine.sample.api.domain.City;
+import tech.go9.spine.sample.api.domain.Hotel;
+import tech.go9.spine.sample.api.domain.QHotel;
+import tech.go9.spine.sample.api.repository.CityRepository;
+import tech.go9.spine.sample.api.repository.HotelRepository;
+import tech.go9.spine.sample.internal.configuration.SpineDataJpaTestConfiguration;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { SpineDataJpaTestConfiguration.class })
+@DataJpaTest
+@ActiveProfiles("default")
+class AsyncTest {
+
+	@Autowired
+	private CityRepository cityRepository;
+
+	@Autowired
+	private HotelRepository hotelRepository;
+
+	@Test
+	void test01() throws Exception {
+		CompletableFuture<Optional<Hotel>> hotel = this.hotelRepository.findByIdAsync(9L, Optional.of("city"));
+		CompletableFuture<Optional<City>> city = this.cityRepository.findByIdAsync(9L);
+		Assertions.assertEquals("Bath", hotel.get().get().getCity().getName());
+		Assertions.assertEquals("Bath", city.get().get().getName());
+	}
+
+	@Test
+	void test02() throws Exception {
+		Page<Hotel> page = this.hotelRepository
+				.findAllAsync(PageRequest.of(0, 10), Optional.of(QHotel.hotel.name.like("Hilton%")), Optional.empty())
+				.get();
+		Assertions.assertEquals(2, page.getTotalElements());
+	}
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.hibernate.envers.RevisionType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import tech.go9.spine.core.api.domain.AsOf;
+import tech.go9.spine.core.api.exception.UnexpectedException;
+import tech.go9.spine.data.jpa.api.domain.EntityRevision;
+import tech.go9.spine.sample.api.domain.Booking;
+import tech.go9.spine.sample.api.domain.QBooking;
+import tech.go9.spine.sample.api.repository.BookingRepository;
+import tech.go9.spine.sample.internal.configuration.SpineDataJpaTestConfiguration;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { SpineDataJpaTestConfiguration.class })
+@DataJpaTest
+@ActiveProfiles("default")
+class AuditTest {
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Test
+	void test01() {
+		Assertions.assertEquals(List.of("B-0002", "B-0001"),
+				this.bookingRepository
+						.findAllAsOf(AsOf.ofRevision(1), Optional.of(QBooking.booking.tenant.isNotNull()),
+								PageRequest.of(0, 2, Sort.by(Sort.Order.desc("reference"))))
+						.map(Booking::getReference)
+						.getContent());
+		Assertions.assertEquals(1,
+				this.bookingRepository
+						.findAllAsOf(AsOf.ofInstant(Instant.parse("2020-01-02T00:00:00Z")),
+								Optional.of(
+										QBooking.booking.guest.startsWith("Ann").and(QBooking.booking.nights.eq(2))),
+								Pageable.unpaged())
+						.getTotalElements());
+	}
+
+	// Wildcards of values matched literally are escaped
+	@Test
+	void test02() {
+		Assertions.assertEquals(4, this.bookingRepository
+				.findAllAsOf(AsOf.ofRevision(1), Optional.of(QBooking.booking.reference.startsWith("B-00")),
+						Pageable.unpaged())
+				.getTotalElements());
+		Assertions.assertEquals(0, this.bookingRepository
+				.findAllAsOf(AsOf.ofRevision(1), Optional.of(QBooking.booking.reference.contains("B_00")),
+						Pageable.unpaged())
+				.getTotalElements());
+		Assertions.assertEquals(0, this.bookingRepository
+				.findAllAsOf(AsOf.ofRevision(1), Optional.of(QBooking.booking.guest.endsWith("%")), Pageable.unpaged())
+				.getTotalElements());
+	}
+
+	@Test
+	void test03() {
+		Assertions.assertThrows(UnexpectedException.class,
+				() -> this.bookingRepository.findAllAsOf(AsOf.ofRevision(1),
+						Optional.of(QBooking.booking.guest.length().eq(9)), Pageable.unpaged()));
+	}
+
+	@Test
+	void test04() {
+		Page<EntityRevision<Booking>> page = this.bookingRepository.findAllRevisions(1L, PageRequest.of(0, 10),
+				Optional.empty(), Optional.<Number>of(1), Set.of());
+		Assertions.assertEquals(1, page.getTotalElements());
+		EntityRevision<Booking> seeded = page.getContent().get(0);
+		Assertions.assertEquals(1, seeded.getRevision().intValue());
+		Assertions.assertEquals(RevisionType.ADD, seeded.getType());
+		Assertions.assertEquals(Instant.ofEpochMilli(1577836800000L), seeded.getTimestamp());
+		Assertions.assertEquals("B-0001", seeded.getEntity().getReference());
+		Assertions.assertTrue(this.bookingRepository.findAllRevisions(99L).isEmpty());
+	}
+
+	// Committed saves add revisions, read back with their snapshots in a single query
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void test05() {
+		Booking booking = this.bookingRepository.findById(4L).get();
+		Integer nights = booking.getNights();
+		try {
+			booking.setNights(nights + 1);
+			this.bookingRepository.save(booking);
+			List<Booking> snapshots = new ArrayList<>(this.bookingRepository.findAllRevisions(4L).values());
+			Assertions.assertEquals(Integer.valueOf(4), snapshots.get(0).getNights());
+			Assertions.assertEquals(Integer.valueOf(nights + 1), snapshots.get(snapshots.size() - 1).getNights());
+			Pageable pageable = PageRequest.of(0, 1, Sort.by(Sort.Order.desc("revision")));
+			Page<EntityRevision<Booking>> page = this.bookingRepository.findAllRevisions(4L, pageable,
+					Optional.<Number>of(2), Optional.empty(), Set.of());
+			Assertions.assertEquals(snapshots.size() - 1, page.getTotalElements());
+			EntityRevision<Booking> latest = page.getContent().get(0);
+			Assertions.assertEquals(RevisionType.MOD, latest.getType());
+			Assertions.assertEquals(Integer.valueOf(nights + 1), latest.getEntity().getNights());
+			Assertions.assertNotNull(latest.getTimestamp());
+		}
+		finally {
+			booking.setNights(nights);
+			this.bookingRepository.save(booking);
+		}
+	}
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import jakarta.persistence.EntityManager;
+import tech.go9.spine.sample.api.domain.City;
+import tech.go9.spine.sample.api.repository.CityRepository;
+import tech.go9.spine.sample.internal.configuration.SampleFixtures;
+import tech.go9.spine.sample.internal.configuration.SpineDataJpaTestConfiguration;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { SpineDataJpaTestConfiguration.class })
+@DataJpaTest
+@ActiveProfiles("default")
+@TestPropertySource(properties = { "spine.data-jpa.bulk.chunk-size=2" })
+class BatchSaveTest {
+
+	@Autowired
+	private CityRepository cityRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Test
+	void test01() {
+		List<City> cities = IntStream.range(0, 5)
+				.mapToObj(index -> SampleFixtures.createCity(null, "City " + index))
+				.collect(Collectors.toList());
+		cities.add(SampleFixtures.createCity(2L, "Melbourne"));
+		List<Integer> chunkSizes = new ArrayList<>();
+		List<City> savedCities = new ArrayList<>();
+		this.cityRepository.saveAll(cities.stream(), chunk -> {
+			chunk.forEach(city -> {
+				Assertions.assertNotNull(city.getId());
+				Assertions.assertFalse(this.entityManager.contains(city));
+			});
+			chunkSizes.add(chunk.size());
+			savedCities.addAll(chunk);
+		});
+		Assertions.assertEquals(List.of(2, 2, 2), chunkSizes);
+		savedCities.forEach(savedCity -> Assertions.assertEquals(savedCity.getName(),
+				this.cityRepository.findById(savedCity.getId()).get().getName()));
+		Assertions.assertEquals("0, 1", this.cityRepository.findById(2L).get().getMap());
+	}
+
+	@Test
+	void test02() {
+		List<Integer> chunkSizes = new ArrayList<>();
+		this.cityRepository.saveAll(Stream.empty(), chunk -> chunkSizes.add(chunk.size()));
+		Assertions.assertTrue(chunkSizes.isEmpty());
+	}
+
+}
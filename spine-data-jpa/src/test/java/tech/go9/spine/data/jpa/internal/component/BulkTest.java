@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import jakarta.persistence.EntityManager;
+import tech.go9.spine.core.api.exception.UnexpectedException;
+import tech.go9.spine.sample.api.domain.Guest;
+import tech.go9.spine.sample.api.domain.QGuest;
+import tech.go9.spine.sample.api.domain.QHotel;
+import tech.go9.spine.sample.api.domain.QReview;
+import tech.go9.spine.sample.api.repository.GuestRepository;
+import tech.go9.spine.sample.api.repository.HotelRepository;
+import tech.go9.spine.sample.api.repository.ReviewRepository;
+import tech.go9.spine.sample.internal.configuration.SpineDataJpaTestConfiguration;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { SpineDataJpaTestConfiguration.class })
+@DataJpaTest
+@ActiveProfiles("default")
+@TestPropertySource(properties = { "spine.data-jpa.bulk.chunk-size=1" })
+class BulkTest {
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private GuestRepository guestRepository;
+
+	@Autowired
+	private HotelRepository hotelRepository;
+
+	@Autowired
+	private ReviewRepository reviewRepository;
+
+	@Test
+	void test01() {
+		long count = this.reviewRepository.deleteAll(QReview.review.title.like("Pretty%"));
+		Assertions.assertEquals(2, count);
+		Assertions.assertEquals(61, this.reviewRepository.count());
+	}
+
+	@Test
+	void test02() {
+		long count = this.reviewRepository.updateAll(QReview.review.title.like("Pretty%"),
+				Map.of(QReview.review.details, "Updated"));
+		Assertions.assertEquals(2, count);
+		Assertions.assertTrue(this.reviewRepository.findAll(QReview.review.title.like("Pretty%"))
+				.allMatch(review -> review.getDetails().equals("Updated")));
+	}
+
+	// Reviews are removed through the hotel cascade
+	@Test
+	void test03() {
+		long count = this.hotelRepository.deleteAll(QHotel.hotel.id.eq(9L), true);
+		Assertions.assertEquals(1, count);
+		Assertions.assertEquals(26, this.hotelRepository.count());
+		Assertions.assertEquals(41, this.reviewRepository.count());
+	}
+
+	@Test
+	void test04() {
+		long count = this.reviewRepository.updateAll(QReview.review.title.like("Pretty%"),
+				Map.of(QReview.review.details, "Updated"), true);
+		Assertions.assertEquals(2, count);
+		Assertions.assertTrue(this.reviewRepository.findAll(QReview.review.title.like("Pretty%"))
+				.allMatch(review -> review.getDetails().equals("Updated")));
+	}
+
+	@Test
+	void test05() {
+		Assertions.assertThrows(UnexpectedException.class, () -> this.reviewRepository
+				.updateAll(QReview.review.title.like("Pretty%"), Map.of(QReview.review.hotel.name, "Nowhere"), true));
+	}
+
+	// A single statement clears the stale instances and stamps the last modification
+	@Test
+	void test06() {
+		SecurityContextHolder.getContext()
+				.setAuthentication(new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+		try {
+			Guest guest = this.guestRepository.findById(1L).get();
+			long count = this.guestRepository.updateAll(QGuest.guest.id.eq(1L), Map.of(QGuest.guest.name, "Ann Jones"));
+			Assertions.assertEquals(1, count);
+			Assertions.assertFalse(this.entityManager.contains(guest));
+			Guest updatedGuest = this.guestRepository.findById(1L).get();
+			Assertions.assertEquals("Ann Jones", updatedGuest.getName());
+			Assertions.assertEquals("alice", updatedGuest.getLastModifiedBy());
+			Assertions.assertNotNull(updatedGuest.getLastModifiedDate());
+			Assertions.assertEquals("seed", updatedGuest.getCreatedBy());
+		}
+		finally {
+			SecurityContextHolder.clearContext();
+		}
+	}
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import tech.go9.spine.sample.api.domain.QReview;
+import tech.go9.spine.sample.api.domain.Review;
+import tech.go9.spine.sample.api.repository.ReviewRepository;
+import tech.go9.spine.sample.internal.configuration.SpineDataJpaTestConfiguration;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { SpineDataJpaTestConfiguration.class })
+@DataJpaTest
+@ActiveProfiles("default")
+@TestPropertySource(properties = { "spine.data-jpa.count.concurrent=true" })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ConcurrentCountTest {
+
+	@Autowired
+	private ReviewRepository reviewRepository;
+
+	@Test
+	void test01() {
+		Page<Review> page = this.reviewRepository.findAll(PageRequest.of(0, 10), Optional.empty(), Optional.of("hotel"));
+		Assertions.assertEquals(10, page.getNumberOfElements());
+		Assertions.assertEquals(63, page.getTotalElements());
+	}
+
+	@Test
+	void test02() {
+		Page<Review> page = this.reviewRepository.findAll(PageRequest.of(0, 1),
+				Optional.of(QReview.review.title.like("Pretty%")), Optional.empty());
+		Assertions.assertEquals(1, page.getNumberOfElements());
+		Assertions.assertEquals(2, page.getTotalElements());
+	}
+
+}
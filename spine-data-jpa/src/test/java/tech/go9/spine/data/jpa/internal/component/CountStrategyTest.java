@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import jakarta.persistence.EntityManager;
+import tech.go9.spine.core.api.domain.CountStrategy;
+import tech.go9.spine.sample.api.domain.City;
+import tech.go9.spine.sample.api.domain.QCity;
+import tech.go9.spine.sample.api.repository.CityRepository;
+import tech.go9.spine.sample.internal.configuration.SpineDataJpaTestConfiguration;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { SpineDataJpaTestConfiguration.class })
+@DataJpaTest
+@ActiveProfiles("default")
+class CountStrategyTest {
+
+	@Autowired
+	private CityRepository cityRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Test
+	void test01() {
+		Slice<City> slice = this.cityRepository.findAll(PageRequest.of(1, 5), CountStrategy.EXACT);
+		Assertions.assertTrue(slice instanceof Page);
+		Assertions.assertEquals(21, ((Page<City>) slice).getTotalElements());
+	}
+
+	@Test
+	void test02() {
+		Slice<City> slice = this.cityRepository.findAll(PageRequest.of(3, 5, Sort.by("id")), CountStrategy.NONE);
+		Assertions.assertFalse(slice instanceof Page);
+		Assertions.assertEquals(5, slice.getNumberOfElements());
+		Assertions.assertTrue(slice.hasNext());
+		slice = this.cityRepository.findAll(slice.nextPageable(), CountStrategy.NONE);
+		Assertions.assertEquals(1, slice.getNumberOfElements());
+		Assertions.assertFalse(slice.hasNext());
+	}
+
+	@Test
+	void test03() {
+		Slice<City> slice = this.cityRepository.findAll(PageRequest.of(0, 2), Optional.empty(),
+				Optional.of("hotels.reviews"), Optional.of(CountStrategy.NONE));
+		Assertions.assertEquals(2, slice.getNumberOfElements());
+		Assertions.assertTrue(slice.hasNext());
+	}
+
+	@Test
+	void test04() {
+		Slice<City> slice = this.cityRepository.findAll(PageRequest.of(1, 5), CountStrategy.CACHED);
+		Assertions.assertEquals(21, ((Page<City>) slice).getTotalElements());
+		City city = new City();
+		city.setCountry("Australia");
+		city.setName("Melbourne");
+		city.setState("Victoria");
+		city.setMap("0, 0");
+		this.cityRepository.saveOne(city);
+		slice = this.cityRepository.findAll(PageRequest.of(1, 5), CountStrategy.CACHED);
+		Assertions.assertEquals(22, ((Page<City>) slice).getTotalElements());
+	}
+
+	@Test
+	void test05() {
+		Slice<City> slice = this.cityRepository.findAll(PageRequest.of(1, 5), Optional.of(QCity.city.country.eq("USA")),
+				Optional.empty(), Optional.of(CountStrategy.ESTIMATED));
+		Page<City> page = (Page<City>) slice;
+		Assertions.assertEquals(this.cityRepository.findAll(PageRequest.of(1, 5), QCity.city.country.eq("USA"))
+				.getTotalElements(), page.getTotalElements());
+	}
+
+	// Unfiltered totals come from the table statistics rather than a count query
+	@Test
+	void test06() {
+		long statistics = ((Number) this.entityManager
+				.createNativeQuery("select row_count_estimate from information_schema.tables "
+						+ "where upper(table_name) = 'CITY' and table_schema = schema()")
+				.getSingleResult()).longValue();
+		Assertions.assertEquals(OptionalLong.of(statistics),
+				new RowCountEstimator<>(this.entityManager, City.class).execute());
+		Slice<City> slice = this.cityRepository.findAll(PageRequest.of(1, 5), CountStrategy.ESTIMATED);
+		Assertions.assertEquals(statistics, ((Page<City>) slice).getTotalElements());
+	}
+
+}
@@ -15,7 +15,14 @@
  */
 package tech.go9.spine.data.jpa.internal.component;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -29,8 +36,13 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import tech.go9.spine.sample.api.domain.City;
 import tech.go9.spine.sample.api.domain.Hotel;
+import tech.go9.spine.sample.api.domain.QReview;
+import tech.go9.spine.sample.api.domain.Rating;
+import tech.go9.spine.sample.api.domain.Review;
+import tech.go9.spine.sample.api.domain.TripType;
 import tech.go9.spine.sample.api.repository.CityRepository;
 import tech.go9.spine.sample.api.repository.HotelRepository;
+import tech.go9.spine.sample.api.repository.ReviewRepository;
 import tech.go9.spine.sample.internal.configuration.SpineDataJpaTestConfiguration;
 
 @ExtendWith(SpringExtension.class)
@@ -48,6 +60,9 @@ class DeepSaveTest {
 	@Autowired
 	private HotelRepository hotelRepository;
 
+	@Autowired
+	private ReviewRepository reviewRepository;
+
 	// Preservo the hotels list with orphanRemoval=true
 	@Test
 	void test01() {
@@ -235,4 +250,92 @@ class DeepSaveTest {
 		Assertions.assertEquals("Bath", hotel.getCity().getName());
 	}
 
+	// Moving existing children must not load them one by one
+	@Test
+	void test09() {
+
+		List<Review> reviews = this.reviewRepository.findAll(QReview.review.hotel.id.eq(9L))
+				.collect(Collectors.toList());
+		this.entityManager.clear();
+		reviews.forEach(review -> review.setHotel(null));
+
+		City city = new City();
+		city.setId(9L);
+
+		Hotel hotel = new Hotel();
+		hotel.setCity(city);
+		hotel.setName("Bulk Hotel");
+		hotel.setAddress("Weston Road");
+		hotel.setZip("BA1 2XT");
+		hotel.setReviews(new LinkedHashSet<>(reviews));
+
+		Statistics statistics = this.entityManager.getEntityManager().getEntityManagerFactory()
+				.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+		try {
+			hotel = this.hotelRepository.saveOne(hotel);
+			Assertions.assertTrue(statistics.getPrepareStatementCount() < reviews.size());
+		}
+		finally {
+			statistics.setStatisticsEnabled(false);
+		}
+		this.entityManager.flush();
+		Assertions.assertEquals(22, reviews.size());
+		Assertions.assertEquals(22, hotel.getReviews().size());
+	}
+
+	// Large collections are paired by id, removing, updating and adding children
+	@Test
+	void test10() {
+
+		City city = new City();
+		city.setId(9L);
+
+		Hotel hotel = new Hotel();
+		hotel.setCity(city);
+		hotel.setName("Large Hotel");
+		hotel.setAddress("Weston Road");
+		hotel.setZip("BA1 2XT");
+		hotel.setReviews(new LinkedHashSet<>());
+		for (int i = 0; i < 2000; i++) {
+			hotel.getReviews().add(this.createReview(i));
+		}
+		hotel = this.hotelRepository.saveOne(hotel);
+		this.entityManager.flush();
+		this.entityManager.clear();
+
+		List<Review> reviews = new ArrayList<>(hotel.getReviews());
+		reviews.forEach(review -> review.setHotel(null));
+		reviews.forEach(review -> review.setTitle("Updated"));
+
+		Hotel detachedHotel = new Hotel();
+		detachedHotel.setId(hotel.getId());
+		detachedHotel.setCity(city);
+		detachedHotel.setName("Large Hotel");
+		detachedHotel.setAddress("Weston Road");
+		detachedHotel.setZip("BA1 2XT");
+		detachedHotel.setReviews(new LinkedHashSet<>(reviews.subList(100, reviews.size())));
+		for (int i = 2000; i < 2100; i++) {
+			detachedHotel.getReviews().add(this.createReview(i));
+		}
+
+		hotel = this.hotelRepository.saveOne(detachedHotel);
+		this.entityManager.flush();
+		Assertions.assertEquals(2000, hotel.getReviews().size());
+		Assertions.assertEquals(1900,
+				hotel.getReviews().stream().filter(review -> review.getTitle().equals("Updated")).count());
+		Assertions.assertTrue(hotel.getReviews().stream().noneMatch(review -> review.getId() == null));
+	}
+
+	private Review createReview(int index) {
+		Review review = new Review();
+		review.setIndex(index);
+		review.setRating(Rating.GOOD);
+		review.setCheckInDate(Instant.parse("2020-01-01T00:00:00Z"));
+		review.setTripType(TripType.values()[0]);
+		review.setTitle("Review " + index);
+		return review;
+	}
+
 }
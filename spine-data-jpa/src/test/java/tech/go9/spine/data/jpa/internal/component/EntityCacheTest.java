@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import tech.go9.spine.sample.api.domain.City;
+import tech.go9.spine.sample.api.domain.QCity;
+import tech.go9.spine.sample.api.repository.CityRepository;
+import tech.go9.spine.sample.internal.configuration.SpineDataJpaTestConfiguration;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { SpineDataJpaTestConfiguration.class })
+@DataJpaTest
+@ActiveProfiles("default")
+@TestPropertySource(properties = { "spine.data-jpa.entity-cache.entities=City" })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EntityCacheTest {
+
+	@Autowired
+	private EntityCache entityCache;
+
+	@Autowired
+	private CityRepository cityRepository;
+
+	// Each read gets its own copy, so changing it doesn't change the cached entity
+	@Test
+	void test01() {
+		this.cityRepository.findById(9L).get().setName("Changed");
+		long hitCount = this.entityCache.getStats().hitCount();
+		City city = this.cityRepository.findById(9L).get();
+		Assertions.assertEquals("Bath", city.getName());
+		Assertions.assertEquals(hitCount + 1, this.entityCache.getStats().hitCount());
+		city.setName("Changed");
+		Assertions.assertEquals("Bath", this.cityRepository.findById(9L).get().getName());
+	}
+
+	@Test
+	void test02() {
+		List<City> cities = this.cityRepository.findAllById(List.of(1L, 2L, 3L));
+		Assertions.assertEquals(3, cities.size());
+		long hitCount = this.entityCache.getStats().hitCount();
+		Assertions.assertEquals(3, this.cityRepository.findAllById(List.of(1L, 2L, 3L)).size());
+		Assertions.assertEquals(hitCount + 3, this.entityCache.getStats().hitCount());
+	}
+
+	// Bulk writes invalidate every cached entity of the type
+	@Test
+	void test03() {
+		City city = this.cityRepository.findById(9L).get();
+		this.cityRepository.updateAll(QCity.city.id.eq(9L), Map.of(QCity.city.state, "Somerset"));
+		City updatedCity = this.cityRepository.findById(9L).get();
+		Assertions.assertNotSame(city, updatedCity);
+		Assertions.assertEquals("Somerset", updatedCity.getState());
+	}
+
+}
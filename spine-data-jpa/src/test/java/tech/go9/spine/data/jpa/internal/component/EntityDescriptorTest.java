@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import jakarta.persistence.CascadeType;
+import tech.go9.spine.data.jpa.internal.model.EntityDescriptor;
+import tech.go9.spine.data.jpa.internal.model.RelationDescriptor;
+import tech.go9.spine.data.jpa.internal.util.EntityUtils;
+import tech.go9.spine.sample.api.domain.Hotel;
+import tech.go9.spine.sample.api.domain.Review;
+import tech.go9.spine.sample.internal.configuration.SpineDataJpaTestConfiguration;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { SpineDataJpaTestConfiguration.class })
+@DataJpaTest
+@ActiveProfiles("default")
+class EntityDescriptorTest {
+
+	@Test
+	void test01() {
+		EntityDescriptor entityDescriptor = EntityUtils.getDescriptor(Hotel.class);
+		Assertions.assertEquals("id", entityDescriptor.getIdField().getName());
+		Assertions.assertEquals(1, entityDescriptor.getOneToManyRelations().size());
+		RelationDescriptor relation = entityDescriptor.getOneToManyRelations().get(0);
+		Assertions.assertEquals("reviews", relation.getField().getName());
+		Assertions.assertTrue(relation.hasAnyCascade(Arrays.asList(CascadeType.ALL)));
+		Assertions.assertEquals(Review.class, relation.getMappedByField().get().getDeclaringClass());
+		Assertions.assertTrue(entityDescriptor.getNonRelationalFieldMap().containsKey("name"));
+		Assertions.assertFalse(entityDescriptor.getNonRelationalFieldMap().containsKey("id"));
+	}
+
+	@Test
+	void test02() {
+		EntityDescriptor entityDescriptor = EntityUtils.getDescriptor(Review.class);
+		RelationDescriptor relation = entityDescriptor.getManyToOneRelations().get(0);
+		Assertions.assertEquals("hotel", relation.getField().getName());
+		Assertions.assertFalse(relation.hasAnyCascade(Arrays.asList(CascadeType.ALL, CascadeType.PERSIST)));
+		Assertions.assertEquals(relation.getField(), relation.getMappedByField().get());
+	}
+
+	@Test
+	void test03() {
+		Hotel hotel = new Hotel() {
+
+			private static final long serialVersionUID = 1L;
+
+		};
+		Assertions.assertSame(EntityUtils.getDescriptor(Hotel.class), EntityUtils.getDescriptor(hotel));
+	}
+
+}
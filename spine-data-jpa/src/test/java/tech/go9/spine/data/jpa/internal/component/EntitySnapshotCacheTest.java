@@ -0,0 +1,163 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.bytecode.enhance.spi.CollectionTracker;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManagerFactory;
+import tech.go9.spine.sample.api.domain.Hotel;
+import tech.go9.spine.sample.api.domain.Review;
+import tech.go9.spine.sample.api.repository.HotelRepository;
+import tech.go9.spine.sample.internal.configuration.SpineDataJpaTestConfiguration;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { SpineDataJpaTestConfiguration.class })
+@DataJpaTest
+@ActiveProfiles("default")
+@TestPropertySource(properties = { "spine.data-jpa.snapshot.entities=Hotel,Review" })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EntitySnapshotCacheTest {
+
+	@Autowired
+	private EntitySnapshotCache entitySnapshotCache;
+
+	@Autowired
+	private HotelRepository hotelRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void test01() {
+		Hotel hotel = this.hotelRepository.findById(9L, "reviews").get();
+		Assertions.assertTrue(this.entitySnapshotCache.findUnchanged(List.of(hotel)).contains(hotel));
+	}
+
+	// A changed child changes its parent, while its siblings stay unchanged
+	@Test
+	void test02() {
+		Hotel hotel = this.hotelRepository.findById(9L, "reviews").get();
+		Review review = hotel.getReviews().iterator().next();
+		review.setTitle(review.getTitle() + " changed");
+		Set<Object> unchangedEntities = this.entitySnapshotCache.findUnchanged(List.of(hotel));
+		Assertions.assertFalse(unchangedEntities.contains(hotel));
+		Assertions.assertFalse(unchangedEntities.contains(review));
+		hotel.getReviews()
+				.stream()
+				.filter(sibling -> sibling != review)
+				.forEach(sibling -> Assertions.assertTrue(unchangedEntities.contains(sibling)));
+	}
+
+	@Test
+	void test03() {
+		Hotel hotel = this.hotelRepository.findById(9L, "reviews").get();
+		Assertions.assertEquals(hotel.getName(), this.hotelRepository.saveOne(hotel).getName());
+		Assertions.assertFalse(this.entitySnapshotCache.findUnchanged(List.of(hotel)).contains(hotel));
+	}
+
+	// The dirtiness tracker is trusted only when the hash matches the last read too
+	@Test
+	void test04() {
+		Hotel hotel = this.hotelRepository.findById(9L, "reviews").get();
+		TrackedHotel trackedHotel = new TrackedHotel();
+		BeanUtils.copyProperties(hotel, trackedHotel);
+		Assertions.assertTrue(this.entitySnapshotCache.findUnchanged(List.of(trackedHotel)).contains(trackedHotel));
+		trackedHotel.setName(hotel.getName() + " changed");
+		Assertions.assertFalse(this.entitySnapshotCache.findUnchanged(List.of(trackedHotel)).contains(trackedHotel));
+		trackedHotel.setName(hotel.getName());
+		trackedHotel.$$_hibernate_trackChange("name");
+		Assertions.assertFalse(this.entitySnapshotCache.findUnchanged(List.of(trackedHotel)).contains(trackedHotel));
+	}
+
+	// Saving back an unchanged graph neither loads nor merges its children
+	@Test
+	void test05() {
+		Hotel hotel = this.hotelRepository.findById(9L, "reviews").get();
+		Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+		try {
+			this.hotelRepository.saveOne(hotel);
+			Assertions.assertEquals(0, statistics.getCollectionLoadCount());
+			Assertions.assertEquals(0, statistics.getEntityUpdateCount());
+			Assertions.assertTrue(statistics.getPrepareStatementCount() < hotel.getReviews().size());
+		}
+		finally {
+			statistics.setStatisticsEnabled(false);
+		}
+	}
+
+	/*
+	 * Stands for an entity enhanced with dirty tracking, whose setters are left untracked
+	 */
+	static class TrackedHotel extends Hotel implements SelfDirtinessTracker {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Set<String> dirtyAttributes = new LinkedHashSet<>();
+
+		@Override
+		public void $$_hibernate_trackChange(String attribute) {
+			this.dirtyAttributes.add(attribute);
+		}
+
+		@Override
+		public String[] $$_hibernate_getDirtyAttributes() {
+			return this.dirtyAttributes.toArray(new String[0]);
+		}
+
+		@Override
+		public boolean $$_hibernate_hasDirtyAttributes() {
+			return !this.dirtyAttributes.isEmpty();
+		}
+
+		@Override
+		public void $$_hibernate_clearDirtyAttributes() {
+			this.dirtyAttributes.clear();
+		}
+
+		@Override
+		public void $$_hibernate_suspendDirtyTracking(boolean suspend) {
+
+		}
+
+		@Override
+		public CollectionTracker $$_hibernate_getCollectionTracker() {
+			return null;
+		}
+
+	}
+
+}
@@ -44,6 +44,9 @@ class ExpandTest {
 	@Autowired
 	private HotelRepository hotelRepository;
 
+	@Autowired
+	private EntityGraphCache entityGraphCache;
+
 	@Test
 	void test01() {
 		Page<City> page = cityRepository.findAll(PageRequest.of(0, 100), "hotels.reviews");
@@ -72,4 +75,22 @@ class ExpandTest {
 		Assertions.assertEquals(21, page.getContent().size());
 	}
 
+	@Test
+	void test05() {
+		Assertions.assertEquals("city,reviews", EntityGraphCache.normalize(" reviews, city,,reviews "));
+		Assertions.assertEquals("hotels.((Review)reviews)", EntityGraphCache.normalize("hotels.((Review)reviews)"));
+	}
+
+	@Test
+	void test06() {
+		Page<Hotel> page = hotelRepository.findAll(PageRequest.of(0, 10), "reviews,city");
+		long hitCount = this.entityGraphCache.getStats().hitCount();
+		long missCount = this.entityGraphCache.getStats().missCount();
+		Page<Hotel> cachedPage = hotelRepository.findAll(PageRequest.of(0, 10), " city, reviews");
+		Assertions.assertEquals(hitCount + 1, this.entityGraphCache.getStats().hitCount());
+		Assertions.assertEquals(missCount, this.entityGraphCache.getStats().missCount());
+		Assertions.assertEquals(page.getContent(), cachedPage.getContent());
+		Assertions.assertEquals(page.getTotalElements(), cachedPage.getTotalElements());
+	}
+
 }
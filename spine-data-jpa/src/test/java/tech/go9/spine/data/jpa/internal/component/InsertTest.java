@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.net.URI;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import tech.go9.spine.core.api.exception.UnexpectedException;
+import tech.go9.spine.sample.api.domain.Booking;
+import tech.go9.spine.sample.api.domain.City;
+import tech.go9.spine.sample.api.domain.Guest;
+import tech.go9.spine.sample.api.domain.QCity;
+import tech.go9.spine.sample.api.domain.QGuest;
+import tech.go9.spine.sample.api.repository.BookingRepository;
+import tech.go9.spine.sample.api.repository.CityRepository;
+import tech.go9.spine.sample.api.repository.GuestRepository;
+import tech.go9.spine.sample.internal.configuration.SampleFixtures;
+import tech.go9.spine.sample.internal.configuration.SpineDataJpaTestConfiguration;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { SpineDataJpaTestConfiguration.class })
+@DataJpaTest
+@ActiveProfiles("default")
+@TestPropertySource(properties = { "spine.data-jpa.bulk.chunk-size=2", "spine.data-jpa.tenancy-field-name=tenant" })
+class InsertTest {
+
+	@Autowired
+	private CityRepository cityRepository;
+
+	@Autowired
+	private GuestRepository guestRepository;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@AfterEach
+	void clearAuthentication() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void test01() {
+		Stream<City> cities = IntStream.range(0, 5).mapToObj(index -> SampleFixtures.createCity(null, "City " + index));
+		Assertions.assertEquals(5, this.cityRepository.insertAll(cities));
+		List<String> names = this.cityRepository.findAll(QCity.city.name.startsWith("City "))
+				.map(City::getName)
+				.sorted()
+				.collect(Collectors.toList());
+		Assertions.assertEquals(List.of("City 0", "City 1", "City 2", "City 3", "City 4"), names);
+	}
+
+	@Test
+	void test02() {
+		Assertions.assertEquals(0, this.cityRepository.insertAll(Stream.empty()));
+	}
+
+	// The tenancy field and the auditing columns are set without entity callbacks
+	@Test
+	void test03() {
+		SecurityContextHolder.getContext()
+				.setAuthentication(new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+		Guest guest = new Guest();
+		guest.setEmail("dora@example.com");
+		guest.setName("Dora Green");
+		Assertions.assertEquals(1, this.guestRepository.insertAll(Stream.of(guest)));
+		Guest insertedGuest = this.guestRepository.findOne(QGuest.guest.email.eq("dora@example.com")).get();
+		Assertions.assertEquals(URI.create("alice"), insertedGuest.getTenant());
+		Assertions.assertEquals("alice", insertedGuest.getCreatedBy());
+		Assertions.assertNotNull(insertedGuest.getCreatedDate());
+	}
+
+	@Test
+	void test04() {
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> this.cityRepository.insertAll(Stream.of(SampleFixtures.createCity(2L, "Melbourne"))));
+	}
+
+	@Test
+	void test05() {
+		Assertions.assertThrows(UnexpectedException.class,
+				() -> this.bookingRepository.insertAll(Stream.of(new Booking())));
+	}
+
+}
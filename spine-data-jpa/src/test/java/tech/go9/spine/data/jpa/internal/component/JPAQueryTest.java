@@ -18,6 +18,7 @@ package tech.go9.spine.data.jpa.internal.component;
 import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.Session;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -60,6 +61,9 @@ class JPAQueryTest {
 	@Autowired
 	private HotelRepository hotelRepository;
 
+	@Autowired
+	private QueryShapeCache queryShapeCache;
+
 	@Test
 	void test00() {
 		JPAQuery<City> query = new JPAQuery<>(this.entityManager.getEntityManager());
@@ -110,6 +114,35 @@ class JPAQueryTest {
 		}
 	}
 
+	@Test
+	void test05() {
+		Session session = this.entityManager.getEntityManager().unwrap(Session.class);
+		List<Hotel> result = new CustomHibernateQuery<Hotel>(session).select(hotel).from(hotel)
+				.where(hotel.name.like("The%"), hotel.id.gt(0L))
+				.fetch();
+		Assertions.assertTrue(result.size() > 1);
+		long hitCount = this.queryShapeCache.getStats().hitCount();
+		long missCount = this.queryShapeCache.getStats().missCount();
+		List<Hotel> otherResult = new CustomHibernateQuery<Hotel>(session).select(hotel).from(hotel)
+				.where(hotel.name.like("Hilton%"), hotel.id.gt(1L))
+				.fetch();
+		Assertions.assertEquals(hitCount + 1, this.queryShapeCache.getStats().hitCount());
+		Assertions.assertEquals(missCount, this.queryShapeCache.getStats().missCount());
+		Assertions.assertTrue(otherResult.stream().allMatch(h -> h.getName().startsWith("Hilton")));
+		Assertions.assertNotEquals(result, otherResult);
+	}
+
+	// Repository queries share the shape of lists of any size
+	@Test
+	void test06() {
+		Assertions.assertEquals(2, this.hotelRepository.findAll(hotel.id.in(1L, 2L)).count());
+		long hitCount = this.queryShapeCache.getStats().hitCount();
+		long missCount = this.queryShapeCache.getStats().missCount();
+		Assertions.assertEquals(3, this.hotelRepository.findAll(hotel.id.in(3L, 4L, 5L)).count());
+		Assertions.assertEquals(hitCount + 1, this.queryShapeCache.getStats().hitCount());
+		Assertions.assertEquals(missCount, this.queryShapeCache.getStats().missCount());
+	}
+
 	// @Test
 	void paginationTest() {
 		int size = 5;
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import tech.go9.spine.core.api.domain.KeysetPage;
+import tech.go9.spine.core.api.domain.KeysetPageable;
+import tech.go9.spine.core.api.domain.Selection;
+import tech.go9.spine.sample.api.domain.City;
+import tech.go9.spine.sample.api.domain.Hotel;
+import tech.go9.spine.sample.api.repository.HotelRepository;
+import tech.go9.spine.sample.internal.configuration.SpineDataJpaTestConfiguration;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { SpineDataJpaTestConfiguration.class })
+@DataJpaTest
+@ActiveProfiles("joined-tenancy")
+class JoinedTenancyTest {
+
+	@Autowired
+	private HotelRepository hotelRepository;
+
+	// The tenancy predicate of the joined city is moved to the alias of its join path
+	@Test
+	@SuppressWarnings("unchecked")
+	void test01() {
+		List<Map<String, Object>> hotels = this.hotelRepository
+				.findAll(Selection.of("name", "city.name"), Optional.empty())
+				.collect(Collectors.toList());
+		Assertions.assertFalse(hotels.isEmpty());
+		hotels.forEach(hotel -> {
+			Assertions.assertTrue(((String) hotel.get("name")).startsWith("The"));
+			Assertions.assertTrue(((Map<String, Object>) hotel.get("city")).get("name").toString().startsWith("Bat"));
+		});
+	}
+
+	// A hotel without visible reviews is left out of the page ids and the total as well
+	@Test
+	void test02() {
+		City city = new City();
+		city.setId(9L);
+		Hotel hotel = new Hotel();
+		hotel.setCity(city);
+		hotel.setName("The Royal Crescent");
+		hotel.setAddress("16 Royal Crescent");
+		hotel.setZip("BA1 2LS");
+		hotel.setReviews(new LinkedHashSet<>());
+		this.hotelRepository.saveOne(hotel);
+
+		Page<Hotel> page = this.hotelRepository.findAll(PageRequest.of(0, 1, Sort.by("id")), "reviews");
+		Assertions.assertEquals(2, page.getTotalElements());
+		Assertions.assertEquals(List.of(2L), page.map(Hotel::getId).getContent());
+		page.getContent()
+				.get(0)
+				.getReviews()
+				.forEach(review -> Assertions.assertTrue(review.getTitle().startsWith("Nice")));
+		Assertions.assertEquals(List.of(9L), this.hotelRepository
+				.findAll(PageRequest.of(1, 1, Sort.by("id")), "reviews")
+				.map(Hotel::getId)
+				.getContent());
+
+		KeysetPage<Hotel> keysetPage = this.hotelRepository.findAll(KeysetPageable.of(2, Sort.by("id")), "reviews");
+		Assertions.assertEquals(List.of(2L, 9L), keysetPage.map(Hotel::getId).getContent());
+		Assertions.assertFalse(keysetPage.hasNext());
+	}
+
+}
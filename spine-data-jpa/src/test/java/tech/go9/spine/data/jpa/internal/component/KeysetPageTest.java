@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import tech.go9.spine.core.api.domain.KeysetPage;
+import tech.go9.spine.core.api.domain.KeysetPageable;
+import tech.go9.spine.core.api.exception.UnexpectedException;
+import tech.go9.spine.sample.api.domain.City;
+import tech.go9.spine.sample.api.domain.QCity;
+import tech.go9.spine.sample.api.repository.CityRepository;
+import tech.go9.spine.sample.internal.configuration.SampleFixtures;
+import tech.go9.spine.sample.internal.configuration.SpineDataJpaTestConfiguration;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { SpineDataJpaTestConfiguration.class })
+@DataJpaTest
+@ActiveProfiles("default")
+class KeysetPageTest {
+
+	@Autowired
+	private CityRepository cityRepository;
+
+	// Walk forward through all cities sorted by name, "Melbourne" is duplicated
+	@Test
+	void test01() {
+		KeysetPageable keysetPageable = KeysetPageable.of(5, Sort.by("name"));
+		List<String> names = new ArrayList<>();
+		Set<Long> ids = new LinkedHashSet<>();
+		KeysetPage<City> page = this.cityRepository.findAll(keysetPageable);
+		Assertions.assertFalse(page.hasPrevious());
+		while (true) {
+			page.forEach(city -> {
+				names.add(city.getName());
+				ids.add(city.getId());
+			});
+			if (!page.hasNext()) {
+				break;
+			}
+			page = this.cityRepository.findAll(keysetPageable.after(page.getNextCursor()));
+			Assertions.assertTrue(page.hasPrevious());
+		}
+		Assertions.assertEquals(21, names.size());
+		Assertions.assertEquals(21, ids.size());
+		List<String> sortedNames = new ArrayList<>(names);
+		sortedNames.sort(String::compareTo);
+		Assertions.assertEquals(sortedNames, names);
+	}
+
+	// Walk backward from the second page
+	@Test
+	void test02() {
+		KeysetPageable keysetPageable = KeysetPageable.of(5, Sort.by(Sort.Order.desc("country")));
+		KeysetPage<City> firstPage = this.cityRepository.findAll(keysetPageable);
+		KeysetPage<City> secondPage = this.cityRepository.findAll(keysetPageable.after(firstPage.getNextCursor()));
+		KeysetPage<City> previousPage = this.cityRepository
+				.findAll(keysetPageable.before(secondPage.getPreviousCursor()));
+		Assertions.assertEquals(5, previousPage.getNumberOfElements());
+		Assertions.assertFalse(previousPage.hasPrevious());
+		Assertions.assertTrue(previousPage.hasNext());
+		for (int i = 0; i < 5; i++) {
+			Assertions.assertEquals(firstPage.getContent().get(i).getId(), previousPage.getContent().get(i).getId());
+		}
+	}
+
+	@Test
+	void test03() {
+		KeysetPageable keysetPageable = KeysetPageable.of(3, Sort.by("name"));
+		KeysetPage<City> page = this.cityRepository.findAll(keysetPageable, QCity.city.country.eq("USA"));
+		Assertions.assertEquals(3, page.getNumberOfElements());
+		page.forEach(city -> Assertions.assertEquals("USA", city.getCountry()));
+	}
+
+	@Test
+	void test04() {
+		KeysetPageable keysetPageable = KeysetPageable.of(3, Sort.by("name")).after("invalid");
+		Assertions.assertThrows(UnexpectedException.class, () -> this.cityRepository.findAll(keysetPageable));
+	}
+
+	// Cities without a state sort last ascending and first descending, across page bounds
+	@Test
+	void test05() {
+		for (String name : List.of("Ballarat", "Bendigo", "Geelong")) {
+			City city = SampleFixtures.createCity(null, name);
+			city.setState(null);
+			this.cityRepository.saveOne(city);
+		}
+		List<City> ascending = this.findAll(KeysetPageable.of(2, Sort.by("state")));
+		List<City> descending = this.findAll(KeysetPageable.of(2, Sort.by(Sort.Order.desc("state"))));
+		Assertions.assertEquals(24, ascending.stream().map(City::getId).distinct().count());
+		Assertions.assertEquals(24, descending.stream().map(City::getId).distinct().count());
+		ascending.subList(21, 24).forEach(city -> Assertions.assertNull(city.getState()));
+		descending.subList(0, 3).forEach(city -> Assertions.assertNull(city.getState()));
+		Assertions.assertNotNull(descending.get(3).getState());
+
+		KeysetPageable keysetPageable = KeysetPageable.of(2, Sort.by(Sort.Order.desc("state")));
+		KeysetPage<City> secondPage = this.cityRepository
+				.findAll(keysetPageable.after(this.cityRepository.findAll(keysetPageable).getNextCursor()));
+		KeysetPage<City> previousPage = this.cityRepository
+				.findAll(keysetPageable.before(secondPage.getPreviousCursor()));
+		Assertions.assertEquals(List.of(descending.get(0).getId(), descending.get(1).getId()),
+				previousPage.map(City::getId).getContent());
+	}
+
+	private List<City> findAll(KeysetPageable keysetPageable) {
+		List<City> cities = new ArrayList<>();
+		KeysetPage<City> page = this.cityRepository.findAll(keysetPageable);
+		cities.addAll(page.getContent());
+		while (page.hasNext()) {
+			page = this.cityRepository.findAll(keysetPageable.after(page.getNextCursor()));
+			cities.addAll(page.getContent());
+		}
+		return cities;
+	}
+
+}
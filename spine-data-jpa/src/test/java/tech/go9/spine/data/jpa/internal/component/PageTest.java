@@ -22,6 +22,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -63,4 +64,24 @@ class PageTest {
 		Assertions.assertEquals(21, page.getTotalElements());
 	}
 
+	@Test
+	void test04() {
+		Page<City> page = cityRepository.findAll(PageRequest.of(1, 5, Sort.by("name")), "hotels.reviews");
+		Assertions.assertNotNull(page);
+		Assertions.assertEquals(5, page.getNumberOfElements());
+		Assertions.assertEquals(21, page.getTotalElements());
+		for (int i = 1; i < page.getNumberOfElements(); i++) {
+			String previousName = page.getContent().get(i - 1).getName();
+			Assertions.assertTrue(previousName.compareTo(page.getContent().get(i).getName()) <= 0);
+		}
+	}
+
+	@Test
+	void test05() {
+		Page<City> page = cityRepository.findAll(PageRequest.of(10, 5), "hotels.reviews");
+		Assertions.assertNotNull(page);
+		Assertions.assertEquals(0, page.getNumberOfElements());
+		Assertions.assertEquals(21, page.getTotalElements());
+	}
+
 }
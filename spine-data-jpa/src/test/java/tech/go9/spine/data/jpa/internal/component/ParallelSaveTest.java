@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import tech.go9.spine.core.api.exception.MultipleException;
+import tech.go9.spine.sample.api.domain.City;
+import tech.go9.spine.sample.api.repository.CityRepository;
+import tech.go9.spine.sample.internal.configuration.SampleFixtures;
+import tech.go9.spine.sample.internal.configuration.SpineDataJpaTestConfiguration;
+import tech.go9.spine.sample.internal.configuration.StaleFlushInterceptor;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { SpineDataJpaTestConfiguration.class })
+@DataJpaTest
+@ActiveProfiles("default")
+@TestPropertySource(properties = { "spring.jpa.properties.hibernate.session_factory.interceptor="
+		+ "tech.go9.spine.sample.internal.configuration.StaleFlushInterceptor" })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ParallelSaveTest {
+
+	@Autowired
+	private CityRepository cityRepository;
+
+	@Test
+	void test01() {
+		List<City> cities = Stream.of(1L, 2L, 3L, 4L)
+				.map(id -> this.cityRepository.findById(id).get())
+				.collect(Collectors.toList());
+		List<String> maps = cities.stream().map(City::getMap).collect(Collectors.toList());
+		try {
+			cities.forEach(city -> city.setMap("0, 1"));
+			Assertions.assertEquals(4, this.cityRepository.saveAllParallel(cities.stream(), 2, 1).size());
+			Stream.of(1L, 2L, 3L, 4L)
+					.forEach(id -> Assertions.assertEquals("0, 1", this.cityRepository.findById(id).get().getMap()));
+		}
+		finally {
+			cities.forEach(city -> city.setMap(maps.get(cities.indexOf(city))));
+			this.cityRepository.saveAllParallel(cities.stream(), 2, 2);
+		}
+	}
+
+	@Test
+	void test02() {
+		City city = this.cityRepository.findById(1L).get();
+		MultipleException multipleException = Assertions.assertThrows(MultipleException.class,
+				() -> this.cityRepository.saveAllParallel(
+						Stream.of(city, SampleFixtures.createCity(999L, "Nowhere", "0, 1")), 2, 1));
+		Assertions.assertEquals(1, multipleException.getThrowables().size());
+		Assertions.assertTrue(this.cityRepository.findById(999L).isEmpty());
+	}
+
+	// The chunk failing on a stale city is retried in a new transaction and commits
+	@Test
+	void test03() {
+		City city = this.cityRepository.findById(1L).get();
+		String map = city.getMap();
+		try {
+			city.setMap("0, 1");
+			StaleFlushInterceptor.failNextFlushes(1);
+			Assertions.assertEquals(1, this.cityRepository.saveAllParallel(Stream.of(city), 1, 1).size());
+			Assertions.assertEquals(0, StaleFlushInterceptor.getRemainingFailures());
+			Assertions.assertEquals("0, 1", this.cityRepository.findById(1L).get().getMap());
+		}
+		finally {
+			StaleFlushInterceptor.failNextFlushes(0);
+			city.setMap(map);
+			this.cityRepository.saveAllParallel(Stream.of(city), 1, 1);
+		}
+	}
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class ReplicaRoutingTest {
+
+	private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private TransactionTemplate transactionTemplate;
+
+	private TransactionTemplate readOnlyTransactionTemplate;
+
+	@BeforeEach
+	void setUp() {
+		DataSource primaryDataSource = new DriverManagerDataSource("jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1");
+		DataSource replicaDataSource = new DriverManagerDataSource("jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1");
+		this.replicaRoutingDataSource = new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource,
+				Duration.ofSeconds(5), Optional.of("select 1"), Duration.ZERO, Duration.ofMillis(200));
+		DataSource dataSource = new LazyConnectionDataSourceProxy(this.replicaRoutingDataSource);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+		this.readOnlyTransactionTemplate.setReadOnly(true);
+	}
+
+	@Test
+	void test01() {
+		Assertions.assertEquals("REPLICA", this.readOnlyTransactionTemplate.execute(status -> this.getDatabase()));
+		Assertions.assertEquals("PRIMARY", this.transactionTemplate.execute(status -> this.getDatabase()));
+	}
+
+	// Reads after a write are pinned to the primary for a while
+	@Test
+	void test02() throws InterruptedException {
+		this.transactionTemplate.execute(status -> this.getDatabase());
+		long pinnedRoutes = this.replicaRoutingDataSource.getPinnedRoutes();
+		Assertions.assertEquals("PRIMARY", this.readOnlyTransactionTemplate.execute(status -> this.getDatabase()));
+		Assertions.assertEquals(pinnedRoutes + 1, this.replicaRoutingDataSource.getPinnedRoutes());
+		Thread.sleep(300);
+		Assertions.assertEquals("REPLICA", this.readOnlyTransactionTemplate.execute(status -> this.getDatabase()));
+	}
+
+	// A replica lagging more than tolerated is not read from
+	@Test
+	void test03() {
+		ReplicaRoutingDataSource laggingDataSource = new ReplicaRoutingDataSource(
+				new DriverManagerDataSource("jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1"),
+				new DriverManagerDataSource("jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1"), Duration.ofSeconds(5),
+				Optional.of("select 10"), Duration.ZERO, Duration.ZERO);
+		DataSource dataSource = new LazyConnectionDataSourceProxy(laggingDataSource);
+		JdbcTemplate laggingJdbcTemplate = new JdbcTemplate(dataSource);
+		TransactionTemplate template = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		template.setReadOnly(true);
+		Assertions.assertEquals("PRIMARY", template.execute(
+				status -> laggingJdbcTemplate.queryForObject("select database()", String.class).toUpperCase()));
+		Assertions.assertEquals(1, laggingDataSource.getLaggingRoutes());
+		Assertions.assertEquals(Duration.ofSeconds(10), laggingDataSource.getLag());
+	}
+
+	private String getDatabase() {
+		return this.jdbcTemplate.queryForObject("select database()", String.class).toUpperCase();
+	}
+
+}
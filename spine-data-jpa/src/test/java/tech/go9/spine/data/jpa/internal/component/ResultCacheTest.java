@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.querydsl.core.types.Predicate;
+
+import tech.go9.spine.sample.api.domain.Hotel;
+import tech.go9.spine.sample.api.domain.QCity;
+import tech.go9.spine.sample.api.domain.QHotel;
+import tech.go9.spine.sample.api.repository.CityRepository;
+import tech.go9.spine.sample.api.repository.HotelRepository;
+import tech.go9.spine.sample.internal.configuration.SpineDataJpaTestConfiguration;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { SpineDataJpaTestConfiguration.class })
+@DataJpaTest
+@ActiveProfiles("default")
+@TestPropertySource(properties = { "spine.data-jpa.result-cache.entities=Hotel" })
+class ResultCacheTest {
+
+	@Autowired
+	private ResultCache resultCache;
+
+	@Autowired
+	private HotelRepository hotelRepository;
+
+	@Autowired
+	private CityRepository cityRepository;
+
+	@Test
+	void test01() {
+		Optional<Predicate> predicate = Optional.of(QHotel.hotel.name.like("The%"));
+		Page<Hotel> page = this.hotelRepository.findAll(PageRequest.of(0, 5), predicate, Optional.of("city"));
+		long hitCount = this.resultCache.getStats().hitCount();
+		Page<Hotel> cachedPage = this.hotelRepository.findAll(PageRequest.of(0, 5), predicate, Optional.of("city"));
+		Assertions.assertEquals(hitCount + 1, this.resultCache.getStats().hitCount());
+		Assertions.assertEquals(page.getTotalElements(), cachedPage.getTotalElements());
+		Assertions.assertEquals(page.getContent().stream().map(Hotel::getId).toList(),
+				cachedPage.getContent().stream().map(Hotel::getId).toList());
+	}
+
+	@Test
+	void test02() {
+		Assertions.assertEquals(
+				ResultCache.normalize(QHotel.hotel.name.like("The%").and(QHotel.hotel.id.gt(3L))),
+				ResultCache.normalize(QHotel.hotel.id.gt(3L).and(QHotel.hotel.name.like("The%"))));
+	}
+
+	// Writes bump the version of the entity, so its cached pages are not used anymore
+	@Test
+	void test03() {
+		Optional<Predicate> predicate = Optional.of(QHotel.hotel.name.like("The%"));
+		long total = this.hotelRepository.findAll(PageRequest.of(0, 5), predicate, Optional.empty())
+				.getTotalElements();
+		this.hotelRepository.updateAll(QHotel.hotel.id.eq(5L), Map.of(QHotel.hotel.name, "The Hilton"));
+		Assertions.assertEquals(total + 1,
+				this.hotelRepository.findAll(PageRequest.of(0, 5), predicate, Optional.empty()).getTotalElements());
+	}
+
+	// Writes of a joined type bump its version too, so pages filtering by it are not used
+	@Test
+	void test04() {
+		Optional<Predicate> predicate = Optional.of(QHotel.hotel.city.name.eq("Bath"));
+		Assertions.assertTrue(this.hotelRepository.findAll(PageRequest.of(0, 5), predicate, Optional.empty())
+				.hasContent());
+		this.cityRepository.updateAll(QCity.city.id.eq(9L), Map.of(QCity.city.name, "Bath Spa"));
+		Assertions.assertFalse(this.hotelRepository.findAll(PageRequest.of(0, 5), predicate, Optional.empty())
+				.hasContent());
+	}
+
+}
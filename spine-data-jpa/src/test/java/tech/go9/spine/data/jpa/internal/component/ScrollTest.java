@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import jakarta.persistence.EntityManager;
+import tech.go9.spine.sample.api.domain.Hotel;
+import tech.go9.spine.sample.api.domain.QReview;
+import tech.go9.spine.sample.api.domain.Review;
+import tech.go9.spine.sample.api.repository.HotelRepository;
+import tech.go9.spine.sample.api.repository.ReviewRepository;
+import tech.go9.spine.sample.internal.configuration.SpineDataJpaTestConfiguration;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { SpineDataJpaTestConfiguration.class })
+@DataJpaTest
+@ActiveProfiles("default")
+@TestPropertySource(properties = { "spine.data-jpa.scroll.fetch-size=10", "spine.data-jpa.scroll.clear-interval=5" })
+class ScrollTest {
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private HotelRepository hotelRepository;
+
+	@Autowired
+	private ReviewRepository reviewRepository;
+
+	@Test
+	void test01() {
+		List<Review> reviews;
+		try (Stream<Review> stream = this.reviewRepository.scrollAll(Optional.empty(), Optional.empty())) {
+			reviews = stream.collect(Collectors.toList());
+		}
+		Assertions.assertEquals(63, reviews.size());
+		Assertions.assertFalse(this.entityManager.contains(reviews.get(0)));
+		Assertions.assertTrue(this.entityManager.contains(reviews.get(reviews.size() - 1)));
+	}
+
+	@Test
+	void test02() {
+		try (Stream<Review> stream = this.reviewRepository.scrollAll(QReview.review.title.like("Pretty%"))) {
+			Assertions.assertTrue(stream.allMatch(review -> review.getTitle().startsWith("Pretty")));
+		}
+	}
+
+	@Test
+	void test03() {
+		List<Hotel> hotels;
+		try (Stream<Hotel> stream = this.hotelRepository.scrollAll("reviews")) {
+			hotels = stream.collect(Collectors.toList());
+		}
+		Assertions.assertEquals(27, hotels.size());
+		Assertions.assertEquals(27, hotels.stream().map(Hotel::getId).distinct().count());
+		Assertions.assertTrue(hotels.stream().allMatch(hotel -> Hibernate.isInitialized(hotel.getReviews())));
+		Assertions.assertFalse(this.entityManager.contains(hotels.get(0)));
+	}
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import tech.go9.spine.core.api.domain.Selection;
+import tech.go9.spine.core.api.exception.UnexpectedException;
+import tech.go9.spine.sample.api.domain.QHotel;
+import tech.go9.spine.sample.api.repository.HotelRepository;
+import tech.go9.spine.sample.api.repository.ReviewRepository;
+import tech.go9.spine.sample.internal.configuration.SpineDataJpaTestConfiguration;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { SpineDataJpaTestConfiguration.class })
+@DataJpaTest
+@ActiveProfiles("default")
+class SelectionTest {
+
+	@Autowired
+	private HotelRepository hotelRepository;
+
+	@Autowired
+	private ReviewRepository reviewRepository;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void test01() {
+		List<Map<String, Object>> hotels = this.hotelRepository
+				.findAll(Selection.of("id", "name", "city.name"), Optional.of(QHotel.hotel.id.eq(9L)))
+				.collect(Collectors.toList());
+		Assertions.assertEquals(1, hotels.size());
+		Map<String, Object> hotel = hotels.get(0);
+		Assertions.assertEquals(9L, hotel.get("id"));
+		Assertions.assertEquals("The Bath Priory Hotel", hotel.get("name"));
+		Assertions.assertEquals(Map.of("name", "Bath"), hotel.get("city"));
+		Assertions.assertEquals(3, hotel.size());
+	}
+
+	@Test
+	void test02() {
+		Page<Map<String, Object>> page = this.reviewRepository.findAll(PageRequest.of(1, 10, Sort.by("id")),
+				Selection.of("title", "hotel.name", "hotel.city.country"), Optional.empty());
+		Assertions.assertEquals(63, page.getTotalElements());
+		Assertions.assertEquals(10, page.getNumberOfElements());
+	}
+
+	@Test
+	void test03() {
+		Assertions.assertThrows(UnexpectedException.class,
+				() -> this.hotelRepository.findAll(Selection.of("reviews.title"), Optional.empty()));
+		Assertions.assertThrows(UnexpectedException.class,
+				() -> this.hotelRepository.findAll(Selection.of("city"), Optional.empty()));
+		Assertions.assertThrows(UnexpectedException.class,
+				() -> this.hotelRepository.findAll(Selection.of("unknown"), Optional.empty()));
+	}
+
+}
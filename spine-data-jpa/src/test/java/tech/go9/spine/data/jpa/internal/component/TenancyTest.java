@@ -15,7 +15,16 @@
  */
 package tech.go9.spine.data.jpa.internal.component;
 
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -23,12 +32,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import jakarta.persistence.EntityManager;
+import tech.go9.spine.core.api.domain.AsOf;
+import tech.go9.spine.core.api.domain.CountStrategy;
+import tech.go9.spine.sample.api.domain.Booking;
 import tech.go9.spine.sample.api.domain.City;
 import tech.go9.spine.sample.api.domain.Hotel;
+import tech.go9.spine.sample.api.repository.BookingRepository;
 import tech.go9.spine.sample.api.repository.CityRepository;
 import tech.go9.spine.sample.api.repository.HotelRepository;
 import tech.go9.spine.sample.internal.configuration.SpineDataJpaTestConfiguration;
@@ -37,6 +56,7 @@ import tech.go9.spine.sample.internal.configuration.SpineDataJpaTestConfiguratio
 @ContextConfiguration(classes = { SpineDataJpaTestConfiguration.class })
 @DataJpaTest
 @ActiveProfiles("tenancy")
+@TestPropertySource(properties = { "spine.data-jpa.tenancy.hibernate-filter=true" })
 class TenancyTest {
 
 	@Autowired
@@ -45,6 +65,22 @@ class TenancyTest {
 	@Autowired
 	private HotelRepository hotelRepository;
 
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@BeforeEach
+	void authenticate() {
+		this.authenticate("alice");
+	}
+
+	@AfterEach
+	void clearAuthentication() {
+		SecurityContextHolder.clearContext();
+	}
+
 	@Test
 	@Disabled
 	void test01() {
@@ -69,4 +105,79 @@ class TenancyTest {
 		Assertions.assertEquals(1, page.getContent().size());
 	}
 
+	@Test
+	void test04() {
+		Assertions.assertEquals(List.of("B-0001", "B-0002"),
+				this.bookingRepository.findAll(PageRequest.of(0, 10, Sort.by("reference")))
+						.map(Booking::getReference)
+						.getContent());
+		Assertions.assertEquals(2, this.bookingRepository.findAll().size());
+		Assertions.assertTrue(this.bookingRepository.findById(1L).isPresent());
+		Assertions.assertTrue(this.bookingRepository.findById(3L).isEmpty());
+		Assertions.assertEquals(2,
+				this.bookingRepository.findAllAsOf(AsOf.ofRevision(1), Optional.empty(), Pageable.unpaged())
+						.getTotalElements());
+	}
+
+	// Totals cached for a tenant are not served to another, Hibernate filters binding it
+	@Test
+	void test05() {
+		this.authenticate("bob");
+		Booking booking = new Booking();
+		booking.setReference("B-0005");
+		booking.setGuest("Eve Black");
+		booking.setNights(1);
+		booking.setTenant(URI.create("bob"));
+		this.bookingRepository.saveOne(booking);
+		this.authenticate("alice");
+		Assertions.assertEquals(2, this.countBookings(CountStrategy.CACHED));
+		this.authenticate("bob");
+		Assertions.assertEquals(3, this.countBookings(CountStrategy.CACHED));
+		Assertions.assertEquals(3, this.countBookings(CountStrategy.ESTIMATED));
+	}
+
+	// Existing bookings are checked against the tenant in bulk, not one query per booking
+	@Test
+	void test06() {
+		for (int index = 6; index <= 8; index++) {
+			Booking booking = new Booking();
+			booking.setReference("B-000" + index);
+			booking.setGuest("Ann Smith");
+			booking.setNights(index);
+			booking.setTenant(URI.create("alice"));
+			this.bookingRepository.saveOne(booking);
+		}
+		this.entityManager.flush();
+		this.entityManager.clear();
+		List<Booking> bookings = this.bookingRepository.findAll(Sort.by("reference"));
+		this.entityManager.clear();
+		bookings.forEach(booking -> booking.setNights(booking.getNights() + 1));
+
+		Statistics statistics = this.entityManager.getEntityManagerFactory().unwrap(SessionFactory.class)
+				.getStatistics();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+		try {
+			this.bookingRepository.saveAll(bookings.stream(), savedBookings -> Assertions.assertEquals(5,
+					savedBookings.size()));
+			Assertions.assertTrue(statistics.getQueryExecutionCount() < bookings.size());
+		}
+		finally {
+			statistics.setStatisticsEnabled(false);
+		}
+		Assertions.assertEquals(List.of(3, 4, 7, 8, 9),
+				this.bookingRepository.findAll(Sort.by("reference")).stream().map(Booking::getNights)
+						.collect(Collectors.toList()));
+	}
+
+	private long countBookings(CountStrategy countStrategy) {
+		return ((Page<Booking>) this.bookingRepository.findAll(PageRequest.of(0, 1), countStrategy))
+				.getTotalElements();
+	}
+
+	private void authenticate(String tenant) {
+		SecurityContextHolder.getContext()
+				.setAuthentication(new UsernamePasswordAuthenticationToken(tenant, null, List.of()));
+	}
+
 }
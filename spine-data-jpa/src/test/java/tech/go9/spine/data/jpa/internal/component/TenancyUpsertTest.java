@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.net.URI;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import jakarta.persistence.EntityManager;
+import tech.go9.spine.sample.api.domain.Guest;
+import tech.go9.spine.sample.api.domain.QGuest;
+import tech.go9.spine.sample.api.repository.GuestRepository;
+import tech.go9.spine.sample.internal.configuration.SpineDataJpaTestConfiguration;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { SpineDataJpaTestConfiguration.class })
+@DataJpaTest
+@ActiveProfiles("tenancy")
+@TestPropertySource(properties = { "spine.data-jpa.tenancy.hibernate-filter=true",
+		"spine.data-jpa.tenancy-field-name=tenant" })
+class TenancyUpsertTest {
+
+	@Autowired
+	private GuestRepository guestRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@BeforeEach
+	void authenticate() {
+		this.authenticate("alice");
+	}
+
+	@AfterEach
+	void clearAuthentication() {
+		SecurityContextHolder.clearContext();
+	}
+
+	// The guest of bob is skipped although the Hibernate filter of alice is enabled
+	@Test
+	void test01() {
+		Assertions.assertEquals(1, this.guestRepository.findAll().size());
+		Guest ann = this.createGuest("ann@example.com", "Ann Jones");
+		Guest carl = this.createGuest("carl@example.com", "Mallory");
+		Guest dora = this.createGuest("dora@example.com", "Dora Green");
+		Assertions.assertEquals(2,
+				this.guestRepository.upsertAll(Stream.of(ann, carl, dora), List.of(QGuest.guest.email)));
+		Assertions.assertNull(carl.getId());
+		this.authenticate("bob");
+		Assertions.assertEquals("Carl Brown", this.guestRepository.findById(2L).get().getName());
+	}
+
+	// An updated row keeps its creation auditing, a new one is created by the caller
+	@Test
+	void test02() {
+		Guest ann = this.createGuest("ann@example.com", "Ann Jones");
+		Guest dora = this.createGuest("dora@example.com", "Dora Green");
+		this.guestRepository.upsertAll(Stream.of(ann, dora), List.of(QGuest.guest.email));
+		Assertions.assertEquals(1L, ann.getId());
+		Assertions.assertNull(ann.getCreatedBy());
+		Assertions.assertEquals("alice", ann.getLastModifiedBy());
+		Guest updatedAnn = this.guestRepository.findById(1L).get();
+		Assertions.assertEquals("Ann Jones", updatedAnn.getName());
+		Assertions.assertEquals("seed", updatedAnn.getCreatedBy());
+		Assertions.assertEquals("alice", updatedAnn.getLastModifiedBy());
+		Guest createdDora = this.guestRepository.findById(dora.getId()).get();
+		Assertions.assertEquals("alice", createdDora.getCreatedBy());
+		Assertions.assertNotNull(createdDora.getCreatedDate());
+		Assertions.assertEquals(URI.create("alice"), createdDora.getTenant());
+	}
+
+	// The filters turned off to look up conflicting rows are on again for later reads
+	@Test
+	void test03() {
+		Assertions.assertEquals(1, this.guestRepository.findAll().size());
+		this.guestRepository.upsertAll(Stream.of(this.createGuest("dora@example.com", "Dora Green")),
+				List.of(QGuest.guest.email));
+		Assertions.assertEquals(List.of("ann@example.com", "dora@example.com"),
+				this.entityManager.createQuery("select g from Guest g order by g.email", Guest.class)
+						.getResultList()
+						.stream()
+						.map(Guest::getEmail)
+						.collect(Collectors.toList()));
+	}
+
+	private void authenticate(String tenant) {
+		SecurityContextHolder.getContext()
+				.setAuthentication(new UsernamePasswordAuthenticationToken(tenant, null, List.of()));
+	}
+
+	private Guest createGuest(String email, String name) {
+		Guest guest = new Guest();
+		guest.setEmail(email);
+		guest.setName(name);
+		return guest;
+	}
+
+}
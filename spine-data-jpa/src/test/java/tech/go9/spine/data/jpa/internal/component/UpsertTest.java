@@ -0,0 +1,84 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.data.jpa.internal.component;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import tech.go9.spine.sample.api.domain.City;
+import tech.go9.spine.sample.api.domain.QCity;
+import tech.go9.spine.sample.api.repository.CityRepository;
+import tech.go9.spine.sample.internal.configuration.SampleFixtures;
+import tech.go9.spine.sample.internal.configuration.SpineDataJpaTestConfiguration;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { SpineDataJpaTestConfiguration.class })
+@DataJpaTest
+@ActiveProfiles("default")
+class UpsertTest {
+
+	@Autowired
+	private CityRepository cityRepository;
+
+	@Test
+	void test01() {
+		City melbourne = SampleFixtures.createCity(2L, "Melbourne");
+		City geelong = SampleFixtures.createCity(null, "Geelong");
+		Assertions.assertEquals(2,
+				this.cityRepository.upsertAll(Stream.of(melbourne, geelong), List.of(QCity.city.id)));
+		Assertions.assertEquals(2L, melbourne.getId());
+		Assertions.assertNotNull(geelong.getId());
+		Assertions.assertEquals("Geelong", this.cityRepository.findById(geelong.getId()).get().getName());
+		Assertions.assertEquals("0, 1", this.cityRepository.findById(2L).get().getMap());
+	}
+
+	// Keyed by name, an existing row keeps its id and it is read back
+	@Test
+	void test02() {
+		City city = SampleFixtures.createCity(null, "Bath");
+		Assertions.assertEquals(1, this.cityRepository.upsertAll(Stream.of(city), List.of(QCity.city.name)));
+		Assertions.assertEquals(9L, city.getId());
+		Assertions.assertEquals("Victoria", this.cityRepository.findById(9L).get().getState());
+	}
+
+	// No upsert matches a null key, so only a generated id may be left null
+	@Test
+	void test03() {
+		City city = SampleFixtures.createCity(null, null);
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> this.cityRepository.upsertAll(Stream.of(city), List.of(QCity.city.name)));
+	}
+
+	// Two entities with the same key in one chunk would both take the id of its row
+	@Test
+	void test04() {
+		City bath = SampleFixtures.createCity(null, "Bath");
+		City otherBath = SampleFixtures.createCity(null, "Bath");
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> this.cityRepository.upsertAll(Stream.of(bath, otherBath), List.of(QCity.city.name)));
+		Assertions.assertNull(bath.getId());
+	}
+
+}
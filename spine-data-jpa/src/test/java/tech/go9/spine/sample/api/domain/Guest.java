@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.sample.api.domain;
+
+import java.io.Serializable;
+import java.net.URI;
+import java.time.Instant;
+
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.ParamDef;
+import org.springframework.data.annotation.CreatedBy;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedBy;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import tech.go9.spine.data.jpa.api.converter.URIConverter;
+import tech.go9.spine.data.jpa.internal.component.TenancyEntityListener;
+
+@Entity
+@EntityListeners({ AuditingEntityListener.class, TenancyEntityListener.class })
+@FilterDef(name = Guest.TENANCY_FILTER, parameters = @ParamDef(name = "tenant", type = String.class))
+@Filter(name = Guest.TENANCY_FILTER, condition = "tenant = :tenant")
+public class Guest implements Serializable {
+
+	public static final String TENANCY_FILTER = "guestTenancy";
+
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@SequenceGenerator(name = "guest_generator", sequenceName = "guest_sequence", initialValue = 3)
+	@GeneratedValue(generator = "guest_generator")
+	private Long id;
+
+	@Column(nullable = false, unique = true)
+	private String email;
+
+	@Column(nullable = false)
+	private String name;
+
+	@Column
+	@Convert(converter = URIConverter.class)
+	private URI tenant;
+
+	@CreatedBy
+	@Column
+	private String createdBy;
+
+	@CreatedDate
+	@Column
+	private Instant createdDate;
+
+	@LastModifiedBy
+	@Column
+	private String lastModifiedBy;
+
+	@LastModifiedDate
+	@Column
+	private Instant lastModifiedDate;
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getEmail() {
+		return email;
+	}
+
+	public void setEmail(String email) {
+		this.email = email;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public URI getTenant() {
+		return tenant;
+	}
+
+	public void setTenant(URI tenant) {
+		this.tenant = tenant;
+	}
+
+	public String getCreatedBy() {
+		return createdBy;
+	}
+
+	public void setCreatedBy(String createdBy) {
+		this.createdBy = createdBy;
+	}
+
+	public Instant getCreatedDate() {
+		return createdDate;
+	}
+
+	public void setCreatedDate(Instant createdDate) {
+		this.createdDate = createdDate;
+	}
+
+	public String getLastModifiedBy() {
+		return lastModifiedBy;
+	}
+
+	public void setLastModifiedBy(String lastModifiedBy) {
+		this.lastModifiedBy = lastModifiedBy;
+	}
+
+	public Instant getLastModifiedDate() {
+		return lastModifiedDate;
+	}
+
+	public void setLastModifiedDate(Instant lastModifiedDate) {
+		this.lastModifiedDate = lastModifiedDate;
+	}
+
+	@Override
+	public String toString() {
+		return getEmail() + "," + getName() + "," + getTenant();
+	}
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.sample.internal.configuration;
+
+import tech.go9.spine.sample.api.domain.City;
+
+public final class SampleFixtures {
+
+	private SampleFixtures() {
+
+	}
+
+	public static City createCity(Long id, String name) {
+		return createCity(id, name, "0, 1");
+	}
+
+	public static City createCity(Long id, String name, String map) {
+		City city = new City();
+		city.setId(id);
+		city.setCountry("Australia");
+		city.setName(name);
+		city.setState("Victoria");
+		city.setMap(map);
+		return city;
+	}
+
+}
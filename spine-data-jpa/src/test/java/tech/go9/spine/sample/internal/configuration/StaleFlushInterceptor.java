@@ -0,0 +1,52 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.sample.internal.configuration;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.Interceptor;
+import org.hibernate.StaleObjectStateException;
+import org.hibernate.type.Type;
+
+import tech.go9.spine.sample.api.domain.City;
+
+/**
+ * Fails the next flushes of changed cities as if another transaction had changed them
+ * first, so optimistic lock retries can be tested. Registered by tests as the session
+ * factory interceptor.
+ */
+public class StaleFlushInterceptor implements Interceptor {
+
+	private static final AtomicInteger remainingFailures = new AtomicInteger();
+
+	public static void failNextFlushes(int failures) {
+		remainingFailures.set(failures);
+	}
+
+	public static int getRemainingFailures() {
+		return remainingFailures.get();
+	}
+
+	@Override
+	public boolean onFlushDirty(Object entity, Object id, Object[] currentState, Object[] previousState,
+			String[] propertyNames, Type[] types) {
+		if (entity instanceof City && remainingFailures.getAndUpdate(count -> Math.max(count - 1, 0)) > 0) {
+			throw new StaleObjectStateException(City.class.getName(), id);
+		}
+		return false;
+	}
+
+}
@@ -17,14 +17,17 @@ package tech.go9.spine.sample.internal.tenancy;
 
 import java.util.Optional;
 
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
 import com.querydsl.core.types.Predicate;
 
 import tech.go9.spine.data.jpa.api.tenancy.TenancyFilter;
 import tech.go9.spine.sample.api.domain.City;
 import tech.go9.spine.sample.api.domain.QCity;
 
-//@Component
-// @Profile("tenancy")
+@Component
+@Profile("joined-tenancy")
 public class CityTenancyFilter implements TenancyFilter<City> {
 
 	@Override
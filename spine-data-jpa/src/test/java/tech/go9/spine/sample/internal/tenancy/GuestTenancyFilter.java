@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.sample.internal.tenancy;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import com.querydsl.core.types.Predicate;
+
+import tech.go9.spine.data.jpa.api.tenancy.TenancyFilter;
+import tech.go9.spine.sample.api.domain.Guest;
+import tech.go9.spine.sample.api.domain.QGuest;
+
+@Component
+@Profile("tenancy")
+public class GuestTenancyFilter implements TenancyFilter<Guest> {
+
+	private static final URI ANONYMOUS = URI.create("anonymous");
+
+	@Override
+	public Optional<Predicate> getRetrievePredicate() {
+		return Optional.of(QGuest.guest.tenant.eq(this.getTenant()));
+	}
+
+	@Override
+	public Optional<Predicate> getSavePredicate() {
+		return Optional.of(QGuest.guest.tenant.eq(this.getTenant()));
+	}
+
+	@Override
+	public Optional<String> getFilterName() {
+		return Optional.of(Guest.TENANCY_FILTER);
+	}
+
+	@Override
+	public Map<String, Object> getFilterParameters() {
+		return Map.of("tenant", this.getTenant().toString());
+	}
+
+	private URI getTenant() {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		return authentication == null ? ANONYMOUS : URI.create(authentication.getName());
+	}
+
+}
@@ -0,0 +1,19 @@
+--
+-- Bookings of two tenants, audited at the first revision so later revisions can close it, and
+-- guests of the same tenants
+--
+
+insert into revinfo(rev, revtstmp) values (1, 1577836800000);
+
+insert into booking(id, reference, guest, nights, tenant) values (1, 'B-0001', 'Ann Smith', 2, 'alice');
+insert into booking(id, reference, guest, nights, tenant) values (2, 'B-0002', 'Ben Jones', 3, 'alice');
+insert into booking(id, reference, guest, nights, tenant) values (3, 'B-0003', 'Carl Brown', 1, 'bob');
+insert into booking(id, reference, guest, nights, tenant) values (4, 'B-0004', 'Dana White', 4, 'bob');
+
+insert into booking_aud(id, rev, revtype, reference, guest, nights, tenant) values (1, 1, 0, 'B-0001', 'Ann Smith', 2, 'alice');
+insert into booking_aud(id, rev, revtype, reference, guest, nights, tenant) values (2, 1, 0, 'B-0002', 'Ben Jones', 3, 'alice');
+insert into booking_aud(id, rev, revtype, reference, guest, nights, tenant) values (3, 1, 0, 'B-0003', 'Carl Brown', 1, 'bob');
+insert into booking_aud(id, rev, revtype, reference, guest, nights, tenant) values (4, 1, 0, 'B-0004', 'Dana White', 4, 'bob');
+
+insert into guest(id, email, name, tenant, created_by, created_date) values (1, 'ann@example.com', 'Ann Smith', 'alice', 'seed', '2020-01-01 00:00:00');
+insert into guest(id, email, name, tenant, created_by, created_date) values (2, 'carl@example.com', 'Carl Brown', 'bob', 'seed', '2020-01-01 00:00:00');
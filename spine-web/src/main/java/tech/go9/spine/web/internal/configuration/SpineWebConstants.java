@@ -31,8 +31,18 @@ public class SpineWebConstants {
 
 	public static final String SORT_REQUEST_PARAM_NAME = "$sort";
 
+	public static final String AFTER_REQUEST_PARAM_NAME = "$after";
+
+	public static final String BEFORE_REQUEST_PARAM_NAME = "$before";
+
+	public static final String COUNT_REQUEST_PARAM_NAME = "$count";
+
 	public static final String EXPAND_REQUEST_PARAM_NAME = "$expand";
 
+	public static final String SELECT_REQUEST_PARAM_NAME = "$select";
+
+	public static final String AS_OF_REQUEST_PARAM_NAME = "$asOf";
+
 	public static final String EXPAND_METHOD_PARAMETER_NAME = "expand";
 
 	public static final int DEFAULT_PAGE_NUMBER = 0;
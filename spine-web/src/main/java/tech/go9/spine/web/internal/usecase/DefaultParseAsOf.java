@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.web.internal.usecase;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import tech.go9.spine.core.api.domain.AsOf;
+import tech.go9.spine.web.api.exception.InvalidAsOfExpressionException;
+import tech.go9.spine.web.api.usecase.ParseAsOf;
+
+@Component
+public class DefaultParseAsOf implements ParseAsOf {
+
+	private static final Pattern REVISION_PATTERN = Pattern.compile("^[0-9]+$");
+
+	@Override
+	public AsOf execute(String expression) {
+
+		Assert.notNull(expression, "Parameter expression must not be null");
+
+		String asOf = expression.trim();
+		try {
+			if (REVISION_PATTERN.matcher(asOf).matches()) {
+				return AsOf.ofRevision(Long.valueOf(asOf));
+			}
+			return AsOf.ofInstant(parseInstant(asOf));
+		}
+		catch (DateTimeException | NumberFormatException exception) {
+			throw new InvalidAsOfExpressionException(expression, exception);
+		}
+	}
+
+	private static Instant parseInstant(String asOf) {
+		try {
+			return Instant.parse(asOf);
+		}
+		catch (DateTimeException exception) {
+			return OffsetDateTime.parse(asOf).toInstant();
+		}
+	}
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.web.internal.usecase;
+
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import lombok.AllArgsConstructor;
+import tech.go9.spine.core.api.domain.KeysetPageable;
+import tech.go9.spine.web.api.exception.InvalidCursorExpressionException;
+import tech.go9.spine.web.api.usecase.ParseKeysetPageable;
+import tech.go9.spine.web.api.usecase.ParseSort;
+import tech.go9.spine.web.internal.configuration.SpineWebConstants;
+import tech.go9.spine.web.internal.configuration.SpineWebProperties;
+
+@Component
+@AllArgsConstructor
+public class DefaultParseKeysetPageable implements ParseKeysetPageable {
+
+	private final ParseSort sortParser;
+
+	private final SpineWebProperties properties;
+
+	@Override
+	public KeysetPageable execute(OptionalInt pageSize, Optional<String> expression, Optional<String> after,
+			Optional<String> before) {
+
+		Assert.notNull(pageSize, "Parameter pageSize must not be null");
+		Assert.notNull(expression, "Parameter expression must not be null");
+		Assert.notNull(after, "Parameter after must not be null");
+		Assert.notNull(before, "Parameter before must not be null");
+
+		if (after.isPresent() && before.isPresent()) {
+			throw new InvalidCursorExpressionException(SpineWebConstants.AFTER_REQUEST_PARAM_NAME,
+					SpineWebConstants.BEFORE_REQUEST_PARAM_NAME);
+		}
+
+		Sort sort = expression.map(this.sortParser::execute).orElse(Sort.unsorted());
+		return KeysetPageable.of(pageSize.orElse(this.properties.getDefaultPageSize()), sort, after, before);
+	}
+
+}
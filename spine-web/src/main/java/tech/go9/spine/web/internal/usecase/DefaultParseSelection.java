@@ -0,0 +1,54 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.web.internal.usecase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import tech.go9.spine.core.api.domain.Selection;
+import tech.go9.spine.web.api.exception.InvalidSelectExpressionException;
+import tech.go9.spine.web.api.usecase.ParseSelection;
+
+@Component
+public class DefaultParseSelection implements ParseSelection {
+
+	private static final String SELECT_EXPRESSION_SEPARATOR_CHAR = ",";
+
+	private static final Pattern SELECT_EXPRESSION_PART_PATTERN = Pattern
+			.compile("^[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)*$");
+
+	@Override
+	public Selection execute(String expression) {
+
+		Assert.notNull(expression, "Parameter expression must not be null");
+
+		List<String> attributes = new ArrayList<>();
+		for (String selectExpressionPart : expression.split(SELECT_EXPRESSION_SEPARATOR_CHAR)) {
+			String attribute = selectExpressionPart.trim();
+			if (!SELECT_EXPRESSION_PART_PATTERN.matcher(attribute).matches()) {
+				throw new InvalidSelectExpressionException(selectExpressionPart, expression);
+			}
+			attributes.add(attribute);
+		}
+
+		return Selection.of(attributes);
+	}
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.web.internal.usecase;
+
+import java.lang.reflect.ParameterizedType;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import lombok.AllArgsConstructor;
+import tech.go9.spine.core.api.domain.Selection;
+import tech.go9.spine.web.api.usecase.ParseSelection;
+import tech.go9.spine.web.internal.configuration.SpineWebConstants;
+
+@Component
+@AllArgsConstructor
+public class DefaultResolveSelectionMethodArgument implements HandlerMethodArgumentResolver, InitializingBean {
+
+	private final RequestMappingHandlerAdapter requestMappingHandlerAdapter;
+
+	private final ParseSelection parseSelection;
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		List<HandlerMethodArgumentResolver> argumentResolvers = requestMappingHandlerAdapter.getArgumentResolvers();
+		List<HandlerMethodArgumentResolver> newArgumentResolvers = new LinkedList<>();
+		newArgumentResolvers.add(this);
+		newArgumentResolvers.addAll(argumentResolvers);
+		requestMappingHandlerAdapter.setArgumentResolvers(Collections.unmodifiableList(newArgumentResolvers));
+	}
+
+	@Override
+	public boolean supportsParameter(MethodParameter methodParameter) {
+		return methodParameter.getParameterType().equals(Optional.class)
+				&& ((ParameterizedType) methodParameter.getGenericParameterType()).getActualTypeArguments()[0]
+						.equals(Selection.class);
+	}
+
+	@Override
+	public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+			NativeWebRequest webRequest, WebDataBinderFactory binderFactory) throws Exception {
+		return Optional.ofNullable(webRequest.getParameter(SpineWebConstants.SELECT_REQUEST_PARAM_NAME))
+				.filter(expression -> !expression.isBlank()).map(this.parseSelection::execute);
+	}
+
+}
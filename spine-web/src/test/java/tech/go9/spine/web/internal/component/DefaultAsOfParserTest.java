@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.web.internal.component;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
+
+import tech.go9.spine.core.api.domain.AsOf;
+import tech.go9.spine.web.api.exception.InvalidAsOfExpressionException;
+import tech.go9.spine.web.internal.configuration.SpineWebTestConfiguration;
+import tech.go9.spine.web.internal.usecase.DefaultParseAsOf;
+
+@SpringBootTest
+@EnableAutoConfiguration
+@ContextConfiguration(classes = { SpineWebTestConfiguration.class })
+class DefaultAsOfParserTest {
+
+	@Autowired
+	private DefaultParseAsOf asOfParser;
+
+	@Test
+	void testGetAsOf01() {
+		Assertions.assertEquals(AsOf.ofRevision(42L), this.asOfParser.execute("42"));
+		Assertions.assertEquals(AsOf.ofInstant(Instant.parse("2023-05-01T10:15:30Z")),
+				this.asOfParser.execute("2023-05-01T10:15:30Z"));
+		Assertions.assertEquals(AsOf.ofInstant(Instant.parse("2023-05-01T07:15:30Z")),
+				this.asOfParser.execute("2023-05-01T10:15:30+03:00"));
+	}
+
+	@Test
+	void testGetAsOf02() {
+		Assertions.assertThrows(InvalidAsOfExpressionException.class, () -> this.asOfParser.execute("-1"));
+		Assertions.assertThrows(InvalidAsOfExpressionException.class, () -> this.asOfParser.execute("yesterday"));
+	}
+
+}
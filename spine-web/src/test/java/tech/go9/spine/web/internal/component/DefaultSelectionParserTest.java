@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tech.go9.spine.web.internal.component;
+
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ContextConfiguration;
+
+import tech.go9.spine.core.api.domain.Selection;
+import tech.go9.spine.sample.api.repository.HotelRepository;
+import tech.go9.spine.web.api.exception.InvalidSelectExpressionException;
+import tech.go9.spine.web.internal.configuration.SpineWebTestConfiguration;
+import tech.go9.spine.web.internal.usecase.DefaultParseSelection;
+
+@SpringBootTest
+@EnableAutoConfiguration
+@ContextConfiguration(classes = { SpineWebTestConfiguration.class })
+class DefaultSelectionParserTest {
+
+	@Autowired
+	private DefaultParseSelection selectionParser;
+
+	@Autowired
+	private HotelRepository hotelRepository;
+
+	@Test
+	void testGetSelection01() {
+		Selection selection = this.selectionParser.execute("name, city.name");
+		Assertions.assertEquals(Selection.of("name", "city.name"), selection);
+		Page<Map<String, Object>> page = this.hotelRepository.findAll(PageRequest.of(0, 10), selection,
+				Optional.empty());
+		Assertions.assertEquals(10, page.getNumberOfElements());
+		Assertions.assertTrue(page.getContent().get(0).get("city") instanceof Map);
+	}
+
+	@Test
+	void testGetSelection02() {
+		Assertions.assertThrows(InvalidSelectExpressionException.class,
+				() -> this.selectionParser.execute("name,,city"));
+		Assertions.assertThrows(InvalidSelectExpressionException.class,
+				() -> this.selectionParser.execute("city.name desc"));
+	}
+
+}